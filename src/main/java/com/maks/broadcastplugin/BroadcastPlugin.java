@@ -8,9 +8,15 @@ import com.maks.broadcastplugin.managers.ConfigManager;
 import com.maks.broadcastplugin.managers.ConfigWatcher;
 import com.maks.broadcastplugin.managers.MessageManager;
 import com.maks.broadcastplugin.managers.PlaceholderManager;
+import com.maks.broadcastplugin.managers.RecipientIndex;
 import com.maks.broadcastplugin.models.MessageCategory;
+import com.maks.broadcastplugin.placeholders.PlaceholderService;
+import com.maks.broadcastplugin.rendering.ChatTransport;
+import com.maks.broadcastplugin.rendering.RenderPipeline;
+import com.maks.broadcastplugin.scheduling.FanOutDispatcher;
 import com.maks.broadcastplugin.scheduling.MessageScheduler;
 import org.bukkit.Bukkit;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitTask;
 
@@ -31,6 +37,10 @@ public class BroadcastPlugin extends JavaPlugin {
     private PlaceholderManager placeholderManager;
     private MessageScheduler messageScheduler;
     private MessageConditionEvaluator conditionEvaluator;
+    private ChatTransport chatTransport;
+    private FanOutDispatcher fanOutDispatcher;
+    private RenderPipeline renderPipeline;
+    private RecipientIndex recipientIndex;
 
     // Task for legacy broadcast mode
     private BukkitTask broadcastTask;
@@ -44,6 +54,27 @@ public class BroadcastPlugin extends JavaPlugin {
             // Initialize managers
             configManager = new ConfigManager(this);
 
+            // Detect how chat packets are sent on this server before any messages are cached
+            chatTransport = ChatTransport.detect(configManager.getChatTransport());
+            getLogger().info("Using " + chatTransport.getName() + " chat transport");
+
+            // Initialize placeholder manager before any messages are compiled, so static placeholders can be folded
+            placeholderManager = new PlaceholderManager(this);
+
+            // Let other plugins add their own placeholders
+            getServer().getServicesManager().register(PlaceholderService.class, placeholderManager, this, ServicePriority.Normal);
+
+            // Initialize the fan-out dispatcher used when fan-out delivery is enabled
+            fanOutDispatcher = new FanOutDispatcher(this);
+
+            // Initialize the render pipeline used when async rendering is enabled
+            renderPipeline = new RenderPipeline(this, configManager.getAsyncRenderThreads(),
+                                                configManager.getAsyncRenderQueueSize());
+
+            // Initialize the recipient index used for permission-gated broadcasts
+            recipientIndex = new RecipientIndex(this);
+            getServer().getPluginManager().registerEvents(recipientIndex, this);
+
             // Initialize category manager factory if categories are enabled
             if (configManager.areCategoriesEnabled()) {
                 categoryManagerFactory = new CategoryManagerFactory(this, configManager);
@@ -55,9 +86,6 @@ public class BroadcastPlugin extends JavaPlugin {
                 getLogger().info("Legacy broadcasting mode enabled");
             }
 
-            // Initialize placeholder manager
-            placeholderManager = new PlaceholderManager(this);
-
             // Initialize message condition evaluator
             conditionEvaluator = new MessageConditionEvaluator(this);
 
@@ -109,9 +137,22 @@ public class BroadcastPlugin extends JavaPlugin {
         }
         categoryTasks.clear();
 
+        // Drop any broadcasts still waiting for fan-out delivery
+        if (fanOutDispatcher != null) {
+            fanOutDispatcher.stop();
+        }
+
+        // Stop the render workers
+        if (renderPipeline != null) {
+            renderPipeline.shutdown();
+        }
+
         // Cancel all tasks from this plugin as a safety measure
         Bukkit.getScheduler().cancelTasks(this);
 
+        // Stop offering the placeholder service
+        getServer().getServicesManager().unregisterAll(this);
+
         // Stop the message scheduler
         if (messageScheduler != null) {
             messageScheduler.stopAllSchedules();
@@ -163,6 +204,16 @@ public class BroadcastPlugin extends JavaPlugin {
         }
         categoryTasks.clear();
 
+        // Permissions may have changed with the configuration, rebuild tracked recipients on demand
+        if (recipientIndex != null) {
+            recipientIndex.clear();
+        }
+
+        // Placeholder cache times to live may have changed, start from fresh values
+        if (placeholderManager != null) {
+            placeholderManager.clearCache();
+        }
+
         try {
             // Check if categories are enabled
             if (configManager.areCategoriesEnabled()) {
@@ -340,6 +391,42 @@ public class BroadcastPlugin extends JavaPlugin {
         return placeholderManager;
     }
 
+    /**
+     * Gets the chat transport used to send cached messages.
+     *
+     * @return The chat transport
+     */
+    public ChatTransport getChatTransport() {
+        return chatTransport;
+    }
+
+    /**
+     * Gets the fan-out dispatcher used for tick-budgeted delivery.
+     *
+     * @return The fan-out dispatcher
+     */
+    public FanOutDispatcher getFanOutDispatcher() {
+        return fanOutDispatcher;
+    }
+
+    /**
+     * Gets the render pipeline used for async rendering.
+     *
+     * @return The render pipeline
+     */
+    public RenderPipeline getRenderPipeline() {
+        return renderPipeline;
+    }
+
+    /**
+     * Gets the recipient index used for permission-gated broadcasts.
+     *
+     * @return The recipient index
+     */
+    public RecipientIndex getRecipientIndex() {
+        return recipientIndex;
+    }
+
     /**
      * Gets the message condition evaluator.
      *
@@ -15,6 +15,9 @@ import java.util.Map;
 public class MessageConditionEvaluator {
     private final JavaPlugin plugin;
     private final Map<String, MessageCondition> conditions = new HashMap<>();
+
+    // Incremented every time conditions are loaded, so cached results can be invalidated
+    private long version = 0;
     
     /**
      * Constructs a new MessageConditionEvaluator.
@@ -33,6 +36,7 @@ public class MessageConditionEvaluator {
     public void loadConditions(ConfigurationSection config) {
         // Clear existing conditions
         conditions.clear();
+        version++;
         
         if (config == null) {
             return;
@@ -153,6 +157,16 @@ public class MessageConditionEvaluator {
         return false;
     }
     
+    /**
+     * Gets the version of the loaded conditions.
+     * The version changes every time conditions are loaded.
+     *
+     * @return The version of the loaded conditions
+     */
+    public long getVersion() {
+        return version;
+    }
+    
     /**
      * Gets the number of loaded conditions.
      *
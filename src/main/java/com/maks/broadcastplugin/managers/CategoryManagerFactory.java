@@ -1,9 +1,15 @@
 package com.maks.broadcastplugin.managers;
 
 import com.maks.broadcastplugin.models.MessageCategory;
+import com.maks.broadcastplugin.models.InteractiveMessage;
+import com.maks.broadcastplugin.rendering.ComponentPool;
+import com.maks.broadcastplugin.rendering.ParseBundle;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -11,9 +17,12 @@ import java.util.Map;
  * This class ensures that only one CategoryMessageManager is created for each category.
  */
 public class CategoryManagerFactory {
+    private static final String PARSE_BUNDLE_FILE = "parse-bundle.bin";
+
     private final JavaPlugin plugin;
     private final ConfigManager configManager;
     private final Map<String, CategoryMessageManager> managers = new HashMap<>();
+    private final ComponentPool componentPool;
     
     /**
      * Constructs a new CategoryManagerFactory.
@@ -24,6 +33,8 @@ public class CategoryManagerFactory {
     public CategoryManagerFactory(JavaPlugin plugin, ConfigManager configManager) {
         this.plugin = plugin;
         this.configManager = configManager;
+        this.componentPool = new ComponentPool(plugin);
+        loadParseBundle();
         initializeManagers();
     }
     
@@ -31,8 +42,9 @@ public class CategoryManagerFactory {
      * Initializes the category message managers.
      */
     private void initializeManagers() {
-        // Clear existing managers
+        // Clear existing managers; the component pool is kept, so unchanged lines are not parsed again
         managers.clear();
+        componentPool.startReload();
         
         // If categories are not enabled, return
         if (!configManager.areCategoriesEnabled()) {
@@ -41,13 +53,77 @@ public class CategoryManagerFactory {
         
         // Create a manager for each category
         for (MessageCategory category : configManager.getCategories().values()) {
-            CategoryMessageManager manager = new CategoryMessageManager(plugin, category);
+            CategoryMessageManager manager = new CategoryMessageManager(plugin, category, componentPool);
             managers.put(category.getName(), manager);
             
             if (plugin.getConfig().getBoolean("debug", false)) {
                 plugin.getLogger().info("Created message manager for category: " + category.getName());
             }
         }
+
+        if (plugin.getConfig().getBoolean("debug", false)) {
+            plugin.getLogger().info("Component pool: " + componentPool.getHitCount() + " lines reused, " +
+                                   componentPool.getLoadedCount() + " loaded from the parse bundle, " +
+                                   componentPool.getParsedCount() + " lines parsed, " +
+                                   componentPool.getUniqueCount() + " lines cached");
+        }
+
+        // Save the parsed lines for the next start if anything had to be parsed
+        if (componentPool.getParsedCount() > 0) {
+            saveParseBundle();
+        }
+    }
+
+    /**
+     * Loads the parse bundle written by the previous start, if it matches the current source files.
+     * The bundle is only a cache, so any problem with it just means every line is parsed.
+     */
+    private void loadParseBundle() {
+        if (!configManager.isParseBundleEnabled()) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        File file = new File(plugin.getDataFolder(), PARSE_BUNDLE_FILE);
+        try {
+            Map<String, List<InteractiveMessage>> lines = ParseBundle.read(file, plugin.getDescription().getVersion(),
+                                                                           ParseBundle.hashSources(configManager.getSourceFiles()));
+            if (lines == null) {
+                if (plugin.getConfig().getBoolean("debug", false)) {
+                    plugin.getLogger().info("Parse bundle is missing or outdated, compiling all messages");
+                }
+                return;
+            }
+
+            componentPool.loadBundle(lines);
+            if (plugin.getConfig().getBoolean("debug", false)) {
+                plugin.getLogger().info("Loaded " + lines.size() + " parsed lines from the parse bundle in " +
+                                       (System.currentTimeMillis() - startTime) + "ms");
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not load the parse bundle, compiling all messages: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the parsed lines of the component pool as a parse bundle for the next start.
+     */
+    private void saveParseBundle() {
+        if (!configManager.isParseBundleEnabled()) {
+            return;
+        }
+
+        File file = new File(plugin.getDataFolder(), PARSE_BUNDLE_FILE);
+        try {
+            Map<String, List<InteractiveMessage>> lines = componentPool.getParsedLines();
+            ParseBundle.write(file, plugin.getDescription().getVersion(),
+                              ParseBundle.hashSources(configManager.getSourceFiles()), lines);
+            if (plugin.getConfig().getBoolean("debug", false)) {
+                plugin.getLogger().info("Saved " + lines.size() + " parsed lines to the parse bundle");
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not save the parse bundle: " + e.getMessage());
+        }
     }
     
     /**
@@ -84,5 +160,15 @@ public class CategoryManagerFactory {
         for (CategoryMessageManager manager : managers.values()) {
             manager.clearCache();
         }
+        componentPool.clear();
+    }
+    
+    /**
+     * Gets the pool of line components shared by all categories.
+     *
+     * @return The component pool
+     */
+    public ComponentPool getComponentPool() {
+        return componentPool;
     }
 }
\ No newline at end of file
@@ -2,9 +2,15 @@ package com.maks.broadcastplugin.managers;
 
 import com.maks.broadcastplugin.BroadcastPlugin;
 import com.maks.broadcastplugin.models.MessageCategory;
-import com.maks.broadcastplugin.utils.InteractiveMessageParser;
-import net.md_5.bungee.api.ChatColor;
-import net.md_5.bungee.api.chat.ClickEvent;
+import com.maks.broadcastplugin.rendering.BroadcastPayload;
+import com.maks.broadcastplugin.rendering.ChatTransport;
+import com.maks.broadcastplugin.rendering.CompiledMessageCache;
+import com.maks.broadcastplugin.rendering.CompiledMessageCache.CompiledMessage;
+import com.maks.broadcastplugin.rendering.ComponentPool;
+import com.maks.broadcastplugin.rendering.LineTemplate;
+import com.maks.broadcastplugin.rendering.MessageDelivery;
+import com.maks.broadcastplugin.rendering.MessageTemplate;
+import com.maks.broadcastplugin.selection.MessageSelector;
 import net.md_5.bungee.api.chat.TextComponent;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
@@ -17,9 +23,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Manages the formatting and broadcasting of messages for a specific category.
@@ -28,31 +31,45 @@ import java.util.regex.Pattern;
 public class CategoryMessageManager {
     private final JavaPlugin plugin;
     private final MessageCategory category;
-    private int currentIndex = 0;
-    private final Pattern urlPattern;
-    private final Random random = new Random();
-    private final InteractiveMessageParser interactiveMessageParser;
+    private final ComponentPool componentPool;
 
-    // Cache for formatted messages
-    private final Map<Integer, List<TextComponent>> messageCache = new HashMap<>();
     private boolean cacheValid = false;
 
+    // Version of the registered placeholders the cached templates were compiled against
+    private long placeholderVersion = -1;
+
+    // Compiled templates and ready-to-send payloads of each message, indexed by message
+    private CompiledMessage[] compiledCache = new CompiledMessage[0];
+    private TextComponent separator;
+
+    // Messages compiled on their first selection, null when all messages are compiled up front
+    private CompiledMessageCache lazyCache;
+
     // Message conditions
     private final Map<Integer, String> messageConditions = new HashMap<>();
 
+    // Message weights for weighted random selection
+    private final Map<Integer, Double> messageWeights = new HashMap<>();
+
+    // Selects the next message among those whose conditions are met
+    private final MessageSelector messageSelector;
+
+    // Renders and sends messages as often as their placeholders require
+    private final MessageDelivery messageDelivery;
+
     /**
      * Constructs a new CategoryMessageManager.
      *
      * @param plugin The plugin instance
      * @param category The message category to manage
+     * @param componentPool The pool of line components shared by all categories
      */
-    public CategoryMessageManager(JavaPlugin plugin, MessageCategory category) {
+    public CategoryMessageManager(JavaPlugin plugin, MessageCategory category, ComponentPool componentPool) {
         this.plugin = plugin;
         this.category = category;
-        // Compile the pattern once at initialization for better performance
-        this.urlPattern = Pattern.compile("(https?://\\S+)");
-        // Initialize the interactive message parser
-        this.interactiveMessageParser = new InteractiveMessageParser(plugin);
+        this.componentPool = componentPool;
+        this.messageSelector = new MessageSelector((BroadcastPlugin) plugin, "category " + category.getName());
+        this.messageDelivery = new MessageDelivery((BroadcastPlugin) plugin);
 
         // Load message conditions if they exist
         loadMessageConditions();
@@ -62,11 +79,12 @@ public class CategoryMessageManager {
     }
 
     /**
-     * Loads message conditions from the configuration.
+     * Loads message conditions and weights from the configuration.
      */
     private void loadMessageConditions() {
-        // Clear existing conditions
+        // Clear existing conditions and weights
         messageConditions.clear();
+        messageWeights.clear();
 
         // Get the category configuration
         ConfigurationSection categoryConfig = null;
@@ -108,9 +126,32 @@ public class CategoryMessageManager {
             }
         }
 
+        // Load message weights
+        if (categoryConfig.contains("messages_weights")) {
+            ConfigurationSection weightsSection = categoryConfig.getConfigurationSection("messages_weights");
+            if (weightsSection != null) {
+                for (String key : weightsSection.getKeys(false)) {
+                    try {
+                        int messageIndex = Integer.parseInt(key);
+                        double weight = weightsSection.getDouble(key, MessageSelector.DEFAULT_WEIGHT);
+                        if (weight <= 0 || Double.isNaN(weight) || Double.isInfinite(weight)) {
+                            plugin.getLogger().warning("Invalid weight for message " + messageIndex + " in category " +
+                                                     category.getName() + ": " + weight + ". Using default: " +
+                                                     MessageSelector.DEFAULT_WEIGHT);
+                            continue;
+                        }
+                        messageWeights.put(messageIndex, weight);
+                    } catch (NumberFormatException e) {
+                        plugin.getLogger().warning("Invalid message index in weights for category " + 
+                                                 category.getName() + ": " + key);
+                    }
+                }
+            }
+        }
+
         if (plugin.getConfig().getBoolean("debug", false)) {
-            plugin.getLogger().info("Loaded " + messageConditions.size() + " message conditions for category " + 
-                                   category.getName());
+            plugin.getLogger().info("Loaded " + messageConditions.size() + " message conditions and " +
+                                   messageWeights.size() + " message weights for category " + category.getName());
         }
     }
 
@@ -118,7 +159,8 @@ public class CategoryMessageManager {
      * Clears the message cache.
      */
     public void clearCache() {
-        messageCache.clear();
+        compiledCache = new CompiledMessage[0];
+        lazyCache = null;
         cacheValid = false;
         if (plugin.getConfig().getBoolean("debug", false)) {
             plugin.getLogger().info("Message cache cleared for category: " + category.getName());
@@ -127,6 +169,7 @@ public class CategoryMessageManager {
 
     /**
      * Processes and caches all messages for this category.
+     * With lazy compilation enabled, messages are only checked for content here and compiled on their first selection.
      */
     public void processAndCacheMessages() {
         List<String> messages = category.getMessages();
@@ -135,45 +178,138 @@ public class CategoryMessageManager {
         }
 
         long startTime = System.currentTimeMillis();
+        ConfigManager configManager = ((BroadcastPlugin) plugin).getConfigManager();
+        boolean debug = plugin.getConfig().getBoolean("debug", false);
+
+        // Read the placeholder version before compiling, so a placeholder registered meanwhile triggers another rebuild
+        placeholderVersion = ((BroadcastPlugin) plugin).getPlaceholderManager() != null ? ((BroadcastPlugin) plugin).getPlaceholderManager().getVersion() : -1;
 
         // Clear existing cache
-        messageCache.clear();
+        compiledCache = new CompiledMessage[messages.size()];
+
+        // Get the decorative line using the category's separator, shared with other categories
+        separator = componentPool.separator(category.getSeparatorLine());
 
-        // Process each message and store in cache
+        // Every message with content can be broadcast
+        List<Integer> availableMessages = new ArrayList<>();
         for (int i = 0; i < messages.size(); i++) {
             String message = messages.get(i);
-            if (message == null || message.trim().isEmpty()) {
-                continue;
+            if (message != null && !message.trim().isEmpty()) {
+                availableMessages.add(i);
             }
+        }
 
-            List<TextComponent> components = new ArrayList<>();
-
-            // Process each line of the message
-            for (String line : message.split("\n")) {
-                line = line.trim();
-                TextComponent lineComponent = processLine(line);
-                if (lineComponent != null) {
-                    components.add(lineComponent);
-                }
+        int serializedLength = 0;
+        int slotCount = 0;
+        if (configManager.isLazyCompileEnabled()) {
+            // Compile messages on their first selection and keep only as many as fit in the memory cap
+            lazyCache = new CompiledMessageCache(this::compileMessage, configManager.getLazyCompileMaxBytes());
+        } else {
+            lazyCache = null;
+            for (int i : availableMessages) {
+                CompiledMessage compiled = compileMessage(i);
+                compiledCache[i] = compiled;
+                slotCount += compiled.getTemplate().getSlotCount();
+                serializedLength += compiled.getPayload().getSerializedLength();
             }
-
-            // Store in cache
-            messageCache.put(i, components);
         }
 
+        // Rebuild the eligibility of the cached messages
+        messageSelector.rebuild(messages.size(), availableMessages, messageConditions, messageWeights);
+
         cacheValid = true;
 
         long endTime = System.currentTimeMillis();
+        if (debug) {
+            if (lazyCache != null) {
+                plugin.getLogger().info("Prepared " + availableMessages.size() + " messages for lazy compilation for category " +
+                                       category.getName() + " in " + (endTime - startTime) + "ms");
+            } else {
+                plugin.getLogger().info("Cached " + availableMessages.size() + " messages for category " + 
+                                       category.getName() + " (" + slotCount + " placeholder slots, " +
+                                       serializedLength + " JSON chars) in " +
+                                       (endTime - startTime) + "ms");
+            }
+        }
+    }
+
+    /**
+     * Compiles a single message into its template and its compacted, serialized payload.
+     *
+     * @param messageIndex The index of the message
+     * @return The compiled message
+     */
+    private CompiledMessage compileMessage(int messageIndex) {
+        List<LineTemplate> lines = new ArrayList<>();
+
+        // Process each line of the message
+        for (String line : category.getMessages().get(messageIndex).split("\n")) {
+            line = line.trim();
+            LineTemplate lineTemplate = processLine(line);
+            if (lineTemplate != null) {
+                lines.add(lineTemplate);
+            }
+        }
+
+        // Dynamic slots are re-rendered at broadcast time
+        MessageTemplate template = MessageTemplate.of(lines);
+        List<TextComponent> components = template.render(null);
+
+        // Compact and serialize once so every broadcast reuses the smallest wire form
+        ChatTransport transport = ((BroadcastPlugin) plugin).getChatTransport();
+        BroadcastPayload payload = BroadcastPayload.of(separator, components, category.isSinglePacket())
+            .compact()
+            .prepare(transport);
         if (plugin.getConfig().getBoolean("debug", false)) {
-            plugin.getLogger().info("Cached " + messageCache.size() + " messages for category " + 
-                                   category.getName() + " in " + (endTime - startTime) + "ms");
+            plugin.getLogger().info("Category " + category.getName() + " message " + messageIndex + ": " +
+                                   payload.getOriginalSize() + " -> " + payload.getCompactedSize() +
+                                   " bytes (saved " + (payload.getOriginalSize() - payload.getCompactedSize()) +
+                                   " bytes)");
+        }
+        return new CompiledMessage(template, payload);
+    }
+
+    /**
+     * Gets a compiled message, compiling it first if messages are compiled lazily.
+     *
+     * @param messageIndex The index of the message
+     * @return The compiled message
+     */
+    private CompiledMessage compiled(int messageIndex) {
+        return lazyCache != null ? lazyCache.get(messageIndex) : compiledCache[messageIndex];
+    }
+
+    /**
+     * Compiles the next messages of the sequential rotation on the next tick, so their first broadcast
+     * does not have to compile them.
+     */
+    private void schedulePrewarm() {
+        int count = ((BroadcastPlugin) plugin).getConfigManager().getLazyCompilePrewarm();
+        if (count == 0) {
+            return;
         }
+
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            CompiledMessageCache cache = lazyCache;
+            if (cache == null) {
+                return;
+            }
+            int compiled = 0;
+            for (int messageIndex : messageSelector.peekSequential(count)) {
+                if (cache.prewarm(messageIndex)) {
+                    compiled++;
+                }
+            }
+            if (compiled > 0 && ((BroadcastPlugin) plugin).getConfigManager().isDebugMode()) {
+                plugin.getLogger().info("Pre-warmed " + compiled + " messages for category " + category.getName());
+            }
+        });
     }
 
     /**
-     * Processes a single line of text, handling interactive elements.
+     * Processes a single line of text, handling interactive elements and placeholders.
      * 
-     * This method takes a plain text line and converts it into a TextComponent with
+     * This method takes a plain text line and converts it into a LineTemplate with
      * interactive elements (hover events, clickable links, commands).
      * The process works as follows:
      * 
@@ -182,30 +318,24 @@ public class CategoryMessageManager {
      *    - Command events: [command:/command arg1 arg2]Click to run command[/command]
      *    - Suggest events: [suggest:/command arg1 arg2]Click to suggest command[/suggest]
      *    - URLs are automatically detected and made clickable if enabled
+     * 2. Fold static placeholders and keep the segments with dynamic placeholders as slots
      * 
      * This approach allows for rich interactive messages with hover text, commands,
      * and clickable links.
      * 
+     * Lines are taken from the shared component pool, so a line that appears in several
+     * categories, or that did not change since the last reload, is parsed only once.
+     * 
      * @param line The line to process
-     * @return A TextComponent containing the formatted line with interactive elements
+     * @return A LineTemplate for the line, or null if the line is empty
      */
-    private TextComponent processLine(String line) {
+    private LineTemplate processLine(String line) {
         if (line.isEmpty()) {
             return null;
         }
 
-        // Use the interactive message parser to parse the line
-        List<TextComponent> components = interactiveMessageParser.parse(line, category.isEnableClickableLinks());
-
-        // Create a container component to hold all the parsed components
-        TextComponent lineComponent = new TextComponent("");
-
-        // Add all parsed components to the container
-        for (TextComponent component : components) {
-            lineComponent.addExtra(component);
-        }
-
-        return lineComponent;
+        return componentPool.template(line, category.isEnableClickableLinks(),
+                                      ((BroadcastPlugin) plugin).getPlaceholderManager());
     }
 
     /**
@@ -219,104 +349,58 @@ public class CategoryMessageManager {
             return;
         }
 
-        // Ensure cache is valid
-        if (!cacheValid) {
+        // Ensure cache is valid, recompiling if placeholders were registered or unregistered since
+        PlaceholderManager placeholderManager = ((BroadcastPlugin) plugin).getPlaceholderManager();
+        if (!cacheValid || (placeholderManager != null && placeholderManager.getVersion() != placeholderVersion)) {
             processAndCacheMessages();
         }
 
-        try {
-            long startTime = System.currentTimeMillis();
+        // Read the debug flag once, the configuration lookup is not free
+        boolean debug = ((BroadcastPlugin) plugin).getConfigManager().isDebugMode();
 
-            // Create decorative line as TextComponent using the category's separator
-            TextComponent separator = new TextComponent(category.getSeparatorLine());
+        try {
+            long startTime = debug ? System.currentTimeMillis() : 0L;
 
             // Determine which message to broadcast
             int messageIndex;
             if (category.isRandomizeMessages()) {
                 // Select a random message
-                List<Integer> validIndices = new ArrayList<>(messageCache.keySet());
-                if (validIndices.isEmpty()) {
+                if (!messageSelector.hasAvailableMessages()) {
                     plugin.getLogger().warning("No valid messages available to broadcast for category: " + category.getName());
                     return;
                 }
 
-                // Filter out messages with conditions that are not met
-                List<Integer> eligibleIndices = new ArrayList<>();
-                for (int index : validIndices) {
-                    String conditionName = messageConditions.get(index);
-                    if (conditionName == null || ((BroadcastPlugin)plugin).getConditionEvaluator().isConditionMet(conditionName)) {
-                        eligibleIndices.add(index);
-                    }
-                }
-
-                // If no eligible messages, return
-                if (eligibleIndices.isEmpty()) {
-                    if (plugin.getConfig().getBoolean("debug", false)) {
-                        plugin.getLogger().info("No messages with met conditions available to broadcast for category: " + category.getName());
-                    }
-                    return;
-                }
-
-                messageIndex = eligibleIndices.get(random.nextInt(eligibleIndices.size()));
-
-                if (plugin.getConfig().getBoolean("debug", false)) {
-                    plugin.getLogger().info("Randomly selected message index: " + messageIndex + " for category: " + category.getName());
-                }
+                messageIndex = messageSelector.nextRandom();
             } else {
                 // Use sequential order
-                messageIndex = currentIndex;
-                int startIndex = messageIndex;
-                boolean foundEligibleMessage = false;
-                List<String> categoryMessages = category.getMessages();
-
-                // Loop through messages until we find one with met conditions or we've checked all
-                do {
-                    // Skip empty messages
-                    if (!messageCache.containsKey(messageIndex)) {
-                        messageIndex = (messageIndex + 1) % categoryMessages.size();
-                        continue;
-                    }
-
-                    // Check if the message condition is met
-                    String conditionName = messageConditions.get(messageIndex);
-                    if (conditionName == null || ((BroadcastPlugin)plugin).getConditionEvaluator().isConditionMet(conditionName)) {
-                        foundEligibleMessage = true;
-                        break;
-                    }
-
-                    // Move to the next message
-                    messageIndex = (messageIndex + 1) % categoryMessages.size();
-                } while (messageIndex != startIndex);
+                messageIndex = messageSelector.nextSequential();
+            }
 
-                // If no eligible messages, return
-                if (!foundEligibleMessage) {
-                    if (plugin.getConfig().getBoolean("debug", false)) {
-                        plugin.getLogger().info("No messages with met conditions available to broadcast for category: " + category.getName());
-                    }
-                    return;
+            // If no eligible messages, return
+            if (messageIndex == -1) {
+                if (debug) {
+                    plugin.getLogger().info("No messages with met conditions available to broadcast for category: " + category.getName());
                 }
-
-                // Update the current index for next time
-                currentIndex = (messageIndex + 1) % categoryMessages.size();
+                return;
             }
 
-            // Send the separator line
-            Bukkit.spigot().broadcast(separator);
+            if (category.isRandomizeMessages() && debug) {
+                plugin.getLogger().info("Randomly selected message index: " + messageIndex + " for category: " + category.getName());
+            }
 
-            // Get cached message components
-            List<TextComponent> components = messageCache.get(messageIndex);
+            // Broadcast the cached payload, re-rendering only the dynamic slots of the message
+            CompiledMessage compiled = compiled(messageIndex);
+            messageDelivery.broadcast(category.getName(), compiled.getTemplate(), compiled.getPayload(),
+                                      separator, category.isSinglePacket());
 
-            // Broadcast each component
-            for (TextComponent component : components) {
-                Bukkit.spigot().broadcast(component);
+            // Compile the next messages of the rotation ahead of time
+            if (lazyCache != null && !category.isRandomizeMessages()) {
+                schedulePrewarm();
             }
 
-            // Send the final separator line
-            Bukkit.spigot().broadcast(separator);
-
             // Log performance metrics if debug mode is enabled
-            long endTime = System.currentTimeMillis();
-            if (plugin.getConfig().getBoolean("debug", false)) {
+            if (debug) {
+                long endTime = System.currentTimeMillis();
                 plugin.getLogger().info("Message broadcast completed in " + (endTime - startTime) + 
                                        "ms for category: " + category.getName());
             }
@@ -326,13 +410,22 @@ public class CategoryMessageManager {
         }
     }
 
+    /**
+     * Gets the cache of lazily compiled messages.
+     *
+     * @return The cache, or null if all messages are compiled up front
+     */
+    public CompiledMessageCache getLazyCache() {
+        return lazyCache;
+    }
+
     /**
      * Gets the current index of the message rotation.
      *
      * @return The current index
      */
     public int getCurrentIndex() {
-        return currentIndex;
+        return messageSelector.getCurrentIndex();
     }
 
     /**
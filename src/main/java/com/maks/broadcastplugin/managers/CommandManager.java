@@ -1,15 +1,29 @@
 package com.maks.broadcastplugin.managers;
 
 import com.maks.broadcastplugin.BroadcastPlugin;
+import com.maks.broadcastplugin.placeholders.PlaceholderMetrics;
+import com.maks.broadcastplugin.placeholders.ServerCapabilities;
+import com.maks.broadcastplugin.rendering.CompiledMessageCache;
+import com.maks.broadcastplugin.rendering.ComponentPool;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
 /**
  * Manages command registration and execution for the BroadcastPlugin.
  */
 public class CommandManager implements CommandExecutor {
+    // Number of placeholders listed by the stats command; the CSV dump contains all of them
+    private static final int STATS_LINES = 10;
+    private static final DateTimeFormatter DUMP_FILE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
     private final BroadcastPlugin plugin;
     private final ConfigManager configManager;
     private MessageManager messageManager;
@@ -52,6 +66,8 @@ public class CommandManager implements CommandExecutor {
                     return handleReloadCommand(sender);
                 } else if (args[0].equalsIgnoreCase("debug")) {
                     return handleDebugCommand(sender);
+                } else if (args[0].equalsIgnoreCase("stats")) {
+                    return handleStatsCommand(sender, args);
                 } else if (args[0].equalsIgnoreCase("help")) {
                     return handleHelpCommand(sender);
                 }
@@ -145,6 +161,28 @@ public class CommandManager implements CommandExecutor {
         // Display debug information
         sender.sendMessage(ChatColor.GOLD + "=== Broadcast Plugin Debug Info ===");
         sender.sendMessage(ChatColor.GRAY + "Debug Mode: " + (configManager.isDebugMode() ? "Enabled" : "Disabled"));
+        if (plugin.getChatTransport() != null) {
+            sender.sendMessage(ChatColor.GRAY + "Chat Transport: " + ChatColor.YELLOW + plugin.getChatTransport().getName());
+        }
+        if (configManager.isFanOutEnabled() && plugin.getFanOutDispatcher() != null) {
+            sender.sendMessage(ChatColor.GRAY + "Fan-out: " + ChatColor.YELLOW + configManager.getFanOutTickBudgetNanos() +
+                              " ns/tick" + ChatColor.GRAY + ", last broadcast: " + ChatColor.YELLOW +
+                              plugin.getFanOutDispatcher().getLastBroadcastTicks() + " ticks" + ChatColor.GRAY +
+                              ", max: " + ChatColor.YELLOW + plugin.getFanOutDispatcher().getMaxBroadcastTicks() + " ticks" +
+                              ChatColor.GRAY + ", queued: " + ChatColor.YELLOW + plugin.getFanOutDispatcher().getQueuedRecipients());
+        } else {
+            sender.sendMessage(ChatColor.GRAY + "Fan-out: " + ChatColor.YELLOW + "Disabled");
+        }
+        if (plugin.getRecipientIndex() != null) {
+            sender.sendMessage(ChatColor.GRAY + "Indexed Permissions: " + ChatColor.YELLOW +
+                              plugin.getRecipientIndex().getTrackedPermissionCount());
+        }
+        if (plugin.getPlaceholderManager() != null) {
+            ServerCapabilities capabilities = plugin.getPlaceholderManager().getCapabilities();
+            sender.sendMessage(ChatColor.GRAY + "Placeholder Sources: TPS " + ChatColor.YELLOW + capabilities.getTpsSource() +
+                              ChatColor.GRAY + ", ping " + ChatColor.YELLOW + capabilities.getPingSource() +
+                              ChatColor.GRAY + ", PlaceholderAPI " + ChatColor.YELLOW + capabilities.getPlaceholderApiSource());
+        }
 
         // Check if categories are enabled
         boolean categoriesEnabled = plugin.areCategoriesEnabled();
@@ -154,6 +192,13 @@ public class CommandManager implements CommandExecutor {
             sender.sendMessage(ChatColor.GRAY + "Broadcasting Mode: " + ChatColor.YELLOW + "Category-based");
             sender.sendMessage(ChatColor.GRAY + "Categories Loaded: " + ChatColor.YELLOW + configManager.getCategoryCount());
 
+            ComponentPool componentPool = plugin.getCategoryManagerFactory().getComponentPool();
+            sender.sendMessage(ChatColor.GRAY + "Component Pool: " + ChatColor.YELLOW + componentPool.getUniqueCount() +
+                              ChatColor.GRAY + " lines cached, last reload " + ChatColor.YELLOW + componentPool.getHitCount() +
+                              ChatColor.GRAY + " hits / " + ChatColor.YELLOW + componentPool.getMissCount() +
+                              ChatColor.GRAY + " misses (" + ChatColor.YELLOW +
+                              String.format("%.1f%%", componentPool.getHitRatio() * 100) + ChatColor.GRAY + " hit rate)");
+
             // Show information for each category
             if (configManager.getCategoryCount() > 0) {
                 sender.sendMessage(ChatColor.GOLD + "--- Categories ---");
@@ -165,6 +210,9 @@ public class CommandManager implements CommandExecutor {
                                           manager.getMessageCount() + " messages, " +
                                           manager.getCategory().getIntervalMinutes() + " minute interval, " +
                                           "randomized: " + manager.getCategory().isRandomizeMessages());
+                        if (manager.getLazyCache() != null) {
+                            sender.sendMessage(ChatColor.GRAY + "  " + formatLazyCache(manager.getLazyCache()));
+                        }
                     }
                 }
             }
@@ -178,6 +226,9 @@ public class CommandManager implements CommandExecutor {
                 sender.sendMessage(ChatColor.GRAY + "Broadcast Interval: " + ChatColor.YELLOW + configManager.getIntervalMinutes() + " minutes");
                 sender.sendMessage(ChatColor.GRAY + "Randomize Messages: " + ChatColor.YELLOW + 
                                   (configManager.getConfig().getBoolean("broadcast.order.randomize_messages", false) ? "Yes" : "No"));
+                if (messageManager.getLazyCache() != null) {
+                    sender.sendMessage(ChatColor.GRAY + formatLazyCache(messageManager.getLazyCache()));
+                }
             } else {
                 sender.sendMessage(ChatColor.RED + "Message manager not initialized!");
             }
@@ -186,6 +237,95 @@ public class CommandManager implements CommandExecutor {
         return true;
     }
 
+    /**
+     * Formats the state of a lazily compiled message cache for the debug command.
+     *
+     * @param cache The cache
+     * @return A line describing the cache
+     */
+    private String formatLazyCache(CompiledMessageCache cache) {
+        return "Lazily Compiled: " + ChatColor.YELLOW + cache.getSize() + ChatColor.GRAY + " messages (" +
+               ChatColor.YELLOW + (cache.getUsedBytes() / 1024) + ChatColor.GRAY + " of " +
+               ChatColor.YELLOW + (cache.getMaxBytes() / 1024) + ChatColor.GRAY + " KB, " +
+               ChatColor.YELLOW + cache.getHitCount() + ChatColor.GRAY + " hits, " +
+               ChatColor.YELLOW + cache.getMissCount() + ChatColor.GRAY + " misses, " +
+               ChatColor.YELLOW + cache.getEvictionCount() + ChatColor.GRAY + " evictions)";
+    }
+
+    /**
+     * Handles the stats command.
+     * "/broadcast stats placeholders" lists the placeholders that took the most time to compute,
+     * "dump" writes the stats of all placeholders to a CSV file in the data folder and "reset" clears them.
+     *
+     * @param sender The command sender
+     * @param args The command arguments
+     * @return true if the command was handled
+     */
+    private boolean handleStatsCommand(CommandSender sender, String[] args) {
+        // Check if the sender has permission
+        if (!sender.hasPermission("broadcast.stats")) {
+            sender.sendMessage(ChatColor.RED + "You don't have permission to execute this command!");
+            return true;
+        }
+
+        if (args.length < 2 || !args[1].equalsIgnoreCase("placeholders") || plugin.getPlaceholderManager() == null) {
+            sender.sendMessage(ChatColor.YELLOW + "/broadcast stats placeholders [dump|reset]" + ChatColor.GRAY +
+                              " - Shows placeholder timings");
+            return true;
+        }
+
+        PlaceholderMetrics metrics = plugin.getPlaceholderManager().getMetrics();
+        if (args.length > 2 && args[2].equalsIgnoreCase("reset")) {
+            metrics.reset();
+            sender.sendMessage(ChatColor.GOLD + "[Broadcast] " + ChatColor.GRAY + "Placeholder stats reset.");
+            return true;
+        }
+
+        if (args.length > 2 && args[2].equalsIgnoreCase("dump")) {
+            File file = new File(plugin.getDataFolder(),
+                                 "placeholder-stats-" + LocalDateTime.now().format(DUMP_FILE_FORMAT) + ".csv");
+            try {
+                metrics.writeCsv(file);
+                sender.sendMessage(ChatColor.GOLD + "[Broadcast] " + ChatColor.GRAY + "Placeholder stats written to " +
+                                  ChatColor.YELLOW + file.getName());
+            } catch (IOException e) {
+                sender.sendMessage(ChatColor.RED + "[Broadcast] Error writing placeholder stats: " + e.getMessage());
+                plugin.getLogger().severe("Error writing placeholder stats: " + e.getMessage());
+            }
+            return true;
+        }
+
+        sender.sendMessage(ChatColor.GOLD + "=== Placeholder Stats ===");
+        if (!metrics.isEnabled()) {
+            sender.sendMessage(ChatColor.GRAY + "Metrics: " + ChatColor.YELLOW + "Disabled");
+        }
+        ServerCapabilities capabilities = plugin.getPlaceholderManager().getCapabilities();
+        sender.sendMessage(ChatColor.GRAY + "Sources: TPS " + ChatColor.YELLOW + capabilities.getTpsSource() +
+                          ChatColor.GRAY + ", ping " + ChatColor.YELLOW + capabilities.getPingSource() +
+                          ChatColor.GRAY + ", PlaceholderAPI " + ChatColor.YELLOW + capabilities.getPlaceholderApiSource());
+
+        List<PlaceholderMetrics.Stats> stats = metrics.getStats();
+        if (stats.isEmpty()) {
+            sender.sendMessage(ChatColor.GRAY + "No placeholders computed yet.");
+            return true;
+        }
+        for (int i = 0; i < stats.size() && i < STATS_LINES; i++) {
+            PlaceholderMetrics.Stats keyStats = stats.get(i);
+            sender.sendMessage(ChatColor.YELLOW + keyStats.getKey() + ChatColor.GRAY + " (" + keyStats.getSource() + "): " +
+                              keyStats.getInvocations() + "/" + keyStats.getRequests() + " computed, " +
+                              String.format("%.1f", keyStats.getMeanNanos() / 1000.0) + " us mean, p99 <= " +
+                              keyStats.getPercentileBucket(0.99) + ", max " +
+                              String.format("%.1f", keyStats.getMaxNanos() / 1000.0) + " us, total " +
+                              String.format("%.1f", keyStats.getTotalNanos() / 1_000_000.0) + " ms" +
+                              (keyStats.getErrors() > 0 ? ChatColor.RED + ", " + keyStats.getErrors() + " errors" : ""));
+        }
+        if (stats.size() > STATS_LINES) {
+            sender.sendMessage(ChatColor.GRAY + "... and " + (stats.size() - STATS_LINES) +
+                              " more, use /broadcast stats placeholders dump for all of them");
+        }
+        return true;
+    }
+
     /**
      * Handles the help command.
      *
@@ -196,6 +336,7 @@ public class CommandManager implements CommandExecutor {
         sender.sendMessage(ChatColor.GOLD + "=== Broadcast Plugin Commands ===");
         sender.sendMessage(ChatColor.YELLOW + "/broadcast reload" + ChatColor.GRAY + " - Reloads the configuration");
         sender.sendMessage(ChatColor.YELLOW + "/broadcast debug" + ChatColor.GRAY + " - Shows debug information");
+        sender.sendMessage(ChatColor.YELLOW + "/broadcast stats placeholders [dump|reset]" + ChatColor.GRAY + " - Shows placeholder timings");
         sender.sendMessage(ChatColor.YELLOW + "/broadcast help" + ChatColor.GRAY + " - Shows this help message");
         return true;
     }
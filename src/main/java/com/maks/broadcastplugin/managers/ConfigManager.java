@@ -1,6 +1,7 @@
 package com.maks.broadcastplugin.managers;
 
 import com.maks.broadcastplugin.models.MessageCategory;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -11,6 +12,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +40,27 @@ public class ConfigManager {
     private String defaultSeparator;
     private boolean defaultEnableClickableLinks;
     private boolean defaultRandomizeMessages;
+    private boolean defaultSinglePacket;
+
+    // Performance settings
+    private boolean fanOutEnabled;
+    private long fanOutTickBudgetNanos;
+    private boolean asyncRenderEnabled;
+    private int asyncRenderThreads;
+    private int asyncRenderQueueSize;
+    private Map<String, Long> placeholderTtls = new HashMap<>();
+    private boolean placeholderMetricsEnabled;
+    private boolean parseBundleEnabled;
+    private boolean lazyCompileEnabled;
+    private String chatTransport;
+    private long lazyCompileMaxBytes;
+    private int lazyCompilePrewarm;
+
+    private static final long DEFAULT_FAN_OUT_TICK_BUDGET_NANOS = 1_000_000L; // 1 ms
+    private static final int DEFAULT_ASYNC_RENDER_THREADS = 2;
+    private static final int DEFAULT_ASYNC_RENDER_QUEUE_SIZE = 64;
+    private static final int DEFAULT_LAZY_COMPILE_MAX_MEMORY_KB = 4096;
+    private static final int DEFAULT_LAZY_COMPILE_PREWARM = 2;
 
     /**
      * Constructs a new ConfigManager.
@@ -77,6 +100,18 @@ public class ConfigManager {
             this.debugMode = false;
             this.categoriesEnabled = false;
             this.categories.clear();
+            this.fanOutEnabled = false;
+            this.fanOutTickBudgetNanos = DEFAULT_FAN_OUT_TICK_BUDGET_NANOS;
+            this.asyncRenderEnabled = false;
+            this.asyncRenderThreads = DEFAULT_ASYNC_RENDER_THREADS;
+            this.asyncRenderQueueSize = DEFAULT_ASYNC_RENDER_QUEUE_SIZE;
+            this.placeholderTtls = new HashMap<>();
+            this.placeholderMetricsEnabled = false;
+            this.parseBundleEnabled = false;
+            this.lazyCompileEnabled = false;
+            this.lazyCompileMaxBytes = DEFAULT_LAZY_COMPILE_MAX_MEMORY_KB * 1024L;
+            this.lazyCompilePrewarm = DEFAULT_LAZY_COMPILE_PREWARM;
+            this.chatTransport = "auto";
         }
     }
 
@@ -172,6 +207,7 @@ public class ConfigManager {
         String separator = categoryConfig.getString("appearance.separator", defaultSeparator);
         boolean enableClickableLinks = categoryConfig.getBoolean("appearance.enable_clickable_links", defaultEnableClickableLinks);
         boolean randomizeMessages = categoryConfig.getBoolean("order.randomize_messages", defaultRandomizeMessages);
+        boolean singlePacket = categoryConfig.getBoolean("appearance.single_packet", defaultSinglePacket);
 
         // Validate interval
         if (interval <= 0) {
@@ -205,7 +241,8 @@ public class ConfigManager {
             intervalTicks,
             separator,
             enableClickableLinks,
-            randomizeMessages
+            randomizeMessages,
+            singlePacket
         );
 
         // Add to categories map
@@ -234,6 +271,9 @@ public class ConfigManager {
         // Load and validate categories settings
         validationErrors += validateCategoriesSettings();
 
+        // Load and validate performance settings
+        validationErrors += validatePerformanceSettings();
+
         // If categories are not enabled, load legacy broadcast settings
         if (!categoriesEnabled) {
             // Determine configuration format and load messages
@@ -347,6 +387,9 @@ public class ConfigManager {
             // Load default enable_clickable_links
             this.defaultEnableClickableLinks = config.getBoolean("categories.defaults.appearance.enable_clickable_links", true);
 
+            // Load default single_packet
+            this.defaultSinglePacket = config.getBoolean("categories.defaults.appearance.single_packet", true);
+
             // Load default randomize_messages
             this.defaultRandomizeMessages = config.getBoolean("categories.defaults.order.randomize_messages", false);
         }
@@ -357,12 +400,142 @@ public class ConfigManager {
             plugin.getLogger().info("Default interval: " + defaultInterval + " minutes");
             plugin.getLogger().info("Default separator: " + defaultSeparator);
             plugin.getLogger().info("Default enable clickable links: " + defaultEnableClickableLinks);
+            plugin.getLogger().info("Default single packet: " + defaultSinglePacket);
             plugin.getLogger().info("Default randomize messages: " + defaultRandomizeMessages);
         }
 
         return validationErrors;
     }
 
+    /**
+     * Validates the performance settings in the configuration.
+     * 
+     * @return Number of validation errors found
+     */
+    private int validatePerformanceSettings() {
+        int validationErrors = 0;
+
+        // Load fan-out settings
+        this.fanOutEnabled = config.getBoolean("performance.fan_out.enabled", false);
+        this.fanOutTickBudgetNanos = config.getLong("performance.fan_out.tick_budget_nanos", DEFAULT_FAN_OUT_TICK_BUDGET_NANOS);
+
+        if (fanOutTickBudgetNanos <= 0) {
+            plugin.getLogger().warning("Invalid fan-out tick budget: " + fanOutTickBudgetNanos + ". Using default: " +
+                                      DEFAULT_FAN_OUT_TICK_BUDGET_NANOS + " nanoseconds.");
+            this.fanOutTickBudgetNanos = DEFAULT_FAN_OUT_TICK_BUDGET_NANOS;
+            validationErrors++;
+        } else if (fanOutTickBudgetNanos > 50_000_000L) {
+            plugin.getLogger().warning("Fan-out tick budget is larger than a whole tick (" + fanOutTickBudgetNanos +
+                                      " nanoseconds). This may not be intentional.");
+        }
+
+        if (debugMode) {
+            plugin.getLogger().info("Fan-out enabled: " + fanOutEnabled);
+            plugin.getLogger().info("Fan-out tick budget: " + fanOutTickBudgetNanos + " nanoseconds");
+        }
+
+        // Load async render settings
+        this.asyncRenderEnabled = config.getBoolean("performance.async_render.enabled", false);
+        this.asyncRenderThreads = config.getInt("performance.async_render.threads", DEFAULT_ASYNC_RENDER_THREADS);
+        this.asyncRenderQueueSize = config.getInt("performance.async_render.queue_size", DEFAULT_ASYNC_RENDER_QUEUE_SIZE);
+
+        if (asyncRenderThreads <= 0) {
+            plugin.getLogger().warning("Invalid async render thread count: " + asyncRenderThreads + ". Using default: " +
+                                      DEFAULT_ASYNC_RENDER_THREADS + ".");
+            this.asyncRenderThreads = DEFAULT_ASYNC_RENDER_THREADS;
+            validationErrors++;
+        }
+
+        if (asyncRenderQueueSize <= 0) {
+            plugin.getLogger().warning("Invalid async render queue size: " + asyncRenderQueueSize + ". Using default: " +
+                                      DEFAULT_ASYNC_RENDER_QUEUE_SIZE + ".");
+            this.asyncRenderQueueSize = DEFAULT_ASYNC_RENDER_QUEUE_SIZE;
+            validationErrors++;
+        }
+
+        if (debugMode) {
+            plugin.getLogger().info("Async render enabled: " + asyncRenderEnabled);
+            plugin.getLogger().info("Async render threads: " + asyncRenderThreads + ", queue size: " + asyncRenderQueueSize);
+        }
+
+        // Load placeholder cache times to live
+        Map<String, Long> placeholderTtls = new HashMap<>();
+        ConfigurationSection ttlSection = config.getConfigurationSection("performance.placeholder_cache_ttl");
+        if (ttlSection != null) {
+            for (String name : ttlSection.getKeys(false)) {
+                long ttl = ttlSection.getLong(name, 0L);
+                if (ttl < 0) {
+                    plugin.getLogger().warning("Invalid cache TTL for placeholder {" + name + "}: " + ttl +
+                                              ". The placeholder will not be cached.");
+                    validationErrors++;
+                    continue;
+                }
+                if (ttl > 0) {
+                    placeholderTtls.put(name, ttl);
+                }
+            }
+        }
+        this.placeholderTtls = placeholderTtls;
+
+        if (debugMode) {
+            plugin.getLogger().info("Placeholder cache TTLs: " + placeholderTtls);
+        }
+
+        // Load placeholder metrics settings
+        this.placeholderMetricsEnabled = config.getBoolean("performance.placeholder_metrics.enabled", false);
+
+        if (debugMode) {
+            plugin.getLogger().info("Placeholder metrics enabled: " + placeholderMetricsEnabled);
+        }
+
+        // Load parse bundle settings
+        this.parseBundleEnabled = config.getBoolean("performance.parse_bundle.enabled", true);
+
+        if (debugMode) {
+            plugin.getLogger().info("Parse bundle enabled: " + parseBundleEnabled);
+        }
+
+        // Load lazy compilation settings
+        this.lazyCompileEnabled = config.getBoolean("performance.lazy_compile.enabled", false);
+
+        int maxMemoryKb = config.getInt("performance.lazy_compile.max_memory_kb", DEFAULT_LAZY_COMPILE_MAX_MEMORY_KB);
+        if (maxMemoryKb <= 0) {
+            plugin.getLogger().warning("Invalid lazy compile memory cap: " + maxMemoryKb + "KB. Using default: " +
+                                      DEFAULT_LAZY_COMPILE_MAX_MEMORY_KB + "KB.");
+            maxMemoryKb = DEFAULT_LAZY_COMPILE_MAX_MEMORY_KB;
+            validationErrors++;
+        }
+        this.lazyCompileMaxBytes = maxMemoryKb * 1024L;
+
+        this.lazyCompilePrewarm = config.getInt("performance.lazy_compile.prewarm", DEFAULT_LAZY_COMPILE_PREWARM);
+        if (lazyCompilePrewarm < 0) {
+            plugin.getLogger().warning("Invalid lazy compile prewarm count: " + lazyCompilePrewarm + ". Using default: " +
+                                      DEFAULT_LAZY_COMPILE_PREWARM + ".");
+            this.lazyCompilePrewarm = DEFAULT_LAZY_COMPILE_PREWARM;
+            validationErrors++;
+        }
+
+        if (debugMode) {
+            plugin.getLogger().info("Lazy compilation enabled: " + lazyCompileEnabled + " (memory cap " +
+                                   maxMemoryKb + "KB, prewarm " + lazyCompilePrewarm + ")");
+        }
+
+        // Load chat transport settings
+        this.chatTransport = config.getString("performance.chat_transport", "auto");
+        if (!"auto".equalsIgnoreCase(chatTransport) && !"adventure".equalsIgnoreCase(chatTransport) &&
+            !"bungeecord".equalsIgnoreCase(chatTransport)) {
+            plugin.getLogger().warning("Invalid chat transport: " + chatTransport + ". Using default: auto.");
+            this.chatTransport = "auto";
+            validationErrors++;
+        }
+
+        if (debugMode) {
+            plugin.getLogger().info("Chat transport: " + chatTransport);
+        }
+
+        return validationErrors;
+    }
+
     /**
      * Sets hardcoded default values for category settings.
      */
@@ -371,6 +544,7 @@ public class ConfigManager {
         this.defaultSeparator = "------------------------------";
         this.defaultEnableClickableLinks = true;
         this.defaultRandomizeMessages = false;
+        this.defaultSinglePacket = true;
     }
 
     /**
@@ -509,6 +683,14 @@ public class ConfigManager {
             }
         }
 
+        // Validate single_packet
+        if (config.contains("broadcast.appearance.single_packet")) {
+            if (!config.isBoolean("broadcast.appearance.single_packet")) {
+                plugin.getLogger().warning("Invalid value for 'single_packet'. Must be true or false. Using default value (true).");
+                validationErrors++;
+            }
+        }
+
         return validationErrors;
     }
 
@@ -631,6 +813,137 @@ public class ConfigManager {
         return categories.size();
     }
 
+    /**
+     * Checks if tick-budgeted fan-out delivery is enabled.
+     *
+     * @return true if fan-out delivery is enabled, false otherwise
+     */
+    public boolean isFanOutEnabled() {
+        return fanOutEnabled;
+    }
+
+    /**
+     * Gets the time budget per tick for fan-out delivery.
+     *
+     * @return The budget in nanoseconds
+     */
+    public long getFanOutTickBudgetNanos() {
+        return fanOutTickBudgetNanos;
+    }
+
+    /**
+     * Checks if personalized broadcasts are rendered off the main thread.
+     *
+     * @return true if async rendering is enabled, false otherwise
+     */
+    public boolean isAsyncRenderEnabled() {
+        return asyncRenderEnabled;
+    }
+
+    /**
+     * Gets the number of worker threads used for async rendering.
+     * Changes only take effect after a server restart.
+     *
+     * @return The number of worker threads
+     */
+    public int getAsyncRenderThreads() {
+        return asyncRenderThreads;
+    }
+
+    /**
+     * Gets the maximum number of broadcasts waiting for a render worker.
+     * Changes only take effect after a server restart.
+     *
+     * @return The queue size
+     */
+    public int getAsyncRenderQueueSize() {
+        return asyncRenderQueueSize;
+    }
+
+    /**
+     * Gets how long the value of a server-scoped placeholder is cached between broadcasts.
+     *
+     * @param name The placeholder name (without braces)
+     * @return The time to live in milliseconds, or 0 if the placeholder is not cached
+     */
+    public long getPlaceholderTtlMillis(String name) {
+        Long ttl = placeholderTtls.get(name);
+        return ttl != null ? ttl : 0L;
+    }
+
+    /**
+     * Checks if placeholder invocations are counted and timed.
+     *
+     * @return true if placeholder metrics are enabled, false otherwise
+     */
+    public boolean isPlaceholderMetricsEnabled() {
+        return placeholderMetricsEnabled;
+    }
+
+    /**
+     * Checks if parsed message lines are saved to a parse bundle and loaded from it on startup.
+     *
+     * @return true if the parse bundle is enabled, false otherwise
+     */
+    public boolean isParseBundleEnabled() {
+        return parseBundleEnabled;
+    }
+
+    /**
+     * Checks if messages are compiled on their first selection instead of when they are loaded.
+     *
+     * @return true if lazy compilation is enabled, false otherwise
+     */
+    public boolean isLazyCompileEnabled() {
+        return lazyCompileEnabled;
+    }
+
+    /**
+     * Gets the estimated memory that the lazily compiled messages of one rotation may use.
+     * The legacy rotation and every category have a cache of their own.
+     *
+     * @return The memory cap in bytes
+     */
+    public long getLazyCompileMaxBytes() {
+        return lazyCompileMaxBytes;
+    }
+
+    /**
+     * Gets the number of upcoming messages of a sequential rotation that are compiled ahead of their selection.
+     *
+     * @return The number of messages to pre-warm, 0 to disable pre-warming
+     */
+    public int getLazyCompilePrewarm() {
+        return lazyCompilePrewarm;
+    }
+
+    /**
+     * Gets the configured chat transport, which is only applied on startup.
+     *
+     * @return "auto" to detect the transport, "adventure" or "bungeecord"
+     */
+    public String getChatTransport() {
+        return chatTransport;
+    }
+
+    /**
+     * Gets the files the messages are loaded from: the main configuration and the category files, sorted by name.
+     *
+     * @return The source files
+     */
+    public List<File> getSourceFiles() {
+        List<File> files = new ArrayList<>();
+        files.add(new File(plugin.getDataFolder(), "config.yml"));
+
+        File categoriesDir = new File(plugin.getDataFolder(), categoriesDirectory);
+        File[] categoryFiles = categoriesDir.listFiles((dir, name) -> name.toLowerCase().endsWith(".yml"));
+        if (categoryFiles != null) {
+            Arrays.sort(categoryFiles);
+            files.addAll(Arrays.asList(categoryFiles));
+        }
+        return files;
+    }
+
     /**
      * Gets the categories directory.
      *
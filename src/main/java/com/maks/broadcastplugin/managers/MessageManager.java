@@ -1,9 +1,13 @@
 package com.maks.broadcastplugin.managers;
 
 import com.maks.broadcastplugin.BroadcastPlugin;
+import com.maks.broadcastplugin.rendering.BroadcastPayload;
+import com.maks.broadcastplugin.rendering.CompiledMessageCache;
+import com.maks.broadcastplugin.rendering.CompiledMessageCache.CompiledMessage;
+import com.maks.broadcastplugin.rendering.MessageDelivery;
+import com.maks.broadcastplugin.rendering.MessageTemplate;
+import com.maks.broadcastplugin.selection.MessageSelector;
 import com.maks.broadcastplugin.utils.InteractiveMessageParser;
-import net.md_5.bungee.api.ChatColor;
-import net.md_5.bungee.api.chat.ClickEvent;
 import net.md_5.bungee.api.chat.TextComponent;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
@@ -11,13 +15,10 @@ import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Manages the formatting and broadcasting of messages to players.
@@ -25,23 +26,43 @@ import java.util.regex.Pattern;
 public class MessageManager {
     private final BroadcastPlugin plugin;
     private List<String> messages;
-    private int currentIndex = 0;
-    private final Pattern urlPattern;
-    private final Random random = new Random();
     private final InteractiveMessageParser interactiveMessageParser;
 
     // Customization options
     private String separatorLine;
     private boolean enableClickableLinks;
     private boolean randomizeMessages;
+    private boolean singlePacket;
 
-    // Cache for formatted messages
-    private final Map<Integer, List<TextComponent>> messageCache = new HashMap<>();
     private boolean cacheValid = false;
 
+    // Version of the registered placeholders the cached templates were compiled against
+    private long placeholderVersion = -1;
+
+    // Compiled templates and ready-to-send payloads of each message, indexed by message
+    private CompiledMessage[] compiledCache = new CompiledMessage[0];
+
+    // Messages compiled on their first selection, null when all messages are compiled up front
+    private CompiledMessageCache lazyCache;
+
+    // Separator line component, created once per cache rebuild
+    private TextComponent separator;
+
+    // Label of each message in debug output, built once per cache rebuild instead of on every broadcast
+    private String[] labels = new String[0];
+
     // Message conditions
     private final Map<Integer, String> messageConditions = new HashMap<>();
 
+    // Message weights for weighted random selection
+    private final Map<Integer, Double> messageWeights = new HashMap<>();
+
+    // Selects the next message among those whose conditions are met
+    private final MessageSelector messageSelector;
+
+    // Renders and sends messages as often as their placeholders require
+    private final MessageDelivery messageDelivery;
+
     /**
      * Constructs a new MessageManager.
      *
@@ -51,10 +72,10 @@ public class MessageManager {
     public MessageManager(BroadcastPlugin plugin, List<String> messages) {
         this.plugin = plugin;
         this.messages = messages;
-        // Compile the pattern once at initialization for better performance
-        this.urlPattern = Pattern.compile("(https?://\\S+)");
         // Initialize the interactive message parser
         this.interactiveMessageParser = new InteractiveMessageParser(plugin);
+        this.messageSelector = new MessageSelector(plugin, "legacy broadcast");
+        this.messageDelivery = new MessageDelivery(plugin);
 
         // Load customization options from config
         loadCustomizationOptions();
@@ -75,6 +96,9 @@ public class MessageManager {
         // Load clickable links option
         this.enableClickableLinks = config.getBoolean("broadcast.appearance.enable_clickable_links", true);
 
+        // Load single packet option
+        this.singlePacket = config.getBoolean("broadcast.appearance.single_packet", true);
+
         // Load randomize messages option
         this.randomizeMessages = config.getBoolean("broadcast.order.randomize_messages", false);
 
@@ -100,12 +124,36 @@ public class MessageManager {
             }
         }
 
+        // Load message weights
+        messageWeights.clear();
+        if (config.contains("broadcast.messages_weights")) {
+            ConfigurationSection weightsSection = config.getConfigurationSection("broadcast.messages_weights");
+            if (weightsSection != null) {
+                for (String key : weightsSection.getKeys(false)) {
+                    try {
+                        int messageIndex = Integer.parseInt(key);
+                        double weight = weightsSection.getDouble(key, MessageSelector.DEFAULT_WEIGHT);
+                        if (weight <= 0 || Double.isNaN(weight) || Double.isInfinite(weight)) {
+                            plugin.getLogger().warning("Invalid weight for message " + messageIndex + ": " + weight +
+                                                      ". Using default: " + MessageSelector.DEFAULT_WEIGHT);
+                            continue;
+                        }
+                        messageWeights.put(messageIndex, weight);
+                    } catch (NumberFormatException e) {
+                        plugin.getLogger().warning("Invalid message index in weights: " + key);
+                    }
+                }
+            }
+        }
+
         if (plugin.getConfig().getBoolean("debug", false)) {
             plugin.getLogger().info("Loaded customization options:");
             plugin.getLogger().info("- Separator: " + separatorLine);
             plugin.getLogger().info("- Clickable links: " + enableClickableLinks);
+            plugin.getLogger().info("- Single packet: " + singlePacket);
             plugin.getLogger().info("- Randomize messages: " + randomizeMessages);
             plugin.getLogger().info("- Message conditions: " + messageConditions.size());
+            plugin.getLogger().info("- Message weights: " + messageWeights.size());
         }
     }
 
@@ -116,7 +164,7 @@ public class MessageManager {
      */
     public void setMessages(List<String> messages) {
         this.messages = messages;
-        this.currentIndex = 0;
+        messageSelector.setCurrentIndex(0);
 
         // Reload customization options in case they've changed
         loadCustomizationOptions();
@@ -129,7 +177,8 @@ public class MessageManager {
      * Clears the message cache.
      */
     public void clearCache() {
-        messageCache.clear();
+        compiledCache = new CompiledMessage[0];
+        lazyCache = null;
         cacheValid = false;
         if (plugin.getConfig().getBoolean("debug", false)) {
             plugin.getLogger().info("Message cache cleared");
@@ -138,6 +187,7 @@ public class MessageManager {
 
     /**
      * Processes and caches all messages.
+     * With lazy compilation enabled, messages are only checked for content here and compiled on their first selection.
      */
     public void processAndCacheMessages() {
         if (messages == null || messages.isEmpty()) {
@@ -145,94 +195,132 @@ public class MessageManager {
         }
 
         long startTime = System.currentTimeMillis();
+        ConfigManager configManager = plugin.getConfigManager();
+        boolean debug = plugin.getConfig().getBoolean("debug", false);
+
+        // Read the placeholder version before compiling, so a placeholder registered meanwhile triggers another rebuild
+        placeholderVersion = plugin.getPlaceholderManager() != null ? plugin.getPlaceholderManager().getVersion() : -1;
 
         // Clear existing cache
-        messageCache.clear();
+        compiledCache = new CompiledMessage[messages.size()];
 
-        // Process each message and store in cache
+        // Create decorative line as TextComponent using the configured separator
+        separator = new TextComponent(separatorLine);
+
+        // Every message with content can be broadcast
+        List<Integer> availableMessages = new ArrayList<>();
+        labels = new String[messages.size()];
         for (int i = 0; i < messages.size(); i++) {
+            labels[i] = "message " + i;
             String message = messages.get(i);
-            if (message == null || message.trim().isEmpty()) {
-                continue;
+            if (message != null && !message.trim().isEmpty()) {
+                availableMessages.add(i);
             }
+        }
 
-            List<TextComponent> components = new ArrayList<>();
-
-            // Process each line of the message
-            for (String line : message.split("\n")) {
-                line = line.trim();
-                TextComponent lineComponent = processLine(line, null);
-                if (lineComponent != null) {
-                    components.add(lineComponent);
-                }
+        int slotCount = 0;
+        int serializedLength = 0;
+        if (configManager.isLazyCompileEnabled()) {
+            // Compile messages on their first selection and keep only as many as fit in the memory cap
+            lazyCache = new CompiledMessageCache(this::compileMessage, configManager.getLazyCompileMaxBytes());
+        } else {
+            lazyCache = null;
+            for (int i : availableMessages) {
+                CompiledMessage compiled = compileMessage(i);
+                compiledCache[i] = compiled;
+                slotCount += compiled.getTemplate().getSlotCount();
+                serializedLength += compiled.getPayload().getSerializedLength();
             }
-
-            // Store in cache
-            messageCache.put(i, components);
         }
 
+        // Rebuild the eligibility of the cached messages
+        messageSelector.rebuild(messages.size(), availableMessages, messageConditions, messageWeights);
+
         cacheValid = true;
 
         long endTime = System.currentTimeMillis();
-        if (plugin.getConfig().getBoolean("debug", false)) {
-            plugin.getLogger().info("Cached " + messageCache.size() + " messages in " + (endTime - startTime) + "ms");
+        if (debug) {
+            if (lazyCache != null) {
+                plugin.getLogger().info("Prepared " + availableMessages.size() + " messages for lazy compilation in " +
+                                       (endTime - startTime) + "ms");
+            } else {
+                plugin.getLogger().info("Cached " + availableMessages.size() + " messages (" + slotCount +
+                                       " placeholder slots, " + serializedLength + " JSON chars) in " +
+                                       (endTime - startTime) + "ms");
+            }
         }
     }
 
     /**
-     * Processes a single line of text, handling interactive elements and placeholder replacement.
-     * 
-     * This method takes a plain text line and converts it into a TextComponent with
-     * interactive elements (hover events, clickable links, commands) and replaced placeholders.
-     * The process works as follows:
-     * 
-     * 1. Replace placeholders in the line using the PlaceholderManager
-     * 2. Use the InteractiveMessageParser to parse the line and extract interactive elements:
-     *    - Hover events: [hover:Hover text]Text to hover over[/hover]
-     *    - Command events: [command:/command arg1 arg2]Click to run command[/command]
-     *    - Suggest events: [suggest:/command arg1 arg2]Click to suggest command[/suggest]
-     *    - URLs are automatically detected and made clickable if enabled
-     * 
-     * This approach allows for rich interactive messages with hover text, commands,
-     * and clickable links.
-     * 
-     * @param line The line to process
-     * @param player The player to use for player-specific placeholders (can be null)
-     * @return A TextComponent containing the formatted line with interactive elements and replaced placeholders
+     * Compiles a single message into its template and its compacted, serialized payload.
+     *
+     * @param messageIndex The index of the message
+     * @return The compiled message
      */
-    private TextComponent processLine(String line, Player player) {
-        if (line.isEmpty()) {
-            return null;
-        }
-
-        // Replace placeholders in the line
-        if (plugin.getPlaceholderManager() != null) {
-            line = plugin.getPlaceholderManager().replacePlaceholders(line, player);
+    private CompiledMessage compileMessage(int messageIndex) {
+        // Compile the template; static placeholders are folded and dynamic ones become slots
+        MessageTemplate template = MessageTemplate.compile(messages.get(messageIndex), interactiveMessageParser,
+                                                           enableClickableLinks, plugin.getPlaceholderManager());
+
+        // Render the shared lines; slots are re-rendered at broadcast time instead of being frozen here
+        List<TextComponent> components = template.render(null);
+
+        // Compact and serialize once so every broadcast of a static message reuses the smallest wire form
+        BroadcastPayload payload = BroadcastPayload.of(separator, components, singlePacket)
+            .compact()
+            .prepare(plugin.getChatTransport());
+        if (plugin.getConfig().getBoolean("debug", false)) {
+            plugin.getLogger().info("Message " + messageIndex + ": " + payload.getOriginalSize() + " -> " +
+                                   payload.getCompactedSize() + " bytes (saved " +
+                                   (payload.getOriginalSize() - payload.getCompactedSize()) + " bytes)");
         }
+        return new CompiledMessage(template, payload);
+    }
 
-        // Use the interactive message parser to parse the line
-        List<TextComponent> components = interactiveMessageParser.parse(line, enableClickableLinks);
-
-        // Create a container component to hold all the parsed components
-        TextComponent lineComponent = new TextComponent("");
+    /**
+     * Gets a compiled message, compiling it first if messages are compiled lazily.
+     *
+     * @param messageIndex The index of the message
+     * @return The compiled message
+     */
+    private CompiledMessage compiled(int messageIndex) {
+        return lazyCache != null ? lazyCache.get(messageIndex) : compiledCache[messageIndex];
+    }
 
-        // Add all parsed components to the container
-        for (TextComponent component : components) {
-            lineComponent.addExtra(component);
+    /**
+     * Compiles the next messages of the sequential rotation on the next tick, so their first broadcast
+     * does not have to compile them.
+     */
+    private void schedulePrewarm() {
+        int count = plugin.getConfigManager().getLazyCompilePrewarm();
+        if (count == 0) {
+            return;
         }
 
-        return lineComponent;
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            CompiledMessageCache cache = lazyCache;
+            if (cache == null) {
+                return;
+            }
+            int compiled = 0;
+            for (int messageIndex : messageSelector.peekSequential(count)) {
+                if (cache.prewarm(messageIndex)) {
+                    compiled++;
+                }
+            }
+            if (compiled > 0 && plugin.getConfigManager().isDebugMode()) {
+                plugin.getLogger().info("Pre-warmed " + compiled + " messages");
+            }
+        });
     }
 
     /**
-     * Processes a single line of text, handling URL formatting.
-     * This is a convenience method that calls processLine(line, null).
+     * Gets the cache of lazily compiled messages.
      *
-     * @param line The line to process
-     * @return A TextComponent containing the formatted line with clickable URLs (if enabled)
+     * @return The cache, or null if all messages are compiled up front
      */
-    private TextComponent processLine(String line) {
-        return processLine(line, null);
+    public CompiledMessageCache getLazyCache() {
+        return lazyCache;
     }
 
     /**
@@ -257,155 +345,77 @@ public class MessageManager {
             return;
         }
 
-        // Ensure cache is valid
-        if (!cacheValid) {
+        // Ensure cache is valid, recompiling if placeholders were registered or unregistered since
+        PlaceholderManager placeholderManager = plugin.getPlaceholderManager();
+        if (!cacheValid || (placeholderManager != null && placeholderManager.getVersion() != placeholderVersion)) {
             processAndCacheMessages();
         }
 
-        try {
-            long startTime = System.currentTimeMillis();
+        // Read the debug flag once, the configuration lookup is not free
+        boolean debug = plugin.getConfigManager().isDebugMode();
 
-            // Create decorative line as TextComponent using the configured separator
-            TextComponent separator = new TextComponent(separatorLine);
+        try {
+            long startTime = debug ? System.currentTimeMillis() : 0L;
 
             // Determine which message to broadcast
             int messageIndex;
             if (randomizeMessages) {
                 // Select a random message
-                List<Integer> validIndices = new ArrayList<>(messageCache.keySet());
-                if (validIndices.isEmpty()) {
+                if (!messageSelector.hasAvailableMessages()) {
                     plugin.getLogger().warning("No valid messages available to broadcast!");
                     return;
                 }
 
-                // Filter out messages with conditions that are not met
-                List<Integer> eligibleIndices = new ArrayList<>();
-                for (int index : validIndices) {
-                    String conditionName = messageConditions.get(index);
-                    if (conditionName == null || plugin.getConditionEvaluator().isConditionMet(conditionName)) {
-                        eligibleIndices.add(index);
-                    }
-                }
-
-                // If no eligible messages, return
-                if (eligibleIndices.isEmpty()) {
-                    if (plugin.getConfig().getBoolean("debug", false)) {
-                        plugin.getLogger().info("No messages with met conditions available to broadcast");
-                    }
-                    return;
-                }
-
-                messageIndex = eligibleIndices.get(random.nextInt(eligibleIndices.size()));
-
-                if (plugin.getConfig().getBoolean("debug", false)) {
-                    plugin.getLogger().info("Randomly selected message index: " + messageIndex);
-                }
+                messageIndex = messageSelector.nextRandom();
             } else {
                 // Use sequential order
-                messageIndex = currentIndex;
-                int startIndex = messageIndex;
-                boolean foundEligibleMessage = false;
-
-                // Loop through messages until we find one with met conditions or we've checked all
-                do {
-                    // Skip empty messages
-                    if (!messageCache.containsKey(messageIndex)) {
-                        messageIndex = (messageIndex + 1) % messages.size();
-                        continue;
-                    }
-
-                    // Check if the message condition is met
-                    String conditionName = messageConditions.get(messageIndex);
-                    if (conditionName == null || plugin.getConditionEvaluator().isConditionMet(conditionName)) {
-                        foundEligibleMessage = true;
-                        break;
-                    }
-
-                    // Move to the next message
-                    messageIndex = (messageIndex + 1) % messages.size();
-                } while (messageIndex != startIndex);
+                messageIndex = messageSelector.nextSequential();
+            }
 
-                // If no eligible messages, return
-                if (!foundEligibleMessage) {
-                    if (plugin.getConfig().getBoolean("debug", false)) {
-                        plugin.getLogger().info("No messages with met conditions available to broadcast");
-                    }
-                    return;
+            // If no eligible messages, return
+            if (messageIndex == -1) {
+                if (debug) {
+                    plugin.getLogger().info("No messages with met conditions available to broadcast");
                 }
-
-                // Update the current index for next time
-                currentIndex = (messageIndex + 1) % messages.size();
+                return;
             }
 
-            // Get cached message components
-            List<TextComponent> components = messageCache.get(messageIndex);
+            if (randomizeMessages && debug) {
+                plugin.getLogger().info("Randomly selected message index: " + messageIndex);
+            }
 
             // Determine the recipients of the message
+            CompiledMessage compiled = compiled(messageIndex);
             if (targetPlayers == null) {
                 // Broadcast to all players, possibly with permission check
                 if (requiredPermission == null) {
-                    // No permission check, broadcast to everyone
-                    // Send the separator line
-                    Bukkit.spigot().broadcast(separator);
-
-                    // Broadcast each component
-                    for (TextComponent component : components) {
-                        Bukkit.spigot().broadcast(component);
-                    }
-
-                    // Send the final separator line
-                    Bukkit.spigot().broadcast(separator);
+                    // No permission check, broadcast to everyone, re-rendering only the dynamic slots
+                    messageDelivery.broadcast(labels[messageIndex], compiled.getTemplate(),
+                                              compiled.getPayload(), separator, singlePacket);
                 } else {
-                    // Permission check required, broadcast only to players with permission
-                    for (Player player : Bukkit.getOnlinePlayers()) {
-                        if (player.hasPermission(requiredPermission)) {
-                            // Send the separator line
-                            player.spigot().sendMessage(separator);
-
-                            // Send each component with placeholders replaced for this player
-                            for (String line : messages.get(messageIndex).split("\n")) {
-                                line = line.trim();
-                                if (!line.isEmpty()) {
-                                    TextComponent lineComponent = processLine(line, player);
-                                    if (lineComponent != null) {
-                                        player.spigot().sendMessage(lineComponent);
-                                    }
-                                }
-                            }
-
-                            // Send the final separator line
-                            player.spigot().sendMessage(separator);
-                        }
-                    }
+                    // Permission check required, broadcast only to the indexed players with permission
+                    sendToPlayers(messageIndex, compiled, plugin.getRecipientIndex().getRecipients(requiredPermission));
                 }
             } else {
                 // Broadcast only to specific players, possibly with permission check
+                List<Player> recipients = new ArrayList<>();
                 for (Player player : targetPlayers) {
                     if (player != null && player.isOnline() && 
                         (requiredPermission == null || player.hasPermission(requiredPermission))) {
-                        // Send the separator line
-                        player.spigot().sendMessage(separator);
-
-                        // Send each component with placeholders replaced for this player
-                        for (String line : messages.get(messageIndex).split("\n")) {
-                            line = line.trim();
-                            if (!line.isEmpty()) {
-                                TextComponent lineComponent = processLine(line, player);
-                                if (lineComponent != null) {
-                                    player.spigot().sendMessage(lineComponent);
-                                }
-                            }
-                        }
-
-                        // Send the final separator line
-                        player.spigot().sendMessage(separator);
+                        recipients.add(player);
                     }
                 }
+                sendToPlayers(messageIndex, compiled, recipients);
+            }
+
+            // Compile the next messages of the rotation ahead of time
+            if (lazyCache != null && !randomizeMessages) {
+                schedulePrewarm();
             }
 
             // Log performance metrics if debug mode is enabled
-            long endTime = System.currentTimeMillis();
-            if (plugin.getConfig().getBoolean("debug", false)) {
+            if (debug) {
+                long endTime = System.currentTimeMillis();
                 plugin.getLogger().info("Message broadcast completed in " + (endTime - startTime) + "ms");
             }
         } catch (Exception e) {
@@ -414,13 +424,25 @@ public class MessageManager {
         }
     }
 
+    /**
+     * Sends a message to a list of players, rendering it as often as its placeholders require.
+     *
+     * @param messageIndex The index of the message to send
+     * @param compiled The compiled message
+     * @param recipients The players to send the message to
+     */
+    private void sendToPlayers(int messageIndex, CompiledMessage compiled, Collection<? extends Player> recipients) {
+        messageDelivery.send(labels[messageIndex], compiled.getTemplate(), compiled.getPayload(),
+                             separator, singlePacket, recipients);
+    }
+
     /**
      * Gets the current index of the message rotation.
      *
      * @return The current index
      */
     public int getCurrentIndex() {
-        return currentIndex;
+        return messageSelector.getCurrentIndex();
     }
 
     /**
@@ -431,7 +453,7 @@ public class MessageManager {
      */
     public void setCurrentIndex(int index) {
         if (index >= 0 && index < messages.size()) {
-            this.currentIndex = index;
+            messageSelector.setCurrentIndex(index);
         }
     }
 
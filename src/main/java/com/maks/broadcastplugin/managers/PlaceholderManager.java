@@ -1,26 +1,86 @@
 package com.maks.broadcastplugin.managers;
 
 import com.maks.broadcastplugin.BroadcastPlugin;
+import com.maks.broadcastplugin.placeholders.CompiledPlaceholders;
+import com.maks.broadcastplugin.placeholders.PlaceholderBinding;
+import com.maks.broadcastplugin.placeholders.PlaceholderContext;
+import com.maks.broadcastplugin.placeholders.PlaceholderMemo;
+import com.maks.broadcastplugin.placeholders.PlaceholderMetrics;
+import com.maks.broadcastplugin.placeholders.PlaceholderProvider;
+import com.maks.broadcastplugin.placeholders.PlaceholderRegistration;
+import com.maks.broadcastplugin.placeholders.PlaceholderScope;
+import com.maks.broadcastplugin.placeholders.PlaceholderService;
+import com.maks.broadcastplugin.placeholders.PlayerField;
+import com.maks.broadcastplugin.placeholders.PlayerSnapshot;
+import com.maks.broadcastplugin.placeholders.ServerCapabilities;
+import com.maks.broadcastplugin.placeholders.Volatility;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Supplier;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Manages placeholder replacement in messages.
  * Supports both built-in placeholders and integration with PlaceholderAPI if available.
+ *
+ * Every placeholder is backed by a PlaceholderProvider that declares how volatile its value is.
+ * Static values are folded into texts when they are compiled, per-tick values are computed once per
+ * broadcast scope, and per-player values once per recipient, from a snapshot of the player state. Values with a configured time to live
+ * are additionally shared between broadcasts until they expire.
+ * While placeholder metrics are enabled, every computed value is counted and timed per placeholder.
+ *
+ * Other plugins add placeholders through the PlaceholderService this class implements.
  */
-public class PlaceholderManager {
+public class PlaceholderManager implements PlaceholderService {
     private final BroadcastPlugin plugin;
+    private final ServerCapabilities capabilities;
     private final boolean placeholderApiEnabled;
-    private final Pattern placeholderPattern;
-    private final Map<String, Supplier<String>> builtinPlaceholders = new HashMap<>();
+    private final Map<String, PlaceholderBinding> bindings = new ConcurrentHashMap<>();
+    
+    // Slots of the per-tick and per-player values in scopes and snapshots; a name keeps its slot for good
+    private final Map<String, Integer> slots = new HashMap<>();
+    private volatile int slotCount = 0;
+    
+    // Placeholders added by other plugins, with their owners and cache times to live
+    private final Map<String, Plugin> registeredOwners = new ConcurrentHashMap<>();
+    private final Map<String, Long> registeredTtls = new ConcurrentHashMap<>();
+    
+    // Incremented every time a placeholder is registered or unregistered, so compiled messages can be invalidated
+    private final AtomicLong version = new AtomicLong();
+    
+    // Texts compiled into literal chunks and bound resolvers, shared by all threads;
+    // the least recently used texts are evicted once the cache is full
+    private static final int MAX_COMPILED_TEXTS = 1024;
+    private final Map<String, CompiledPlaceholders> compiledTexts = Collections.synchronizedMap(
+        new LinkedHashMap<String, CompiledPlaceholders>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledPlaceholders> eldest) {
+                return size() > MAX_COMPILED_TEXTS;
+            }
+        });
+    
+    // Server-scoped values shared between broadcasts for their configured time to live
+    private final PlaceholderMemo memo = new PlaceholderMemo();
+    
+    // Invocation counts and latencies per placeholder, recorded while metrics are enabled
+    private final PlaceholderMetrics metrics = new PlaceholderMetrics();
+    private final PlaceholderMetrics.Stats snapshotStats = metrics.forKey("player snapshot", "built-in");
+    
+    // Formatters are immutable and thread-safe, unlike SimpleDateFormat
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter DATETIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
     /**
      * Constructs a new PlaceholderManager.
@@ -29,15 +89,22 @@ public class PlaceholderManager {
      */
     public PlaceholderManager(BroadcastPlugin plugin) {
         this.plugin = plugin;
-        this.placeholderApiEnabled = Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null;
-        this.placeholderPattern = Pattern.compile("\\{([^{}]+)\\}");
+        
+        // Probe the server once so placeholders never look up APIs while rendering
+        this.capabilities = ServerCapabilities.probe();
+        this.placeholderApiEnabled = capabilities.hasPlaceholderApi();
+        metrics.setEnabled(plugin.getConfigManager().isPlaceholderMetricsEnabled());
         
         // Register built-in placeholders
         registerBuiltinPlaceholders();
+        registerPlayerPlaceholders();
         
         if (plugin.getConfigManager().isDebugMode()) {
             plugin.getLogger().info("PlaceholderManager initialized. PlaceholderAPI " + 
                                    (placeholderApiEnabled ? "detected" : "not detected"));
+            plugin.getLogger().info("Placeholder sources: TPS via " + capabilities.getTpsSource() + ", ping via " +
+                                   capabilities.getPingSource() + ", PlaceholderAPI via " +
+                                   capabilities.getPlaceholderApiSource());
         }
     }
     
@@ -46,49 +113,239 @@ public class PlaceholderManager {
      */
     private void registerBuiltinPlaceholders() {
         // Server-related placeholders
-        builtinPlaceholders.put("server_name", () -> Bukkit.getServer().getName());
-        builtinPlaceholders.put("server_version", () -> Bukkit.getServer().getVersion());
-        builtinPlaceholders.put("server_motd", () -> Bukkit.getServer().getMotd());
-        builtinPlaceholders.put("server_ip", () -> Bukkit.getServer().getIp());
-        builtinPlaceholders.put("server_port", () -> String.valueOf(Bukkit.getServer().getPort()));
+        registerPlaceholder("server_name", PlaceholderProvider.server(Volatility.STATIC, () -> Bukkit.getServer().getName()));
+        registerPlaceholder("server_version", PlaceholderProvider.server(Volatility.STATIC, () -> Bukkit.getServer().getVersion()));
+        registerPlaceholder("server_motd", PlaceholderProvider.server(Volatility.PER_TICK, () -> Bukkit.getServer().getMotd()));
+        registerPlaceholder("server_ip", PlaceholderProvider.server(Volatility.STATIC, () -> Bukkit.getServer().getIp()));
+        registerPlaceholder("server_port", PlaceholderProvider.server(Volatility.STATIC, () -> String.valueOf(Bukkit.getServer().getPort())));
         
         // Player-related placeholders
-        builtinPlaceholders.put("online_players", () -> String.valueOf(Bukkit.getOnlinePlayers().size()));
-        builtinPlaceholders.put("max_players", () -> String.valueOf(Bukkit.getMaxPlayers()));
+        registerPlaceholder("online_players", PlaceholderProvider.server(Volatility.PER_TICK, () -> String.valueOf(Bukkit.getOnlinePlayers().size())));
+        registerPlaceholder("max_players", PlaceholderProvider.server(Volatility.PER_TICK, () -> String.valueOf(Bukkit.getMaxPlayers())));
         
         // Performance-related placeholders
-        builtinPlaceholders.put("server_tps", this::getServerTPS);
+        registerPlaceholder("server_tps", PlaceholderProvider.server(Volatility.PER_TICK, this::getServerTPS));
         
         // Time-related placeholders
-        builtinPlaceholders.put("time", () -> new SimpleDateFormat("HH:mm:ss").format(new Date()));
-        builtinPlaceholders.put("date", () -> new SimpleDateFormat("yyyy-MM-dd").format(new Date()));
-        builtinPlaceholders.put("datetime", () -> new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
+        registerPlaceholder("time", PlaceholderProvider.server(Volatility.PER_TICK, () -> LocalDateTime.now().format(TIME_FORMAT)));
+        registerPlaceholder("date", PlaceholderProvider.server(Volatility.PER_TICK, () -> LocalDateTime.now().format(DATE_FORMAT)));
+        registerPlaceholder("datetime", PlaceholderProvider.server(Volatility.PER_TICK, () -> LocalDateTime.now().format(DATETIME_FORMAT)));
         
         // Plugin-related placeholders
-        builtinPlaceholders.put("plugin_version", () -> plugin.getDescription().getVersion());
-        builtinPlaceholders.put("plugin_author", () -> String.join(", ", plugin.getDescription().getAuthors()));
+        registerPlaceholder("plugin_version", PlaceholderProvider.server(Volatility.STATIC, () -> plugin.getDescription().getVersion()));
+        registerPlaceholder("plugin_author", PlaceholderProvider.server(Volatility.STATIC, () -> String.join(", ", plugin.getDescription().getAuthors())));
+    }
+    
+    /**
+     * Registers all built-in player-specific placeholders.
+     */
+    private void registerPlayerPlaceholders() {
+        // Each placeholder reads one field; live reads use the snapshot's formatting without capturing a snapshot
+        for (PlayerField field : PlayerField.values()) {
+            PlaceholderProvider provider = PlaceholderProvider.player(
+                player -> PlayerSnapshot.formatLive(player, field, capabilities));
+            for (String name : field.getPlaceholders()) {
+                registerPlaceholder(name, provider, field);
+            }
+        }
         
         if (plugin.getConfigManager().isDebugMode()) {
-            plugin.getLogger().info("Registered " + builtinPlaceholders.size() + " built-in placeholders");
+            plugin.getLogger().info("Registered " + bindings.size() + " built-in placeholders");
         }
     }
     
     /**
-     * Gets the server TPS (Ticks Per Second).
-     * This is an approximation since the actual TPS is not directly accessible.
+     * Registers a placeholder, replacing any placeholder with the same name.
+     * Errors thrown by the provider are caught and leave the placeholder unreplaced.
+     * Registrations are serialized, so other plugins may register placeholders from any thread.
      *
-     * @return The server TPS as a string
+     * @param name The placeholder name (without braces)
+     * @param provider The provider of the placeholder values
      */
-    private String getServerTPS() {
-        try {
-            // Try to access the TPS through reflection (works on some server implementations)
-            Object minecraftServer = Bukkit.getServer().getClass().getMethod("getServer").invoke(Bukkit.getServer());
-            double[] tps = (double[]) minecraftServer.getClass().getField("recentTps").get(minecraftServer);
-            return String.format("%.2f", tps[0]);
-        } catch (Exception e) {
-            // If reflection fails, return a placeholder value
-            return "20.00";
+    public void registerPlaceholder(String name, PlaceholderProvider provider) {
+        registerPlaceholder(name, provider, null);
+    }
+    
+    /**
+     * Registers a placeholder, also recording the snapshot field it reads if it is a built-in player placeholder.
+     *
+     * @param name The placeholder name (without braces)
+     * @param provider The provider of the placeholder values
+     * @param field The snapshot field the placeholder reads (can be null)
+     */
+    private synchronized void registerPlaceholder(String name, PlaceholderProvider provider, PlayerField field) {
+        Integer slot = slots.get(name);
+        if (slot == null) {
+            slot = slotCount;
+            slots.put(name, slot);
+            slotCount = slot + 1;
+        }
+        bindings.put(name, new PlaceholderBinding(name, guard(name, provider), slot, field));
+        
+        // Compiled texts may have bound or folded the previous provider
+        compiledTexts.clear();
+        version.incrementAndGet();
+    }
+    
+    /**
+     * Unregisters a placeholder.
+     *
+     * @param name The placeholder name (without braces)
+     * @return true if the placeholder was registered, false otherwise
+     */
+    public synchronized boolean unregisterPlaceholder(String name) {
+        boolean removed = bindings.remove(name) != null;
+        if (removed) {
+            compiledTexts.clear();
+            version.incrementAndGet();
+        }
+        return removed;
+    }
+    
+    /**
+     * Gets the version of the registered placeholders.
+     * The version changes every time a placeholder is registered or unregistered.
+     *
+     * @return The version of the registered placeholders
+     */
+    public long getVersion() {
+        return version.get();
+    }
+    
+    @Override
+    public synchronized boolean register(PlaceholderRegistration registration) {
+        String name = registration.getName();
+        if (bindings.containsKey(name) && !registeredOwners.containsKey(name)) {
+            plugin.getLogger().warning(registration.getOwner().getName() + " tried to replace the built-in placeholder {" +
+                                      name + "}, ignoring it");
+            return false;
+        }
+        
+        PlaceholderProvider provider = registration.isPlayerScoped()
+            ? PlaceholderProvider.of(Volatility.PER_PLAYER, registration.isThreadSafe(),
+                player -> player != null ? registration.getResolver().apply(player) : null)
+            : PlaceholderProvider.of(Volatility.PER_TICK, registration.isThreadSafe(), registration.getResolver());
+        
+        registeredOwners.put(name, registration.getOwner());
+        registeredTtls.put(name, registration.getCacheTtlMillis());
+        registerPlaceholder(name, provider);
+        
+        if (plugin.getConfigManager().isDebugMode()) {
+            plugin.getLogger().info(registration.getOwner().getName() + " registered placeholder {" + name + "} (" +
+                                   (registration.isPlayerScoped() ? "player" : "server") + ", " +
+                                   (registration.isThreadSafe() ? "thread-safe" : "main thread") + ", TTL " +
+                                   registration.getCacheTtlMillis() + " ms)");
         }
+        return true;
+    }
+    
+    @Override
+    public synchronized boolean unregister(String name) {
+        if (registeredOwners.remove(name) == null) {
+            return false;
+        }
+        registeredTtls.remove(name);
+        return unregisterPlaceholder(name);
+    }
+    
+    @Override
+    public synchronized int unregisterAll(Plugin owner) {
+        int count = 0;
+        for (Map.Entry<String, Plugin> entry : registeredOwners.entrySet()) {
+            if (entry.getValue() == owner && unregister(entry.getKey())) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    @Override
+    public boolean isRegistered(String name) {
+        return bindings.containsKey(name);
+    }
+    
+    /**
+     * Wraps a provider so that errors are logged instead of breaking the broadcast.
+     * Per-tick and per-player providers are also served from the memo while their time to live allows it.
+     * Computed values are recorded in the placeholder metrics while they are enabled.
+     *
+     * @param name The placeholder name
+     * @param provider The provider to wrap
+     * @return The wrapped provider
+     */
+    private PlaceholderProvider guard(String name, PlaceholderProvider provider) {
+        Plugin owner = registeredOwners.get(name);
+        PlaceholderMetrics.Stats stats = metrics.forKey("{" + name + "}", owner != null ? owner.getName() : "built-in");
+        PlaceholderProvider guarded = PlaceholderProvider.of(provider.getVolatility(), provider.isThreadSafe(), player -> {
+            boolean timed = metrics.isEnabled();
+            long start = timed ? System.nanoTime() : 0L;
+            boolean failed = false;
+            try {
+                return provider.resolve(player);
+            } catch (Exception e) {
+                failed = true;
+                if (plugin.getConfigManager().isDebugMode()) {
+                    plugin.getLogger().warning("Error getting value for placeholder {" + name + "}: " + e.getMessage());
+                }
+                return null;
+            } finally {
+                if (timed) {
+                    stats.recordInvocation(System.nanoTime() - start, failed);
+                }
+            }
+        });
+        if (provider.getVolatility() != Volatility.PER_TICK && provider.getVolatility() != Volatility.PER_PLAYER) {
+            return guarded;
+        }
+        
+        return PlaceholderProvider.of(provider.getVolatility(), provider.isThreadSafe(), player -> {
+            if (metrics.isEnabled()) {
+                stats.recordRequest();
+            }
+            
+            // The time to live is looked up on each call so that reloads take effect immediately
+            long ttl = getTtlMillis(name);
+            if (ttl <= 0 || (provider.getVolatility() == Volatility.PER_PLAYER && player == null)) {
+                return guarded.resolve(player);
+            }
+            return memo.get(name, provider.getVolatility() == Volatility.PER_PLAYER ? player : null, guarded, ttl);
+        });
+    }
+    
+    /**
+     * Gets how long the values of a placeholder are cached between broadcasts.
+     * The configuration takes precedence over the time to live declared at registration.
+     *
+     * @param name The placeholder name
+     * @return The time to live in milliseconds, or 0 if the values are not cached
+     */
+    private long getTtlMillis(String name) {
+        long ttl = plugin.getConfigManager().getPlaceholderTtlMillis(name);
+        if (ttl > 0) {
+            return ttl;
+        }
+        Long registeredTtl = registeredTtls.get(name);
+        return registeredTtl != null ? registeredTtl : 0L;
+    }
+    
+    /**
+     * Clears the compiled texts and the remembered server values, and applies the reloaded metrics setting.
+     * This should be called when the configuration is reloaded.
+     */
+    public void clearCache() {
+        compiledTexts.clear();
+        memo.clear();
+        metrics.setEnabled(plugin.getConfigManager().isPlaceholderMetricsEnabled());
+    }
+    
+    /**
+     * Gets the server TPS (Ticks Per Second) averaged over the last minute.
+     *
+     * @return The server TPS as a string, or 20.00 if the server does not expose it
+     */
+    private String getServerTPS() {
+        double tps = capabilities.getTps();
+        return String.format("%.2f", tps >= 0 ? tps : 20.0);
     }
     
     /**
@@ -100,92 +357,245 @@ public class PlaceholderManager {
      * @return The message with all placeholders replaced
      */
     public String replacePlaceholders(String message, Player player) {
+        return replacePlaceholders(message, PlaceholderContext.forPlayer(player, null));
+    }
+    
+    /**
+     * Replaces all placeholders in a message rendered in a context.
+     * PlaceholderAPI tokens are only replaced if the context has a live player, because
+     * PlaceholderAPI expansions need live player access and are not guaranteed to be thread-safe.
+     * Contexts with captured player values can therefore be rendered on any thread.
+     *
+     * @param message The message to process
+     * @param context The context to render the message in
+     * @return The message with all placeholders replaced
+     */
+    public String replacePlaceholders(String message, PlaceholderContext context) {
         if (message == null || message.isEmpty()) {
             return message;
         }
         
-        // First, try to use PlaceholderAPI if available
-        if (placeholderApiEnabled && player != null) {
+        // Built-in placeholders and PlaceholderAPI tokens were bound when the text was compiled
+        return getCompiledText(message).resolve(context);
+    }
+    
+    /**
+     * Gets the compiled form of a text, compiling it on first use.
+     * Once the cache is full, the least recently used text is evicted.
+     *
+     * @param message The text to compile
+     * @return The compiled text
+     */
+    private CompiledPlaceholders getCompiledText(String message) {
+        CompiledPlaceholders compiled = compiledTexts.get(message);
+        if (compiled == null) {
+            long compiledVersion = version.get();
+            compiled = CompiledPlaceholders.compile(message, bindings::get,
+                                                    placeholderApiEnabled ? this::placeholderApiToken : null);
+            synchronized (this) {
+                // A text compiled while a placeholder was registered may have bound the previous provider
+                if (version.get() == compiledVersion) {
+                    compiledTexts.put(message, compiled);
+                }
+            }
+        }
+        return compiled;
+    }
+    
+    /**
+     * Creates the provider of a single PlaceholderAPI token.
+     * PlaceholderAPI is only called with the token itself, never with the text around it.
+     * Tokens have no value without a live player, so they are left unreplaced in captured contexts.
+     *
+     * @param token The token including its percent signs
+     * @return The provider of the token's value
+     */
+    private PlaceholderProvider placeholderApiToken(String token) {
+        PlaceholderMetrics.Stats stats = metrics.forKey(token, "PlaceholderAPI");
+        return PlaceholderProvider.of(Volatility.PER_CALL, player -> {
+            if (player == null) {
+                return null;
+            }
+            boolean timed = metrics.isEnabled();
+            long start = timed ? System.nanoTime() : 0L;
+            boolean failed = false;
             try {
-                // Use reflection to avoid direct dependency on PlaceholderAPI
-                Class<?> papiClass = Class.forName("me.clip.placeholderapi.PlaceholderAPI");
-                message = (String) papiClass.getMethod("setPlaceholders", Player.class, String.class)
-                    .invoke(null, player, message);
+                // PlaceholderAPI is called through the handle bound at startup, without a direct dependency
+                return capabilities.setPlaceholders(player, token);
             } catch (Exception e) {
+                failed = true;
                 if (plugin.getConfigManager().isDebugMode()) {
                     plugin.getLogger().warning("Error using PlaceholderAPI: " + e.getMessage());
                 }
+                return null;
+            } finally {
+                if (timed) {
+                    stats.recordInvocation(System.nanoTime() - start, failed);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Gets the volatility of a text, which decides how often it has to be rendered.
+     * Texts with PlaceholderAPI tokens are rendered on every call while PlaceholderAPI is installed.
+     *
+     * @param text The text to check (can be null)
+     * @return The volatility of the most volatile placeholder in the text
+     */
+    public Volatility getVolatility(String text) {
+        if (text == null || text.isEmpty()) {
+            return Volatility.STATIC;
+        }
+        return getCompiledText(text).getVolatility();
+    }
+    
+    /**
+     * Checks if a text has PlaceholderAPI tokens that PlaceholderAPI will be called for.
+     *
+     * @param text The text to check (can be null)
+     * @return true if PlaceholderAPI is installed and the text has tokens, false otherwise
+     */
+    public boolean usesPlaceholderApi(String text) {
+        if (!placeholderApiEnabled || text == null || text.isEmpty()) {
+            return false;
+        }
+        return getCompiledText(text).getPlaceholderApiTokenCount() > 0;
+    }
+    
+    /**
+     * Creates a scope for a broadcast with its per-tick placeholders computed up front in one pass.
+     * This must be called on the main thread; the scope can then be used on any thread.
+     *
+     * @param names The names of the placeholders the broadcast needs
+     * @return The scope
+     */
+    public PlaceholderScope captureScope(Collection<String> names) {
+        PlaceholderScope scope = new PlaceholderScope(slotCount);
+        for (String name : names) {
+            PlaceholderBinding binding = bindings.get(name);
+            if (binding != null && binding.getProvider().getVolatility() == Volatility.PER_TICK) {
+                scope.get(binding.getSlot(), binding.getProvider());
             }
         }
+        return scope;
+    }
+    
+    /**
+     * Captures a snapshot of the player state a broadcast needs for a player in one pass.
+     * Built-in player placeholders are captured as the raw fields they read, other player placeholders
+     * as their values. Thread-safe placeholders are skipped, because render workers can resolve them directly.
+     * This must be called on the main thread, because it reads live entity state.
+     *
+     * @param player The player to capture
+     * @param names The names of the placeholders the broadcast needs
+     * @return The snapshot
+     */
+    public PlayerSnapshot capturePlayer(Player player, Collection<String> names) {
+        boolean timed = metrics.isEnabled();
+        long start = timed ? System.nanoTime() : 0L;
         
-        // Then, replace built-in placeholders
-        Matcher matcher = placeholderPattern.matcher(message);
-        StringBuffer result = new StringBuffer();
+        int fieldMask = 0;
+        String[] values = null;
+        for (String name : names) {
+            PlaceholderBinding binding = bindings.get(name);
+            if (binding == null) {
+                continue;
+            }
+            PlaceholderProvider provider = binding.getProvider();
+            if (provider.getVolatility() != Volatility.PER_PLAYER || provider.isThreadSafe()) {
+                continue;
+            }
+            
+            // Built-in fields are read directly unless the placeholder is cached, then the memo decides
+            PlayerField field = binding.getField();
+            if (field != null && getTtlMillis(name) <= 0) {
+                fieldMask |= field.getMask();
+                continue;
+            }
+            String value = provider.resolve(player);
+            if (value != null) {
+                if (values == null || binding.getSlot() >= values.length) {
+                    // Placeholders registered meanwhile can have slots past the ones counted so far
+                    int length = Math.max(slotCount, binding.getSlot() + 1);
+                    values = values != null ? Arrays.copyOf(values, length) : new String[length];
+                }
+                values[binding.getSlot()] = value;
+            }
+        }
         
-        while (matcher.find()) {
-            String placeholder = matcher.group(1);
-            String replacement = getPlaceholderReplacement(placeholder, player);
-            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        PlayerSnapshot snapshot = new PlayerSnapshot(player, fieldMask, capabilities, values);
+        if (timed) {
+            snapshotStats.recordInvocation(System.nanoTime() - start, false);
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Gets the names of the placeholders in a text that are resolved when rendering.
+     *
+     * @param text The text to check (can be null)
+     * @return The placeholder names in text order
+     */
+    public List<String> getPlaceholderNames(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return getCompiledText(text).getPlaceholderNames();
+    }
+    
+    /**
+     * Checks if a text contains PlaceholderAPI placeholders (%name%).
+     *
+     * @param text The text to check (can be null)
+     * @return true if the text may contain PlaceholderAPI placeholders, false otherwise
+     */
+    public static boolean containsPlaceholderApiTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return false;
         }
         
-        matcher.appendTail(result);
-        return result.toString();
+        int percentStart = text.indexOf('%');
+        return percentStart >= 0 && text.indexOf('%', percentStart + 1) > percentStart + 1;
     }
     
     /**
-     * Gets the replacement value for a placeholder.
+     * Checks if a text contains anything that looks like a placeholder.
+     * This detects both built-in placeholders ({name}) and PlaceholderAPI placeholders (%name%).
+     * It is a cheap scan used at cache time to decide which parts of a message need per-player rendering.
      *
-     * @param placeholder The placeholder name (without braces)
-     * @param player The player to use for player-specific placeholders (can be null)
-     * @return The replacement value, or the original placeholder if not found
+     * @param text The text to check (can be null)
+     * @return true if the text may contain placeholders, false otherwise
      */
-    private String getPlaceholderReplacement(String placeholder, Player player) {
-        // Check built-in placeholders
-        if (builtinPlaceholders.containsKey(placeholder)) {
-            try {
-                return builtinPlaceholders.get(placeholder).get();
-            } catch (Exception e) {
-                if (plugin.getConfigManager().isDebugMode()) {
-                    plugin.getLogger().warning("Error getting value for placeholder {" + placeholder + "}: " + e.getMessage());
-                }
-                return "{" + placeholder + "}";
-            }
+    public static boolean containsPlaceholders(String text) {
+        if (text == null || text.isEmpty()) {
+            return false;
         }
         
-        // Handle player-specific placeholders
-        if (player != null) {
-            switch (placeholder) {
-                case "player":
-                case "player_name":
-                    return player.getName();
-                case "player_display_name":
-                    return player.getDisplayName();
-                case "player_world":
-                    return player.getWorld().getName();
-                case "player_health":
-                    return String.format("%.1f", player.getHealth());
-                case "player_level":
-                    return String.valueOf(player.getLevel());
-                case "player_exp":
-                    return String.format("%.2f", player.getExp());
-                case "player_food_level":
-                    return String.valueOf(player.getFoodLevel());
-                case "player_gamemode":
-                    return player.getGameMode().name();
-                case "player_ping":
-                    try {
-                        // This is a bit hacky but works on most server implementations
-                        Object entityPlayer = player.getClass().getMethod("getHandle").invoke(player);
-                        int ping = (int) entityPlayer.getClass().getField("ping").get(entityPlayer);
-                        return String.valueOf(ping);
-                    } catch (Exception e) {
-                        return "0";
-                    }
-            }
+        int braceStart = text.indexOf('{');
+        if (braceStart >= 0 && text.indexOf('}', braceStart + 1) > braceStart + 1) {
+            return true;
         }
         
-        // If no replacement found, return the original placeholder
-        return "{" + placeholder + "}";
+        return containsPlaceholderApiTokens(text);
+    }
+    
+    /**
+     * Gets the server capabilities probed at startup.
+     *
+     * @return The server capabilities
+     */
+    public ServerCapabilities getCapabilities() {
+        return capabilities;
+    }
+    
+    /**
+     * Gets the placeholder metrics.
+     *
+     * @return The placeholder metrics
+     */
+    public PlaceholderMetrics getMetrics() {
+        return metrics;
     }
     
     /**
@@ -0,0 +1,134 @@
+package com.maks.broadcastplugin.managers;
+
+import com.maks.broadcastplugin.BroadcastPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerCommandSendEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the set of online players holding each broadcast permission up to date.
+ *
+ * A permission is tracked from the first time a gated broadcast asks for its recipients; the set is
+ * built once from the online players and then maintained incrementally:
+ * - Players are checked when they join
+ * - Players are removed when they quit
+ * - Players are checked again when they change worlds, since permissions can depend on the world
+ * - Players are checked again when their command list is resent, which the server does after their
+ *   permissions are recalculated (permission plugins such as LuckPerms trigger this on changes)
+ *
+ * Gated broadcasts then iterate the precomputed set instead of checking every online player.
+ * The index is cleared on reload, so newly configured permissions start from a fresh scan.
+ * All methods must be called on the main thread.
+ */
+public class RecipientIndex implements Listener {
+    private final BroadcastPlugin plugin;
+    private final Map<String, Set<Player>> recipientsByPermission = new HashMap<>();
+
+    /**
+     * Constructs a new RecipientIndex.
+     *
+     * @param plugin The plugin instance
+     */
+    public RecipientIndex(BroadcastPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Gets the online players that have a permission.
+     * The first call for a permission scans the online players; later calls return the maintained set.
+     *
+     * @param permission The permission to look up
+     * @return An unmodifiable view of the players with the permission
+     */
+    public Collection<Player> getRecipients(String permission) {
+        Set<Player> recipients = recipientsByPermission.get(permission);
+        if (recipients == null) {
+            recipients = new LinkedHashSet<>();
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                if (player.hasPermission(permission)) {
+                    recipients.add(player);
+                }
+            }
+            recipientsByPermission.put(permission, recipients);
+
+            if (plugin.getConfigManager().isDebugMode()) {
+                plugin.getLogger().info("Started tracking recipients of permission " + permission +
+                                       " (" + recipients.size() + " players)");
+            }
+        }
+        return Collections.unmodifiableSet(recipients);
+    }
+
+    /**
+     * Stops tracking all permissions.
+     * The sets are rebuilt from the online players the next time they are needed.
+     */
+    public void clear() {
+        recipientsByPermission.clear();
+    }
+
+    /**
+     * Gets the number of permissions currently tracked.
+     *
+     * @return The number of tracked permissions
+     */
+    public int getTrackedPermissionCount() {
+        return recipientsByPermission.size();
+    }
+
+    /**
+     * Checks a player against all tracked permissions and updates the sets.
+     *
+     * @param player The player to check
+     */
+    private void refresh(Player player) {
+        for (Map.Entry<String, Set<Player>> entry : recipientsByPermission.entrySet()) {
+            if (player.hasPermission(entry.getKey())) {
+                entry.getValue().add(player);
+            } else {
+                entry.getValue().remove(player);
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        for (Set<Player> recipients : recipientsByPermission.values()) {
+            recipients.remove(player);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerCommandSend(PlayerCommandSendEvent event) {
+        Player player = event.getPlayer();
+
+        // The command list is also sent while a player is logging in; the join event handles that case
+        if (player.isOnline()) {
+            refresh(player);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import net.md_5.bungee.api.chat.ComponentBuilder;
 import net.md_5.bungee.api.chat.HoverEvent;
 import net.md_5.bungee.api.chat.TextComponent;
 
+import java.util.function.UnaryOperator;
+
 /**
  * Represents an interactive message with hover and click events.
  * This class provides a builder pattern for creating interactive messages.
@@ -57,15 +59,25 @@ public class InteractiveMessage {
     public TextComponent toTextComponent() {
         TextComponent component = new TextComponent(text);
 
-        // Apply styling
+        // Apply styling; unset fields are left out of the serialized component instead of being sent as false
         if (color != null) {
             component.setColor(color);
         }
-        component.setBold(bold);
-        component.setItalic(italic);
-        component.setUnderlined(underlined);
-        component.setStrikethrough(strikethrough);
-        component.setObfuscated(obfuscated);
+        if (bold) {
+            component.setBold(true);
+        }
+        if (italic) {
+            component.setItalic(true);
+        }
+        if (underlined) {
+            component.setUnderlined(true);
+        }
+        if (strikethrough) {
+            component.setStrikethrough(true);
+        }
+        if (obfuscated) {
+            component.setObfuscated(true);
+        }
 
         // Apply hover event
         if (hoverText != null && !hoverText.isEmpty()) {
@@ -100,6 +112,129 @@ public class InteractiveMessage {
         return component;
     }
 
+    /**
+     * Checks whether this message carries no hover, click or styling information.
+     * Plain messages are rendered as bare text components.
+     *
+     * @return true if the message is plain text only, false otherwise
+     */
+    public boolean isPlain() {
+        return hoverText == null && clickAction == ClickAction.NONE && color == null
+            && !bold && !italic && !underlined && !strikethrough && !obfuscated;
+    }
+
+    /**
+     * Creates a copy of this message with the given function applied to its text,
+     * hover text and click value. Styling and the click action are kept as is.
+     *
+     * @param function The function to apply to each text value
+     * @return A new interactive message with the transformed values
+     */
+    public InteractiveMessage map(UnaryOperator<String> function) {
+        InteractiveMessage copy = new InteractiveMessage();
+        copy.text = function.apply(text);
+        copy.hoverText = hoverText != null ? function.apply(hoverText) : null;
+        copy.clickAction = clickAction;
+        copy.clickValue = clickValue != null ? function.apply(clickValue) : null;
+        copy.color = color;
+        copy.bold = bold;
+        copy.italic = italic;
+        copy.underlined = underlined;
+        copy.strikethrough = strikethrough;
+        copy.obfuscated = obfuscated;
+        return copy;
+    }
+
+    /**
+     * Gets the text of the message.
+     *
+     * @return The text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Gets the hover text of the message.
+     *
+     * @return The hover text, or null if none
+     */
+    public String getHoverText() {
+        return hoverText;
+    }
+
+    /**
+     * Gets the click value of the message.
+     *
+     * @return The click value, or null if none
+     */
+    public String getClickValue() {
+        return clickValue;
+    }
+
+    /**
+     * Gets the click action of the message.
+     *
+     * @return The click action, NONE if the message is not clickable
+     */
+    public ClickAction getClickAction() {
+        return clickAction;
+    }
+
+    /**
+     * Gets the color of the message.
+     *
+     * @return The color, or null if none
+     */
+    public ChatColor getColor() {
+        return color;
+    }
+
+    /**
+     * Checks whether the message is bold.
+     *
+     * @return true if the message is bold, false otherwise
+     */
+    public boolean isBold() {
+        return bold;
+    }
+
+    /**
+     * Checks whether the message is italic.
+     *
+     * @return true if the message is italic, false otherwise
+     */
+    public boolean isItalic() {
+        return italic;
+    }
+
+    /**
+     * Checks whether the message is underlined.
+     *
+     * @return true if the message is underlined, false otherwise
+     */
+    public boolean isUnderlined() {
+        return underlined;
+    }
+
+    /**
+     * Checks whether the message has strikethrough.
+     *
+     * @return true if the message has strikethrough, false otherwise
+     */
+    public boolean isStrikethrough() {
+        return strikethrough;
+    }
+
+    /**
+     * Checks whether the message is obfuscated.
+     *
+     * @return true if the message is obfuscated, false otherwise
+     */
+    public boolean isObfuscated() {
+        return obfuscated;
+    }
+
     /**
      * Builder class for creating InteractiveMessage instances.
      */
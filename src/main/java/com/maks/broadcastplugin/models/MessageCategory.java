@@ -14,6 +14,7 @@ public class MessageCategory {
     private final String separatorLine;
     private final boolean enableClickableLinks;
     private final boolean randomizeMessages;
+    private final boolean singlePacket;
     
     /**
      * Constructs a new MessageCategory.
@@ -24,16 +25,18 @@ public class MessageCategory {
      * @param separatorLine The separator line to use for this category
      * @param enableClickableLinks Whether to enable clickable links for this category
      * @param randomizeMessages Whether to randomize message order for this category
+     * @param singlePacket Whether to send each message as a single chat packet for this category
      */
     public MessageCategory(String name, List<String> messages, int interval, 
                           String separatorLine, boolean enableClickableLinks, 
-                          boolean randomizeMessages) {
+                          boolean randomizeMessages, boolean singlePacket) {
         this.name = name;
         this.messages = messages;
         this.interval = interval;
         this.separatorLine = separatorLine;
         this.enableClickableLinks = enableClickableLinks;
         this.randomizeMessages = randomizeMessages;
+        this.singlePacket = singlePacket;
     }
     
     /**
@@ -99,6 +102,17 @@ public class MessageCategory {
         return randomizeMessages;
     }
     
+    /**
+     * Checks if messages should be sent as a single chat packet for this category.
+     * When enabled, the separators and all lines of a message are joined with new lines
+     * into one component instead of being sent as separate chat messages.
+     *
+     * @return true if single-packet delivery is enabled, false otherwise
+     */
+    public boolean isSinglePacket() {
+        return singlePacket;
+    }
+    
     @Override
     public String toString() {
         return "MessageCategory{" +
@@ -107,6 +121,7 @@ public class MessageCategory {
                 ", interval=" + getIntervalMinutes() + " minutes" +
                 ", enableClickableLinks=" + enableClickableLinks +
                 ", randomizeMessages=" + randomizeMessages +
+                ", singlePacket=" + singlePacket +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,325 @@
+package com.maks.broadcastplugin.placeholders;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A text compiled into literal chunks and pre-bound placeholder resolvers.
+ *
+ * Compiling scans the text once for built-in placeholders ({name}) and binds every known name to a
+ * resolver that matches the volatility of its provider. Per-tick and per-player resolvers read their values
+ * from the slot of the placeholder's binding in the broadcast scope or the recipient's snapshot, and built-in
+ * player placeholders read their snapshot field directly. PlaceholderAPI tokens (%identifier_params%)
+ * found in the same scan are bound as separate resolvers. Static values and unknown placeholders can
+ * never change, so they are folded into the literal chunks. Resolving is then a linear walk over the
+ * chunks that fills in the resolver values and writes them into a StringBuilder of the exact output
+ * size, without regular expressions or map lookups.
+ *
+ * Compiled texts are immutable and can be shared between threads, as long as their providers are.
+ */
+public class CompiledPlaceholders {
+    // Literal text around the placeholders; there is always one more literal than resolvers
+    private final String[] literals;
+    private final PlaceholderResolver[] resolvers;
+    // Original placeholder text, used when a resolver has no value
+    private final String[] fallbacks;
+    private final int literalLength;
+    private final Volatility volatility;
+    private final int tokenCount;
+    // Names of the bound built-in placeholders, in text order
+    private final List<String> names;
+
+    /**
+     * Constructs a new CompiledPlaceholders.
+     *
+     * @param literals The literal chunks
+     * @param resolvers The resolvers between the literal chunks
+     * @param fallbacks The original placeholder text for each resolver
+     * @param volatility The volatility of the most volatile bound placeholder
+     * @param tokenCount The number of bound PlaceholderAPI tokens
+     * @param names The names of the bound built-in placeholders
+     */
+    private CompiledPlaceholders(String[] literals, PlaceholderResolver[] resolvers, String[] fallbacks,
+                                 Volatility volatility, int tokenCount, List<String> names) {
+        this.literals = literals;
+        this.resolvers = resolvers;
+        this.fallbacks = fallbacks;
+        this.volatility = volatility;
+        this.tokenCount = tokenCount;
+        this.names = Collections.unmodifiableList(names);
+
+        int literalLength = 0;
+        for (String literal : literals) {
+            literalLength += literal.length();
+        }
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * Compiles a text.
+     * A placeholder is a name between braces that does not contain braces itself, matching the
+     * format the placeholder manager has always used.
+     *
+     * @param text The text to compile
+     * @param bindings The function that looks up the binding of a placeholder name, returning null for unknown names
+     * @return The compiled text
+     */
+    public static CompiledPlaceholders compile(String text, Function<String, PlaceholderBinding> bindings) {
+        return compile(text, bindings, null);
+    }
+
+    /**
+     * Compiles a text, also binding PlaceholderAPI tokens.
+     * A PlaceholderAPI token is an identifier and parameters between percent signs (%identifier_params%),
+     * where the identifier has no spaces. Each token is bound on its own, so PlaceholderAPI is only
+     * called for the exact token and never for the rest of the text.
+     *
+     * @param text The text to compile
+     * @param bindings The function that looks up the binding of a placeholder name, returning null for unknown names
+     * @param tokenProviders The function that creates the provider of a PlaceholderAPI token, or null to leave tokens as text
+     * @return The compiled text
+     */
+    public static CompiledPlaceholders compile(String text, Function<String, PlaceholderBinding> bindings,
+                                               Function<String, PlaceholderProvider> tokenProviders) {
+        List<String> literals = new ArrayList<>();
+        List<PlaceholderResolver> resolvers = new ArrayList<>();
+        List<String> fallbacks = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        Volatility volatility = Volatility.STATIC;
+        int tokenCount = 0;
+        List<String> names = new ArrayList<>();
+
+        int length = text.length();
+        int literalStart = 0;
+        int position = 0;
+        while (position < length) {
+            char c = text.charAt(position);
+            if (c == '%' && tokenProviders != null) {
+                int close = findTokenEnd(text, position);
+                if (close < 0) {
+                    position++;
+                    continue;
+                }
+
+                String token = text.substring(position, close + 1);
+                PlaceholderProvider provider = tokenProviders.apply(token);
+                literal.append(text, literalStart, position);
+                literals.add(literal.toString());
+                literal.setLength(0);
+                resolvers.add(bindToken(provider));
+                fallbacks.add(token);
+                volatility = Volatility.max(volatility, provider.getVolatility());
+                tokenCount++;
+                literalStart = close + 1;
+                position = close + 1;
+                continue;
+            }
+            if (c != '{') {
+                position++;
+                continue;
+            }
+
+            // Find the end of the name, stopping at the next brace of either kind
+            int open = position;
+            int close = open + 1;
+            while (close < length && text.charAt(close) != '{' && text.charAt(close) != '}') {
+                close++;
+            }
+            if (close >= length) {
+                // Without a closing brace the rest can still hold PlaceholderAPI tokens
+                position = open + 1;
+                continue;
+            }
+            if (text.charAt(close) == '{') {
+                // Nested opening brace, the placeholder can only start there
+                position = close;
+                continue;
+            }
+
+            // Empty braces are not a placeholder
+            String name = close > open + 1 ? text.substring(open + 1, close) : null;
+            PlaceholderBinding binding = name != null ? bindings.apply(name) : null;
+            if (binding != null) {
+                PlaceholderProvider provider = binding.getProvider();
+                literal.append(text, literalStart, open);
+                if (provider.getVolatility() == Volatility.STATIC) {
+                    // Fold the value into the literal text
+                    String value = provider.resolve(null);
+                    literal.append(value != null ? value : text.substring(open, close + 1));
+                } else {
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    resolvers.add(bind(binding));
+                    names.add(name);
+                    fallbacks.add(text.substring(open, close + 1));
+                    volatility = Volatility.max(volatility, provider.getVolatility());
+                }
+                literalStart = close + 1;
+                position = close + 1;
+            } else {
+                // Unknown names stay text, but may still contain PlaceholderAPI tokens
+                position = open + 1;
+            }
+        }
+        literal.append(text, literalStart, length);
+        literals.add(literal.toString());
+
+        return new CompiledPlaceholders(
+            literals.toArray(new String[0]),
+            resolvers.toArray(new PlaceholderResolver[0]),
+            fallbacks.toArray(new String[0]),
+            volatility,
+            tokenCount,
+            names
+        );
+    }
+
+    /**
+     * Finds the closing percent sign of a PlaceholderAPI token.
+     *
+     * @param text The text to search
+     * @param open The position of the opening percent sign
+     * @return The position of the closing percent sign, or -1 if no token starts at the position
+     */
+    private static int findTokenEnd(String text, int open) {
+        int length = text.length();
+        int i = open + 1;
+
+        // The identifier runs up to the first underscore and cannot be empty or contain spaces
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == '_') {
+                break;
+            }
+            if (c == '%' || Character.isWhitespace(c)) {
+                return -1;
+            }
+            i++;
+        }
+        if (i >= length || i == open + 1) {
+            return -1;
+        }
+
+        // The parameters run up to the closing percent sign
+        int close = text.indexOf('%', i + 1);
+        return close;
+    }
+
+    /**
+     * Binds a placeholder to a resolver that computes its value as often as its volatility requires.
+     *
+     * @param binding The binding of the placeholder
+     * @return The resolver
+     */
+    private static PlaceholderResolver bind(PlaceholderBinding binding) {
+        PlaceholderProvider provider = binding.getProvider();
+        int slot = binding.getSlot();
+        switch (provider.getVolatility()) {
+            case PER_TICK:
+                // Computed once per broadcast if the context belongs to one
+                return context -> context.getScope() != null
+                    ? context.getScope().get(slot, provider)
+                    : provider.resolve(null);
+            case PER_PLAYER:
+                if (provider.isThreadSafe()) {
+                    // Thread-safe providers are never captured and are called for the recipient directly
+                    return context -> provider.resolve(context.getRecipient());
+                }
+                // Read from the snapshot if there is one, otherwise from the live player;
+                // captured values take precedence, since built-in placeholders with a cache TTL are captured as values
+                PlayerField field = binding.getField();
+                return context -> {
+                    PlayerSnapshot snapshot = context.getSnapshot();
+                    if (snapshot == null) {
+                        return provider.resolve(context.getPlayer());
+                    }
+                    String value = snapshot.getValue(slot);
+                    return value != null || field == null ? value : snapshot.format(field);
+                };
+            default:
+                return bindToken(provider);
+        }
+    }
+
+    /**
+     * Binds a provider that is called on every use, such as a PlaceholderAPI token.
+     *
+     * @param provider The provider
+     * @return The resolver
+     */
+    private static PlaceholderResolver bindToken(PlaceholderProvider provider) {
+        return context -> provider.resolve(context.getPlayer());
+    }
+
+    /**
+     * Resolves all placeholders of the text.
+     *
+     * @param context The context the text is rendered in
+     * @return The text with all known placeholders replaced
+     */
+    public String resolve(PlaceholderContext context) {
+        // Without resolvers the single literal already holds the folded text
+        if (resolvers.length == 0) {
+            return literals[0];
+        }
+
+        // Resolve the values first so the output size is known
+        String[] values = new String[resolvers.length];
+        int length = literalLength;
+        for (int i = 0; i < resolvers.length; i++) {
+            String value = resolvers[i].resolve(context);
+            if (value == null) {
+                value = fallbacks[i];
+            }
+            values[i] = value;
+            length += value.length();
+        }
+
+        StringBuilder result = new StringBuilder(length);
+        result.append(literals[0]);
+        for (int i = 0; i < values.length; i++) {
+            result.append(values[i]).append(literals[i + 1]);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Gets the number of placeholders in the text that are resolved when rendering.
+     *
+     * @return The number of placeholders
+     */
+    public int getPlaceholderCount() {
+        return resolvers.length;
+    }
+
+    /**
+     * Gets the volatility of the text, which is the volatility of its most volatile placeholder.
+     * A text without placeholders left after folding is static.
+     *
+     * @return The volatility
+     */
+    public Volatility getVolatility() {
+        return volatility;
+    }
+
+    /**
+     * Gets the number of PlaceholderAPI tokens in the text.
+     *
+     * @return The number of tokens
+     */
+    public int getPlaceholderApiTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * Gets the names of the built-in placeholders resolved when rendering.
+     * Static placeholders are folded at compile time and are not included.
+     *
+     * @return An unmodifiable list of placeholder names in text order
+     */
+    public List<String> getPlaceholderNames() {
+        return names;
+    }
+}
@@ -0,0 +1,67 @@
+package com.maks.broadcastplugin.placeholders;
+
+/**
+ * A registered placeholder together with the fixed slot its values are stored in.
+ *
+ * Every per-tick and per-player placeholder gets a slot when it is registered. Per-tick values are stored
+ * in that slot of the broadcast's scope and captured per-player values in that slot of the recipient's
+ * snapshot, so compiled texts read them by index instead of looking them up by name.
+ * Built-in player placeholders also carry the snapshot field they read.
+ */
+public final class PlaceholderBinding {
+    private final String name;
+    private final PlaceholderProvider provider;
+    private final int slot;
+    private final PlayerField field;
+
+    /**
+     * Constructs a new PlaceholderBinding.
+     *
+     * @param name The placeholder name (without braces)
+     * @param provider The provider of the placeholder values
+     * @param slot The slot of the placeholder values in scopes and snapshots
+     * @param field The snapshot field the placeholder reads, or null if it is not a built-in player placeholder
+     */
+    public PlaceholderBinding(String name, PlaceholderProvider provider, int slot, PlayerField field) {
+        this.name = name;
+        this.provider = provider;
+        this.slot = slot;
+        this.field = field;
+    }
+
+    /**
+     * Gets the placeholder name.
+     *
+     * @return The placeholder name (without braces)
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the provider of the placeholder values.
+     *
+     * @return The provider
+     */
+    public PlaceholderProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * Gets the slot of the placeholder values in scopes and snapshots.
+     *
+     * @return The slot
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Gets the snapshot field the placeholder reads.
+     *
+     * @return The field, or null if the placeholder is not a built-in player placeholder
+     */
+    public PlayerField getField() {
+        return field;
+    }
+}
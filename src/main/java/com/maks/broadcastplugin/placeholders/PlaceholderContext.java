@@ -0,0 +1,122 @@
+package com.maks.broadcastplugin.placeholders;
+
+import org.bukkit.entity.Player;
+
+/**
+ * The context a text is rendered in: the recipient and the broadcast it belongs to.
+ *
+ * Player-specific placeholders are read from the recipient's snapshot if the context has one, otherwise
+ * from the live player. Per-tick placeholders are shared through the broadcast's scope if the context has one,
+ * otherwise they are computed on every use.
+ */
+public class PlaceholderContext {
+    /**
+     * A context without recipient and broadcast.
+     */
+    public static final PlaceholderContext EMPTY = new PlaceholderContext(null, null, null, null);
+
+    private final Player player;
+    private final Player recipient;
+    private final PlayerSnapshot snapshot;
+    private final PlaceholderScope scope;
+
+    /**
+     * Constructs a new PlaceholderContext.
+     *
+     * @param player The live recipient (can be null)
+     * @param recipient The recipient, also set if only its snapshot may be read (can be null)
+     * @param snapshot The snapshot of the recipient's player state (can be null)
+     * @param scope The scope of the broadcast (can be null)
+     */
+    private PlaceholderContext(Player player, Player recipient, PlayerSnapshot snapshot, PlaceholderScope scope) {
+        this.player = player;
+        this.recipient = recipient;
+        this.snapshot = snapshot;
+        this.scope = scope;
+    }
+
+    /**
+     * Creates a context that reads player-specific values from a live player.
+     * Rendering in this context must happen on the main thread.
+     *
+     * @param player The recipient (can be null)
+     * @param scope The scope of the broadcast (can be null)
+     * @return The context
+     */
+    public static PlaceholderContext forPlayer(Player player, PlaceholderScope scope) {
+        return new PlaceholderContext(player, player, null, scope);
+    }
+
+    /**
+     * Creates a context that reads player-specific values from a snapshot, but still has the live player
+     * for PlaceholderAPI tokens. Rendering in this context must happen on the main thread.
+     *
+     * @param player The recipient
+     * @param snapshot The snapshot of the recipient, shared by all lines of the message
+     * @param scope The scope of the broadcast (can be null)
+     * @return The context
+     */
+    public static PlaceholderContext forPlayer(Player player, PlayerSnapshot snapshot, PlaceholderScope scope) {
+        return new PlaceholderContext(player, player, snapshot, scope);
+    }
+
+    /**
+     * Creates a context that reads player-specific values from a snapshot only.
+     * Thread-safe providers are not captured and are called with the recipient instead,
+     * so rendering in this context can happen on any thread.
+     *
+     * @param snapshot The snapshot of the recipient
+     * @param scope The scope of the broadcast (can be null)
+     * @return The context
+     */
+    public static PlaceholderContext forSnapshot(PlayerSnapshot snapshot, PlaceholderScope scope) {
+        return new PlaceholderContext(null, snapshot.getPlayer(), snapshot, scope);
+    }
+
+    /**
+     * Creates a context for a broadcast without a recipient.
+     *
+     * @param scope The scope of the broadcast
+     * @return The context
+     */
+    public static PlaceholderContext forScope(PlaceholderScope scope) {
+        return new PlaceholderContext(null, null, null, scope);
+    }
+
+    /**
+     * Gets the live recipient.
+     *
+     * @return The recipient, or null if there is none or only its snapshot may be read
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Gets the recipient of the rendered text, for thread-safe providers.
+     * Unlike the live recipient, this is also set when only the recipient's snapshot may be read.
+     *
+     * @return The recipient, or null if there is none
+     */
+    public Player getRecipient() {
+        return recipient;
+    }
+
+    /**
+     * Gets the snapshot of the recipient's player state.
+     *
+     * @return The snapshot, or null if the live player is used
+     */
+    public PlayerSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Gets the scope of the broadcast.
+     *
+     * @return The scope, or null if the text is not rendered for a broadcast
+     */
+    public PlaceholderScope getScope() {
+        return scope;
+    }
+}
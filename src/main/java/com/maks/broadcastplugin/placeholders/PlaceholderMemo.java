@@ -0,0 +1,104 @@
+package com.maks.broadcastplugin.placeholders;
+
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers placeholder values for a configured time to live.
+ *
+ * Where a PlaceholderScope shares values within one broadcast, the memo shares them between all
+ * broadcasts in the time window, so expensive lookups such as the TPS reflection run at most once
+ * per window. Player-specific values are remembered per player. The memo is thread-safe. Two threads that find the same expired entry may both
+ * recompute it, which is harmless because providers have no side effects.
+ */
+public class PlaceholderMemo {
+    // Server-wide values by placeholder name, and player-specific values by name and player
+    private final Map<String, Entry> serverEntries = new ConcurrentHashMap<>();
+    private final Map<String, Map<UUID, Entry>> playerEntries = new ConcurrentHashMap<>();
+
+    // Expired entries of a map are purged once it grows beyond this size
+    private static final int PURGE_THRESHOLD = 4096;
+
+    /**
+     * Gets the value of a placeholder, computing it if there is no value or the value has expired.
+     * Values of player-specific placeholders are remembered separately for each player.
+     *
+     * @param name The placeholder name
+     * @param player The player to get the value for (null for server-wide placeholders)
+     * @param provider The provider used to compute the value
+     * @param ttlMillis How long a computed value stays valid, in milliseconds
+     * @return The value, or null if the provider could not compute it
+     */
+    public String get(String name, Player player, PlaceholderProvider provider, long ttlMillis) {
+        if (player == null) {
+            return get(serverEntries, name, null, provider, ttlMillis);
+        }
+
+        Map<UUID, Entry> entries = playerEntries.get(name);
+        if (entries == null) {
+            Map<UUID, Entry> created = new ConcurrentHashMap<>();
+            entries = playerEntries.putIfAbsent(name, created);
+            if (entries == null) {
+                entries = created;
+            }
+        }
+        return get(entries, player.getUniqueId(), player, provider, ttlMillis);
+    }
+
+    /**
+     * Gets a value from one map of remembered values, computing it if there is no value or the value has expired.
+     *
+     * @param entries The remembered values
+     * @param key The key of the value in the map
+     * @param player The player to get the value for (null for server-wide placeholders)
+     * @param provider The provider used to compute the value
+     * @param ttlMillis How long a computed value stays valid, in milliseconds
+     * @param <K> The type of the keys
+     * @return The value, or null if the provider could not compute it
+     */
+    private static <K> String get(Map<K, Entry> entries, K key, Player player, PlaceholderProvider provider,
+                                  long ttlMillis) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.expiresAt < 0) {
+            return entry.value;
+        }
+
+        String value = provider.resolve(player);
+        if (entries.size() >= PURGE_THRESHOLD) {
+            entries.values().removeIf(expired -> now - expired.expiresAt >= 0);
+        }
+        entries.put(key, new Entry(value, now + ttlMillis * 1_000_000L));
+        return value;
+    }
+
+    /**
+     * Removes all remembered values.
+     */
+    public void clear() {
+        serverEntries.clear();
+        playerEntries.clear();
+    }
+
+    /**
+     * A remembered value and the time it expires.
+     */
+    private static final class Entry {
+        private final String value;
+        private final long expiresAt;
+
+        /**
+         * Constructs a new Entry.
+         *
+         * @param value The value (can be null)
+         * @param expiresAt The System.nanoTime() at which the value expires
+         */
+        private Entry(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.maks.broadcastplugin.placeholders;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often each placeholder is requested and computed, and how long computing it takes.
+ *
+ * Every placeholder key gets its own Stats, which callers look up once when the placeholder is registered
+ * or compiled and then record into directly, so recording never touches a map. Counters are LongAdders,
+ * which stay cheap when render workers record concurrently. Latencies go into a fixed set of buckets
+ * instead of being stored, so the memory used does not grow with the number of calls.
+ */
+public class PlaceholderMetrics {
+    // Upper bounds of the latency buckets in nanoseconds; the last bucket has no upper bound
+    private static final long[] BUCKET_BOUNDS = {
+        1_000L, 4_000L, 16_000L, 64_000L, 256_000L, 1_000_000L, 4_000_000L, 16_000_000L
+    };
+    private static final String[] BUCKET_LABELS = {
+        "1us", "4us", "16us", "64us", "256us", "1ms", "4ms", "16ms", "inf"
+    };
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    // Checked on every computed value, so the configuration setting is copied here when it is loaded
+    private volatile boolean enabled = false;
+
+    /**
+     * Checks if placeholder requests and computations are recorded.
+     *
+     * @return true if metrics are enabled, false otherwise
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether placeholder requests and computations are recorded.
+     *
+     * @param enabled Whether metrics are enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the stats of a placeholder key, creating them on first use.
+     *
+     * @param key The placeholder key, a placeholder name or a PlaceholderAPI token
+     * @param source The source of the placeholder, shown in reports
+     * @return The stats of the key
+     */
+    public Stats forKey(String key, String source) {
+        Stats keyStats = stats.computeIfAbsent(key, Stats::new);
+        keyStats.source = source;
+        return keyStats;
+    }
+
+    /**
+     * Gets the stats of all keys that were computed at least once, slowest in total first.
+     *
+     * @return The stats
+     */
+    public List<Stats> getStats() {
+        List<Stats> result = new ArrayList<>();
+        for (Stats keyStats : stats.values()) {
+            if (keyStats.getInvocations() > 0) {
+                result.add(keyStats);
+            }
+        }
+        result.sort((a, b) -> Long.compare(b.getTotalNanos(), a.getTotalNanos()));
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Resets the counters of all keys.
+     * Keys stay known, so callers that hold their stats keep recording into them.
+     */
+    public void reset() {
+        for (Stats keyStats : stats.values()) {
+            keyStats.reset();
+        }
+    }
+
+    /**
+     * Writes the stats of all keys as CSV, one row per key with one column per latency bucket.
+     *
+     * @param file The file to write
+     * @throws IOException If the file cannot be written
+     */
+    public void writeCsv(File file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            StringBuilder header = new StringBuilder("placeholder,source,requests,invocations,errors,total_ns,mean_ns,max_ns");
+            for (String label : BUCKET_LABELS) {
+                header.append(",le_").append(label);
+            }
+            writer.write(header.toString());
+            writer.newLine();
+
+            for (Stats keyStats : getStats()) {
+                StringBuilder row = new StringBuilder();
+                row.append(csv(keyStats.getKey())).append(',')
+                   .append(csv(keyStats.getSource())).append(',')
+                   .append(keyStats.getRequests()).append(',')
+                   .append(keyStats.getInvocations()).append(',')
+                   .append(keyStats.getErrors()).append(',')
+                   .append(keyStats.getTotalNanos()).append(',')
+                   .append(keyStats.getMeanNanos()).append(',')
+                   .append(keyStats.getMaxNanos());
+                for (long count : keyStats.getBucketCounts()) {
+                    row.append(',').append(count);
+                }
+                writer.write(row.toString());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Quotes a CSV value if it contains separators or quotes.
+     *
+     * @param value The value
+     * @return The CSV field
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Gets the index of the latency bucket a duration falls into.
+     *
+     * @param nanos The duration in nanoseconds
+     * @return The bucket index
+     */
+    private static int bucketOf(long nanos) {
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.length && nanos > BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    /**
+     * The counters and latency histogram of one placeholder key.
+     */
+    public static final class Stats {
+        private final String key;
+        private volatile String source;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+        private final LongAdder[] buckets = new LongAdder[BUCKET_LABELS.length];
+
+        /**
+         * Constructs new Stats.
+         *
+         * @param key The placeholder key
+         */
+        private Stats(String key) {
+            this.key = key;
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Records that the placeholder was requested, whether or not its value had to be computed.
+         */
+        public void recordRequest() {
+            requests.increment();
+        }
+
+        /**
+         * Records that the placeholder value was computed.
+         *
+         * @param nanos How long computing the value took, in nanoseconds
+         * @param failed Whether computing the value failed
+         */
+        public void recordInvocation(long nanos, boolean failed) {
+            invocations.increment();
+            if (failed) {
+                errors.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            buckets[bucketOf(nanos)].increment();
+        }
+
+        /**
+         * Resets all counters.
+         */
+        private void reset() {
+            requests.reset();
+            invocations.reset();
+            errors.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+        }
+
+        /**
+         * Gets the placeholder key.
+         *
+         * @return The key
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Gets the source of the placeholder, such as "built-in", "PlaceholderAPI" or the registering plugin.
+         *
+         * @return The source
+         */
+        public String getSource() {
+            return source;
+        }
+
+        /**
+         * Gets how often the placeholder was requested, including requests served from the cache.
+         * Placeholders that are not cached are not counted separately from their invocations.
+         *
+         * @return The number of requests
+         */
+        public long getRequests() {
+            return Math.max(requests.sum(), getInvocations());
+        }
+
+        /**
+         * Gets how often the placeholder value was computed.
+         *
+         * @return The number of invocations
+         */
+        public long getInvocations() {
+            return invocations.sum();
+        }
+
+        /**
+         * Gets how often computing the placeholder value failed.
+         *
+         * @return The number of errors
+         */
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        /**
+         * Gets the total time spent computing the placeholder value.
+         *
+         * @return The total time in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        /**
+         * Gets the mean time spent computing the placeholder value.
+         *
+         * @return The mean time in nanoseconds, or 0 if the value was never computed
+         */
+        public long getMeanNanos() {
+            long count = getInvocations();
+            return count > 0 ? getTotalNanos() / count : 0L;
+        }
+
+        /**
+         * Gets the longest time spent computing the placeholder value.
+         *
+         * @return The longest time in nanoseconds
+         */
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        /**
+         * Gets the number of invocations in each latency bucket.
+         *
+         * @return The counts, from the fastest bucket to the slowest
+         */
+        public long[] getBucketCounts() {
+            long[] counts = new long[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return counts;
+        }
+
+        /**
+         * Gets the upper bound of the latency bucket that contains a percentile of the invocations.
+         *
+         * @param percentile The percentile, between 0 and 1
+         * @return The label of the bucket's upper bound, such as "64us"
+         */
+        public String getPercentileBucket(double percentile) {
+            long[] counts = getBucketCounts();
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            long threshold = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= threshold && seen > 0) {
+                    return BUCKET_LABELS[i];
+                }
+            }
+            return BUCKET_LABELS[0];
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.maks.broadcastplugin.placeholders;
+
+import org.bukkit.entity.Player;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Provides the value of a placeholder and declares how volatile that value is.
+ * The volatility decides when the value is computed: once when a text is compiled, once per broadcast,
+ * once per recipient, or on every use.
+ */
+public interface PlaceholderProvider {
+    /**
+     * Gets the volatility of the values this provider returns.
+     *
+     * @return The volatility
+     */
+    Volatility getVolatility();
+
+    /**
+     * Computes the value of the placeholder.
+     *
+     * @param player The recipient for player-specific placeholders, or null for server-wide placeholders
+     * @return The value, or null if it cannot be computed
+     */
+    String resolve(Player player);
+
+    /**
+     * Checks if this provider can be called off the main thread.
+     * Providers that are not thread-safe are always called on the main thread, and their values are
+     * captured before a broadcast is handed to the render workers.
+     *
+     * @return true if the provider is thread-safe, false otherwise
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
+    /**
+     * Creates a provider from a function.
+     *
+     * @param volatility The volatility of the values
+     * @param resolver The function that computes the value for a recipient (the recipient can be null)
+     * @return The provider
+     */
+    static PlaceholderProvider of(Volatility volatility, Function<Player, String> resolver) {
+        return of(volatility, false, resolver);
+    }
+
+    /**
+     * Creates a provider from a function, declaring whether it is thread-safe.
+     *
+     * @param volatility The volatility of the values
+     * @param threadSafe Whether the function can be called off the main thread
+     * @param resolver The function that computes the value for a recipient (the recipient can be null)
+     * @return The provider
+     */
+    static PlaceholderProvider of(Volatility volatility, boolean threadSafe, Function<Player, String> resolver) {
+        return new PlaceholderProvider() {
+            @Override
+            public Volatility getVolatility() {
+                return volatility;
+            }
+
+            @Override
+            public String resolve(Player player) {
+                return resolver.apply(player);
+            }
+
+            @Override
+            public boolean isThreadSafe() {
+                return threadSafe;
+            }
+        };
+    }
+
+    /**
+     * Creates a provider for a server-wide placeholder.
+     *
+     * @param volatility The volatility of the values
+     * @param supplier The supplier that computes the value
+     * @return The provider
+     */
+    static PlaceholderProvider server(Volatility volatility, Supplier<String> supplier) {
+        return of(volatility, player -> supplier.get());
+    }
+
+    /**
+     * Creates a provider for a player-specific placeholder.
+     * The provider returns null when there is no recipient.
+     *
+     * @param resolver The function that computes the value for a recipient
+     * @return The provider
+     */
+    static PlaceholderProvider player(Function<Player, String> resolver) {
+        return of(Volatility.PER_PLAYER, player -> player != null ? resolver.apply(player) : null);
+    }
+}
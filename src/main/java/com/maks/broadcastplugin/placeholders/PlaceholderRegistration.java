@@ -0,0 +1,203 @@
+package com.maks.broadcastplugin.placeholders;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Describes a placeholder that another plugin adds through the PlaceholderService.
+ * This class provides a builder pattern for creating registrations.
+ *
+ * A registration declares how the engine may call its resolver:
+ * - Player-scoped placeholders are resolved once per recipient, server-wide placeholders once per broadcast
+ * - Thread-safe resolvers may be called by the render workers, others are always called on the main thread
+ * - A cache TTL lets the engine reuse values between broadcasts (per player for player-scoped placeholders)
+ */
+public class PlaceholderRegistration {
+    private String name;
+    private Plugin owner;
+    private Function<Player, String> resolver;
+    private boolean playerScoped = false;
+    private boolean threadSafe = false;
+    private long cacheTtlMillis = 0L;
+
+    /**
+     * Private constructor to enforce the use of the builder.
+     */
+    private PlaceholderRegistration() {
+    }
+
+    /**
+     * Creates a new builder for a placeholder registration.
+     *
+     * @return A new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the placeholder name (without braces).
+     *
+     * @return The placeholder name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the plugin that registered the placeholder.
+     *
+     * @return The owning plugin
+     */
+    public Plugin getOwner() {
+        return owner;
+    }
+
+    /**
+     * Gets the function that computes the placeholder value.
+     * For server-wide placeholders the function is called with a null player.
+     *
+     * @return The resolver
+     */
+    public Function<Player, String> getResolver() {
+        return resolver;
+    }
+
+    /**
+     * Checks if the placeholder has a different value for each player.
+     *
+     * @return true if the placeholder is player-scoped, false if it is server-wide
+     */
+    public boolean isPlayerScoped() {
+        return playerScoped;
+    }
+
+    /**
+     * Checks if the resolver can be called off the main thread.
+     *
+     * @return true if the resolver is thread-safe, false otherwise
+     */
+    public boolean isThreadSafe() {
+        return threadSafe;
+    }
+
+    /**
+     * Gets how long a computed value may be reused.
+     *
+     * @return The time to live in milliseconds, or 0 if values are not reused between broadcasts
+     */
+    public long getCacheTtlMillis() {
+        return cacheTtlMillis;
+    }
+
+    /**
+     * Builder class for creating PlaceholderRegistration instances.
+     */
+    public static class Builder {
+        private final PlaceholderRegistration registration;
+
+        /**
+         * Constructs a new Builder.
+         */
+        public Builder() {
+            registration = new PlaceholderRegistration();
+        }
+
+        /**
+         * Sets the placeholder name (without braces).
+         *
+         * @param name The placeholder name
+         * @return This builder
+         */
+        public Builder withName(String name) {
+            registration.name = name;
+            return this;
+        }
+
+        /**
+         * Sets the plugin that registers the placeholder.
+         *
+         * @param owner The owning plugin
+         * @return This builder
+         */
+        public Builder withOwner(Plugin owner) {
+            registration.owner = owner;
+            return this;
+        }
+
+        /**
+         * Sets the function that computes the value of a server-wide placeholder.
+         *
+         * @param resolver The function that computes the value
+         * @return This builder
+         */
+        public Builder withServerResolver(Supplier<String> resolver) {
+            registration.resolver = player -> resolver.get();
+            registration.playerScoped = false;
+            return this;
+        }
+
+        /**
+         * Sets the function that computes the value of a player-scoped placeholder.
+         * The function is only called with a non-null player.
+         *
+         * @param resolver The function that computes the value for a player
+         * @return This builder
+         */
+        public Builder withPlayerResolver(Function<Player, String> resolver) {
+            registration.resolver = resolver;
+            registration.playerScoped = true;
+            return this;
+        }
+
+        /**
+         * Sets whether the resolver can be called off the main thread.
+         *
+         * @param threadSafe Whether the resolver is thread-safe
+         * @return This builder
+         */
+        public Builder withThreadSafe(boolean threadSafe) {
+            registration.threadSafe = threadSafe;
+            return this;
+        }
+
+        /**
+         * Sets how long a computed value may be reused.
+         *
+         * @param cacheTtlMillis The time to live in milliseconds (0 to compute the value for every broadcast)
+         * @return This builder
+         */
+        public Builder withCacheTtlMillis(long cacheTtlMillis) {
+            registration.cacheTtlMillis = cacheTtlMillis;
+            return this;
+        }
+
+        /**
+         * Builds the PlaceholderRegistration.
+         *
+         * @return The built registration
+         * @throws IllegalStateException If the name, owner or resolver is missing
+         */
+        public PlaceholderRegistration build() {
+            if (registration.name == null || registration.name.isEmpty()) {
+                throw new IllegalStateException("Placeholder name is required");
+            }
+            if (registration.name.indexOf('{') >= 0 || registration.name.indexOf('}') >= 0) {
+                throw new IllegalStateException("Placeholder name must not contain braces: " + registration.name);
+            }
+            if (registration.owner == null) {
+                throw new IllegalStateException("Placeholder owner is required");
+            }
+            if (registration.resolver == null) {
+                throw new IllegalStateException("Placeholder resolver is required");
+            }
+            if (registration.cacheTtlMillis < 0) {
+                throw new IllegalStateException("Placeholder cache TTL must not be negative");
+            }
+            return registration;
+        }
+    }
+}
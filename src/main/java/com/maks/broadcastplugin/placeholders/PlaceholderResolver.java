@@ -0,0 +1,15 @@
+package com.maks.broadcastplugin.placeholders;
+
+/**
+ * Resolves the value of a single placeholder that was bound when a text was compiled.
+ */
+@FunctionalInterface
+public interface PlaceholderResolver {
+    /**
+     * Resolves the placeholder value.
+     *
+     * @param context The context the text is rendered in
+     * @return The value, or null if the placeholder cannot be resolved in this context
+     */
+    String resolve(PlaceholderContext context);
+}
@@ -0,0 +1,45 @@
+package com.maks.broadcastplugin.placeholders;
+
+/**
+ * Holds the per-tick placeholder values of a single broadcast.
+ * Each per-tick placeholder is computed the first time a recipient needs it and the value is
+ * reused for every other recipient of the same broadcast.
+ *
+ * Values are stored by the slot of their placeholder binding, so compiled texts read them by index.
+ */
+public class PlaceholderScope {
+    private final String[] values;
+    private final boolean[] computed;
+
+    /**
+     * Constructs a new PlaceholderScope.
+     *
+     * @param slotCount The number of placeholder slots assigned so far
+     */
+    public PlaceholderScope(int slotCount) {
+        this.values = new String[slotCount];
+        this.computed = new boolean[slotCount];
+    }
+
+    /**
+     * Gets the value of a per-tick placeholder, computing it on first use.
+     * Placeholders registered after the scope was created have no slot in it and are computed on every use.
+     *
+     * @param slot The slot of the placeholder
+     * @param provider The provider used to compute the value
+     * @return The value, or null if the provider could not compute it
+     */
+    public synchronized String get(int slot, PlaceholderProvider provider) {
+        if (slot >= values.length) {
+            return provider.resolve(null);
+        }
+        if (computed[slot]) {
+            return values[slot];
+        }
+
+        String value = provider.resolve(null);
+        values[slot] = value;
+        computed[slot] = true;
+        return value;
+    }
+}
@@ -0,0 +1,56 @@
+package com.maks.broadcastplugin.placeholders;
+
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Lets other plugins add their own placeholders to broadcast messages.
+ *
+ * The service is registered with Bukkit's ServicesManager while BroadcastPlugin is enabled:
+ *
+ *     PlaceholderService service = Bukkit.getServicesManager().load(PlaceholderService.class);
+ *     service.register(PlaceholderRegistration.builder()
+ *         .withName("dungeon_queue")
+ *         .withOwner(plugin)
+ *         .withServerResolver(() -> String.valueOf(queue.size()))
+ *         .withCacheTtlMillis(1000)
+ *         .build());
+ *
+ * Registered placeholders are compiled into messages like built-in ones, so they are resolved without
+ * scanning the message text on every broadcast. The service can be called from any thread.
+ */
+public interface PlaceholderService {
+
+    /**
+     * Registers a placeholder, replacing a placeholder with the same name registered by any plugin.
+     * Built-in placeholders cannot be replaced.
+     *
+     * @param registration The placeholder registration
+     * @return true if the placeholder was registered, false if the name belongs to a built-in placeholder
+     */
+    boolean register(PlaceholderRegistration registration);
+
+    /**
+     * Unregisters a placeholder added through this service.
+     *
+     * @param name The placeholder name (without braces)
+     * @return true if the placeholder was unregistered, false if no plugin registered it
+     */
+    boolean unregister(String name);
+
+    /**
+     * Unregisters all placeholders a plugin added through this service.
+     * Plugins should call this when they are disabled.
+     *
+     * @param owner The owning plugin
+     * @return The number of placeholders unregistered
+     */
+    int unregisterAll(Plugin owner);
+
+    /**
+     * Checks if a placeholder is known, either built-in or registered through this service.
+     *
+     * @param name The placeholder name (without braces)
+     * @return true if the placeholder is known, false otherwise
+     */
+    boolean isRegistered(String name);
+}
@@ -0,0 +1,46 @@
+package com.maks.broadcastplugin.placeholders;
+
+/**
+ * The player state that built-in player placeholders read.
+ * Each field is one bit of a mask, so a snapshot only captures the fields its message references.
+ */
+public enum PlayerField {
+    NAME("player", "player_name"),
+    DISPLAY_NAME("player_display_name"),
+    WORLD("player_world"),
+    HEALTH("player_health"),
+    LEVEL("player_level"),
+    EXP("player_exp"),
+    FOOD_LEVEL("player_food_level"),
+    GAME_MODE("player_gamemode"),
+    PING("player_ping");
+
+    private final String[] placeholders;
+
+    /**
+     * Constructs a new PlayerField.
+     *
+     * @param placeholders The names of the placeholders that read the field
+     */
+    PlayerField(String... placeholders) {
+        this.placeholders = placeholders;
+    }
+
+    /**
+     * Gets the bit of this field in a field mask.
+     *
+     * @return The mask bit
+     */
+    public int getMask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Gets the names of the placeholders that read this field.
+     *
+     * @return The placeholder names (without braces)
+     */
+    public String[] getPlaceholders() {
+        return placeholders.clone();
+    }
+}
@@ -0,0 +1,181 @@
+package com.maks.broadcastplugin.placeholders;
+
+import org.bukkit.entity.Player;
+
+/**
+ * An immutable snapshot of the player state a message needs for one recipient.
+ *
+ * Snapshots are captured on the main thread in one pass per recipient and only read the fields in their
+ * field mask, which holds the fields the message's placeholders reference. Fields are stored as raw values
+ * and only formatted when a placeholder is rendered, so formatting happens on whichever thread renders.
+ * Other player placeholders, and built-in ones with a cache TTL, are captured as their finished values,
+ * stored by the slot of their placeholder binding.
+ *
+ * A snapshot can be read on any thread and reused for every line of a message.
+ */
+public final class PlayerSnapshot {
+    private final Player player;
+    private final int fieldMask;
+    private final String name;
+    private final String displayName;
+    private final String world;
+    private final double health;
+    private final int level;
+    private final float exp;
+    private final int foodLevel;
+    private final String gameMode;
+    private final int ping;
+    private final String[] values;
+
+    /**
+     * Captures a snapshot of a player. This must be called on the main thread.
+     *
+     * @param player The player to capture
+     * @param fieldMask The fields to capture, as a combination of PlayerField masks
+     * @param capabilities The server capabilities used to read the ping (only needed if the ping is captured)
+     * @param values The captured values of other player placeholders, by binding slot (can be null)
+     */
+    public PlayerSnapshot(Player player, int fieldMask, ServerCapabilities capabilities, String[] values) {
+        this.player = player;
+        this.fieldMask = fieldMask;
+        this.name = has(PlayerField.NAME) ? player.getName() : null;
+        this.displayName = has(PlayerField.DISPLAY_NAME) ? player.getDisplayName() : null;
+        this.world = has(PlayerField.WORLD) ? player.getWorld().getName() : null;
+        this.health = has(PlayerField.HEALTH) ? player.getHealth() : 0;
+        this.level = has(PlayerField.LEVEL) ? player.getLevel() : 0;
+        this.exp = has(PlayerField.EXP) ? player.getExp() : 0;
+        this.foodLevel = has(PlayerField.FOOD_LEVEL) ? player.getFoodLevel() : 0;
+        this.gameMode = has(PlayerField.GAME_MODE) ? player.getGameMode().name() : null;
+        this.ping = has(PlayerField.PING) ? capabilities.getPing(player) : 0;
+        this.values = values;
+    }
+
+    /**
+     * Checks if a field was captured.
+     *
+     * @param field The field
+     * @return true if the field is in the field mask, false otherwise
+     */
+    public boolean has(PlayerField field) {
+        return (fieldMask & field.getMask()) != 0;
+    }
+
+    /**
+     * Gets the captured value of a player placeholder.
+     *
+     * @param slot The slot of the placeholder binding
+     * @return The value, or null if it was not captured
+     */
+    public String getValue(int slot) {
+        return values != null && slot < values.length ? values[slot] : null;
+    }
+
+    /**
+     * Formats a captured field the way its placeholders display it.
+     *
+     * @param field The field
+     * @return The formatted value, or null if the field was not captured
+     */
+    public String format(PlayerField field) {
+        if (!has(field)) {
+            return null;
+        }
+        switch (field) {
+            case NAME:
+                return name;
+            case DISPLAY_NAME:
+                return displayName;
+            case WORLD:
+                return world;
+            case HEALTH:
+                return formatHealth(health);
+            case LEVEL:
+                return String.valueOf(level);
+            case EXP:
+                return formatExp(exp);
+            case FOOD_LEVEL:
+                return String.valueOf(foodLevel);
+            case GAME_MODE:
+                return gameMode;
+            case PING:
+                return formatPing(ping);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Reads a single field from a live player and formats it like a captured one, without capturing a snapshot.
+     * This must be called on the main thread.
+     *
+     * @param player The player
+     * @param field The field
+     * @param capabilities The server capabilities used to read the ping (only needed for the ping)
+     * @return The formatted value
+     */
+    public static String formatLive(Player player, PlayerField field, ServerCapabilities capabilities) {
+        switch (field) {
+            case NAME:
+                return player.getName();
+            case DISPLAY_NAME:
+                return player.getDisplayName();
+            case WORLD:
+                return player.getWorld().getName();
+            case HEALTH:
+                return formatHealth(player.getHealth());
+            case LEVEL:
+                return String.valueOf(player.getLevel());
+            case EXP:
+                return formatExp(player.getExp());
+            case FOOD_LEVEL:
+                return String.valueOf(player.getFoodLevel());
+            case GAME_MODE:
+                return player.getGameMode().name();
+            case PING:
+                return formatPing(capabilities.getPing(player));
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Formats a health value with one decimal.
+     *
+     * @param health The health
+     * @return The formatted health
+     */
+    private static String formatHealth(double health) {
+        return String.format("%.1f", health);
+    }
+
+    /**
+     * Formats the progress to the next level with two decimals.
+     *
+     * @param exp The progress, between 0 and 1
+     * @return The formatted progress
+     */
+    private static String formatExp(float exp) {
+        return String.format("%.2f", exp);
+    }
+
+    /**
+     * Formats a ping, showing unknown (negative) pings as 0.
+     *
+     * @param ping The ping in milliseconds
+     * @return The formatted ping
+     */
+    private static String formatPing(int ping) {
+        return String.valueOf(Math.max(ping, 0));
+    }
+
+    /**
+     * Gets the player the snapshot was captured from.
+     * The player must only be used on the main thread, for example to send the rendered message,
+     * or passed to thread-safe placeholder providers.
+     *
+     * @return The player
+     */
+    public Player getPlayer() {
+        return player;
+    }
+}
@@ -0,0 +1,205 @@
+package com.maks.broadcastplugin.placeholders;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * The server features that placeholders read through version-specific APIs.
+ *
+ * The server is probed once at startup. Each feature prefers the Paper or Bukkit API and only falls back
+ * to server internals when that API is missing. Whatever path is chosen is bound into a MethodHandle, so
+ * reading a value never performs a reflective lookup. The chosen paths are recorded for debug output.
+ */
+public class ServerCapabilities {
+    private static final String UNAVAILABLE = "unavailable";
+
+    private final MethodHandle tpsHandle;
+    private final String tpsSource;
+    private final MethodHandle pingHandle;
+    private final String pingSource;
+    private final MethodHandle placeholderApiHandle;
+    private final String placeholderApiSource;
+
+    /**
+     * Constructs a new ServerCapabilities.
+     *
+     * @param tpsHandle The handle returning the recent TPS values (can be null)
+     * @param tpsSource The description of the TPS path
+     * @param pingHandle The handle returning the ping of a player (can be null)
+     * @param pingSource The description of the ping path
+     * @param placeholderApiHandle The handle replacing PlaceholderAPI placeholders (can be null)
+     * @param placeholderApiSource The description of the PlaceholderAPI path
+     */
+    private ServerCapabilities(MethodHandle tpsHandle, String tpsSource,
+                               MethodHandle pingHandle, String pingSource,
+                               MethodHandle placeholderApiHandle, String placeholderApiSource) {
+        this.tpsHandle = tpsHandle;
+        this.tpsSource = tpsSource;
+        this.pingHandle = pingHandle;
+        this.pingSource = pingSource;
+        this.placeholderApiHandle = placeholderApiHandle;
+        this.placeholderApiSource = placeholderApiSource;
+    }
+
+    /**
+     * Probes the running server. This must be called on the main thread after the server has started loading plugins.
+     *
+     * @return The capabilities of the running server
+     */
+    public static ServerCapabilities probe() {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+        // TPS: Paper exposes it directly, otherwise read the internal server's recent TPS
+        MethodHandle tpsHandle = null;
+        String tpsSource = UNAVAILABLE;
+        Server server = Bukkit.getServer();
+        try {
+            tpsHandle = lookup.findVirtual(Server.class, "getTPS", MethodType.methodType(double[].class)).bindTo(server);
+            tpsSource = "Server#getTPS";
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            try {
+                Object minecraftServer = server.getClass().getMethod("getServer").invoke(server);
+                Field recentTps = minecraftServer.getClass().getField("recentTps");
+                tpsHandle = lookup.unreflectGetter(recentTps).bindTo(minecraftServer);
+                tpsSource = "MinecraftServer.recentTps";
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                // No TPS source on this server
+            }
+        }
+
+        // Ping: Bukkit exposes it since 1.17, otherwise read the ping field of the player's handle
+        MethodHandle pingHandle = null;
+        String pingSource = UNAVAILABLE;
+        try {
+            pingHandle = lookup.findVirtual(Player.class, "getPing", MethodType.methodType(int.class));
+            pingSource = "Player#getPing";
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            try {
+                String craftPackage = server.getClass().getPackage().getName();
+                Class<?> craftPlayer = Class.forName(craftPackage + ".entity.CraftPlayer");
+                Method getHandle = craftPlayer.getMethod("getHandle");
+                Field ping = getHandle.getReturnType().getField("ping");
+                pingHandle = MethodHandles.filterReturnValue(lookup.unreflect(getHandle), lookup.unreflectGetter(ping))
+                    .asType(MethodType.methodType(int.class, Player.class));
+                pingSource = "EntityPlayer.ping";
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                // No ping source on this server
+            }
+        }
+
+        // PlaceholderAPI: bind its static entry point once if the plugin is installed
+        MethodHandle placeholderApiHandle = null;
+        String placeholderApiSource = UNAVAILABLE;
+        if (Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null) {
+            try {
+                Class<?> papiClass = Class.forName("me.clip.placeholderapi.PlaceholderAPI");
+                placeholderApiHandle = lookup.findStatic(papiClass, "setPlaceholders",
+                    MethodType.methodType(String.class, Player.class, String.class));
+                placeholderApiSource = "PlaceholderAPI#setPlaceholders";
+            } catch (ReflectiveOperationException | RuntimeException | LinkageError ignored) {
+                // PlaceholderAPI is installed but its API could not be bound
+            }
+        }
+
+        return new ServerCapabilities(tpsHandle, tpsSource, pingHandle, pingSource,
+                                      placeholderApiHandle, placeholderApiSource);
+    }
+
+    /**
+     * Gets the server TPS averaged over the last minute.
+     *
+     * @return The TPS, or -1 if the server does not expose it
+     */
+    public double getTps() {
+        if (tpsHandle == null) {
+            return -1;
+        }
+        try {
+            double[] tps = (double[]) tpsHandle.invokeExact();
+            return tps != null && tps.length > 0 ? tps[0] : -1;
+        } catch (Throwable t) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the ping of a player.
+     *
+     * @param player The player to read the ping from
+     * @return The ping in milliseconds, or -1 if the server does not expose it
+     */
+    public int getPing(Player player) {
+        if (pingHandle == null) {
+            return -1;
+        }
+        try {
+            return (int) pingHandle.invokeExact(player);
+        } catch (Throwable t) {
+            return -1;
+        }
+    }
+
+    /**
+     * Checks if PlaceholderAPI placeholders can be replaced.
+     *
+     * @return true if PlaceholderAPI is installed and bound, false otherwise
+     */
+    public boolean hasPlaceholderApi() {
+        return placeholderApiHandle != null;
+    }
+
+    /**
+     * Replaces PlaceholderAPI placeholders in a text for a player.
+     *
+     * @param player The player to replace the placeholders for
+     * @param text The text to process
+     * @return The text with PlaceholderAPI placeholders replaced, or the original text if PlaceholderAPI is not available
+     * @throws Exception If PlaceholderAPI fails to process the text
+     */
+    public String setPlaceholders(Player player, String text) throws Exception {
+        if (placeholderApiHandle == null) {
+            return text;
+        }
+        try {
+            return (String) placeholderApiHandle.invokeExact(player, text);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+    }
+
+    /**
+     * Gets the description of the path used to read the TPS.
+     *
+     * @return The TPS path
+     */
+    public String getTpsSource() {
+        return tpsSource;
+    }
+
+    /**
+     * Gets the description of the path used to read player pings.
+     *
+     * @return The ping path
+     */
+    public String getPingSource() {
+        return pingSource;
+    }
+
+    /**
+     * Gets the description of the path used to call PlaceholderAPI.
+     *
+     * @return The PlaceholderAPI path
+     */
+    public String getPlaceholderApiSource() {
+        return placeholderApiSource;
+    }
+}
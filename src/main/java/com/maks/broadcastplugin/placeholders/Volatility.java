@@ -0,0 +1,39 @@
+package com.maks.broadcastplugin.placeholders;
+
+/**
+ * Describes how often the value of a placeholder can change.
+ * The constants are ordered from the most to the least stable, so a text is as volatile
+ * as its most volatile placeholder.
+ */
+public enum Volatility {
+    /**
+     * The value never changes while the plugin is running, so it is folded into the text when it is compiled.
+     */
+    STATIC,
+
+    /**
+     * The value depends on server state only, so it is computed once per broadcast and shared by all recipients.
+     */
+    PER_TICK,
+
+    /**
+     * The value depends on the recipient, so it is computed once per recipient.
+     */
+    PER_PLAYER,
+
+    /**
+     * The value must be computed every time it is used.
+     */
+    PER_CALL;
+
+    /**
+     * Gets the more volatile of two volatilities.
+     *
+     * @param a The first volatility
+     * @param b The second volatility
+     * @return The more volatile of the two
+     */
+    public static Volatility max(Volatility a, Volatility b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+}
@@ -0,0 +1,45 @@
+package com.maks.broadcastplugin.rendering;
+
+import net.kyori.adventure.text.Component;
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+/**
+ * Chat transport that sends Adventure components on Paper.
+ *
+ * Sending BungeeCord components on Paper serializes them to JSON and parses that again on every send.
+ * This transport converts the compiled components into Adventure components directly, once for cached
+ * payloads and once per render for player-specific ones, and sends those to the player as an Audience.
+ * This class references Adventure directly and must only be loaded after ChatTransport.detect() found it.
+ */
+public class AdventureChatTransport implements ChatTransport {
+
+    @Override
+    public Object prepare(BaseComponent packet, String json) {
+        return AdventureComponentConverter.convert(packet, json);
+    }
+
+    @Override
+    public Object convert(BaseComponent packet) {
+        return AdventureComponentConverter.convert(packet);
+    }
+
+    @Override
+    public void send(Player player, Object prepared) {
+        player.sendMessage((Component) prepared);
+    }
+
+    @Override
+    public void broadcast(Object prepared) {
+        Component component = (Component) prepared;
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            player.sendMessage(component);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "Adventure";
+    }
+}
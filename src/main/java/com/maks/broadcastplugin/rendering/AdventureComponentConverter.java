@@ -0,0 +1,204 @@
+package com.maks.broadcastplugin.rendering;
+
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import net.md_5.bungee.api.ChatColor;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.api.chat.hover.content.Content;
+import net.md_5.bungee.api.chat.hover.content.Text;
+import net.md_5.bungee.chat.ComponentSerializer;
+
+import java.util.List;
+
+/**
+ * Converts the compiled BungeeCord component trees straight into Adventure components.
+ *
+ * Messages are compiled and compacted as BungeeCord components, which every server understands. On Paper they
+ * are converted into Adventure components by walking the tree and copying the text, colors, decorations and
+ * events field by field, without serializing to JSON and parsing it back. The compacted trees are flat, so
+ * this is a single pass over a handful of components.
+ *
+ * Only text components with text hover events are produced by the compiler. Anything else, such as translatable
+ * components or item hovers, is converted through JSON instead, which handles every component type.
+ *
+ * This class references Adventure directly and must only be loaded after ChatTransport.detect() found it.
+ */
+public final class AdventureComponentConverter {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private AdventureComponentConverter() {
+    }
+
+    /**
+     * Converts a BungeeCord component tree into an Adventure component.
+     *
+     * @param component The component to convert
+     * @return The equivalent Adventure component
+     */
+    public static Component convert(BaseComponent component) {
+        Component converted = convertTree(component);
+        if (converted != null) {
+            return converted;
+        }
+        return GsonComponentSerializer.gson().deserialize(ComponentSerializer.toString(component));
+    }
+
+    /**
+     * Converts a BungeeCord component tree into an Adventure component, reusing its JSON if it must fall back to it.
+     *
+     * @param component The component to convert
+     * @param json The component serialized with ComponentSerializer
+     * @return The equivalent Adventure component
+     */
+    public static Component convert(BaseComponent component, String json) {
+        Component converted = convertTree(component);
+        return converted != null ? converted : GsonComponentSerializer.gson().deserialize(json);
+    }
+
+    /**
+     * Converts a component and its children field by field.
+     *
+     * @param component The component to convert
+     * @return The converted component, or null if the tree contains something that has to be converted through JSON
+     */
+    private static Component convertTree(BaseComponent component) {
+        if (!(component instanceof TextComponent)) {
+            return null;
+        }
+
+        net.kyori.adventure.text.TextComponent.Builder builder = Component.text()
+            .content(((TextComponent) component).getText());
+
+        // Only fields the component sets are copied, the rest is inherited from the parent as in BungeeCord
+        ChatColor color = component.getColorRaw();
+        if (color != null) {
+            TextColor textColor = convertColor(color);
+            if (textColor == null) {
+                return null;
+            }
+            builder.color(textColor);
+        }
+        decorate(builder, TextDecoration.BOLD, component.isBoldRaw());
+        decorate(builder, TextDecoration.ITALIC, component.isItalicRaw());
+        decorate(builder, TextDecoration.UNDERLINED, component.isUnderlinedRaw());
+        decorate(builder, TextDecoration.STRIKETHROUGH, component.isStrikethroughRaw());
+        decorate(builder, TextDecoration.OBFUSCATED, component.isObfuscatedRaw());
+        String font = component.getFontRaw();
+        if (font != null) {
+            builder.font(Key.key(font));
+        }
+        if (component.getInsertion() != null) {
+            builder.insertion(component.getInsertion());
+        }
+
+        if (component.getClickEvent() != null) {
+            net.md_5.bungee.api.chat.ClickEvent clickEvent = component.getClickEvent();
+            builder.clickEvent(ClickEvent.clickEvent(ClickEvent.Action.valueOf(clickEvent.getAction().name()),
+                                                     clickEvent.getValue()));
+        }
+
+        if (component.getHoverEvent() != null) {
+            Component hoverText = convertHoverText(component.getHoverEvent());
+            if (hoverText == null) {
+                return null;
+            }
+            builder.hoverEvent(HoverEvent.showText(hoverText));
+        }
+
+        List<BaseComponent> extra = component.getExtra();
+        if (extra != null) {
+            for (BaseComponent child : extra) {
+                Component convertedChild = convertTree(child);
+                if (convertedChild == null) {
+                    return null;
+                }
+                builder.append(convertedChild);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Converts a BungeeCord color into an Adventure color.
+     * Named colors stay named, so they are sent by name like the BungeeCord path does.
+     *
+     * @param color The BungeeCord color
+     * @return The Adventure color, or null if the color is a format code
+     */
+    private static TextColor convertColor(ChatColor color) {
+        String name = color.getName();
+        if (name.startsWith("#")) {
+            return TextColor.color(Integer.parseInt(name.substring(1), 16));
+        }
+        return NamedTextColor.NAMES.value(name);
+    }
+
+    /**
+     * Sets a decoration if the BungeeCord component sets it.
+     *
+     * @param builder The Adventure component builder
+     * @param decoration The decoration
+     * @param value The raw value of the decoration in the BungeeCord component (null if not set)
+     */
+    private static void decorate(net.kyori.adventure.text.TextComponent.Builder builder, TextDecoration decoration,
+                                 Boolean value) {
+        if (value != null) {
+            builder.decoration(decoration, TextDecoration.State.byBoolean(value));
+        }
+    }
+
+    /**
+     * Converts the text of a text hover event.
+     * Several parts are sent as a JSON array, which Adventure reads as the first part with the others as children.
+     *
+     * @param hoverEvent The BungeeCord hover event
+     * @return The hover text, or null if the hover event does not show text
+     */
+    private static Component convertHoverText(net.md_5.bungee.api.chat.HoverEvent hoverEvent) {
+        if (hoverEvent.getAction() != net.md_5.bungee.api.chat.HoverEvent.Action.SHOW_TEXT) {
+            return null;
+        }
+
+        Component hoverText = null;
+        for (Content content : hoverEvent.getContents()) {
+            if (!(content instanceof Text)) {
+                return null;
+            }
+            Object value = ((Text) content).getValue();
+            if (value instanceof String) {
+                hoverText = appendHoverPart(hoverText, Component.text((String) value));
+            } else if (value instanceof BaseComponent[]) {
+                for (BaseComponent part : (BaseComponent[]) value) {
+                    Component convertedPart = convertTree(part);
+                    if (convertedPart == null) {
+                        return null;
+                    }
+                    hoverText = appendHoverPart(hoverText, convertedPart);
+                }
+            } else {
+                return null;
+            }
+        }
+        return hoverText != null ? hoverText : Component.empty();
+    }
+
+    /**
+     * Adds a part to the hover text converted so far.
+     *
+     * @param hoverText The hover text converted so far (null if this is the first part)
+     * @param part The converted part
+     * @return The hover text with the part added
+     */
+    private static Component appendHoverPart(Component hoverText, Component part) {
+        return hoverText == null ? part : hoverText.append(part);
+    }
+}
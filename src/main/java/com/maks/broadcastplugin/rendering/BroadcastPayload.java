@@ -0,0 +1,227 @@
+package com.maks.broadcastplugin.rendering;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.chat.ComponentSerializer;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+
+/**
+ * The chat packets that make up one broadcast: the separator, the message lines and the closing separator.
+ *
+ * In single-packet mode everything is merged into one component tree with the parts joined by new lines,
+ * so a message is serialized once and reaches each recipient as a single chat packet. Otherwise each part
+ * is kept as its own packet, matching the classic one-message-per-line output.
+ *
+ * Cached payloads are compacted when they are compiled, which flattens the component trees and drops
+ * redundant style fields before serialization (see ComponentCompactor).
+ * Cached payloads can be prepared for a ChatTransport, which stores the serialized JSON and the
+ * transport's wire form of every packet so that sends reuse them instead of converting again.
+ */
+public class BroadcastPayload {
+    private BaseComponent[] packets;
+
+    // Serialized sizes in UTF-8 bytes, only set once the payload has been compacted
+    private int originalSize;
+    private int compactedSize;
+
+    // Serialized forms, only set once the payload has been prepared
+    private ChatTransport transport;
+    private String[] json;
+    private Object[] prepared;
+
+    /**
+     * Constructs a new BroadcastPayload.
+     *
+     * @param packets The packets to send, in order
+     */
+    private BroadcastPayload(BaseComponent[] packets) {
+        this.packets = packets;
+    }
+
+    /**
+     * Builds the payload for a message.
+     *
+     * @param separator The separator line sent before and after the message
+     * @param lines The rendered lines of the message
+     * @param singlePacket Whether to merge everything into a single packet
+     * @return The payload
+     */
+    public static BroadcastPayload of(TextComponent separator, List<TextComponent> lines, boolean singlePacket) {
+        if (singlePacket) {
+            // Join separator, lines and separator with new lines into one component tree. The separator and
+            // lines are shared with other messages and threads, and adding a component as a child sets its
+            // parent, so copies are added instead
+            TextComponent newLine = new TextComponent("\n");
+            TextComponent packet = new TextComponent("");
+            packet.addExtra(separator.duplicate());
+            for (TextComponent line : lines) {
+                packet.addExtra(newLine);
+                packet.addExtra(line.duplicate());
+            }
+            packet.addExtra(newLine);
+            packet.addExtra(separator.duplicate());
+            return new BroadcastPayload(new BaseComponent[] { packet });
+        }
+
+        BaseComponent[] packets = new BaseComponent[lines.size() + 2];
+        packets[0] = separator;
+        for (int i = 0; i < lines.size(); i++) {
+            packets[i + 1] = lines.get(i);
+        }
+        packets[packets.length - 1] = separator;
+        return new BroadcastPayload(packets);
+    }
+
+    /**
+     * Compacts every packet of this payload.
+     * This is done once when a message is compiled, and must be called before the payload is prepared.
+     *
+     * @return This payload
+     */
+    public BroadcastPayload compact() {
+        BaseComponent[] compacted = new BaseComponent[packets.length];
+        int originalSize = 0;
+        int compactedSize = 0;
+        for (int i = 0; i < packets.length; i++) {
+            ComponentCompactor.Result result = ComponentCompactor.compactWithSizes(packets[i]);
+            compacted[i] = result.getComponent();
+            originalSize += result.getOriginalSize();
+            compactedSize += result.getCompactedSize();
+        }
+
+        this.packets = compacted;
+        this.originalSize = originalSize;
+        this.compactedSize = compactedSize;
+        return this;
+    }
+
+    /**
+     * Serializes every packet once and prepares it for the given transport.
+     * This should be done for cached payloads that are sent many times.
+     *
+     * @param transport The transport that will send this payload (null leaves the payload unprepared)
+     * @return This payload
+     */
+    public BroadcastPayload prepare(ChatTransport transport) {
+        if (transport == null) {
+            return this;
+        }
+
+        String[] json = new String[packets.length];
+        Object[] prepared = new Object[packets.length];
+        for (int i = 0; i < packets.length; i++) {
+            json[i] = ComponentSerializer.toString(packets[i]);
+            prepared[i] = transport.prepare(packets[i], json[i]);
+        }
+
+        this.json = json;
+        this.prepared = prepared;
+        this.transport = transport;
+        return this;
+    }
+
+    /**
+     * Converts every packet for the given transport without serializing it.
+     * This should be done for payloads rendered for a single send, such as player-specific renders,
+     * so the transport sends its own form of the packets instead of converting the components on send.
+     *
+     * @param transport The transport that will send this payload (null leaves the payload unconverted)
+     * @return This payload
+     */
+    public BroadcastPayload convert(ChatTransport transport) {
+        if (transport == null) {
+            return this;
+        }
+
+        Object[] prepared = new Object[packets.length];
+        for (int i = 0; i < packets.length; i++) {
+            prepared[i] = transport.convert(packets[i]);
+        }
+
+        this.prepared = prepared;
+        this.transport = transport;
+        return this;
+    }
+
+    /**
+     * Gets the packets of this payload.
+     * The packets are shared and must not be modified.
+     *
+     * @return The packets, in order
+     */
+    public BaseComponent[] getPackets() {
+        return packets;
+    }
+
+    /**
+     * Broadcasts this payload to all online players.
+     */
+    public void broadcast() {
+        if (transport != null) {
+            for (Object packet : prepared) {
+                transport.broadcast(packet);
+            }
+            return;
+        }
+
+        for (BaseComponent packet : packets) {
+            Bukkit.spigot().broadcast(packet);
+        }
+    }
+
+    /**
+     * Sends this payload to a single player.
+     *
+     * @param player The player to send the payload to
+     */
+    public void sendTo(Player player) {
+        if (transport != null) {
+            for (Object packet : prepared) {
+                transport.send(player, packet);
+            }
+            return;
+        }
+
+        for (BaseComponent packet : packets) {
+            player.spigot().sendMessage(packet);
+        }
+    }
+
+    /**
+     * Gets the total length of the serialized JSON of this payload.
+     *
+     * @return The number of JSON characters, or 0 if the payload has not been prepared
+     */
+    public int getSerializedLength() {
+        if (json == null) {
+            return 0;
+        }
+
+        int length = 0;
+        for (String packetJson : json) {
+            length += packetJson.length();
+        }
+        return length;
+    }
+
+    /**
+     * Gets the serialized size of this payload before it was compacted.
+     *
+     * @return The size in UTF-8 bytes, or 0 if the payload has not been compacted
+     */
+    public int getOriginalSize() {
+        return originalSize;
+    }
+
+    /**
+     * Gets the serialized size of this payload after it was compacted.
+     *
+     * @return The size in UTF-8 bytes, or 0 if the payload has not been compacted
+     */
+    public int getCompactedSize() {
+        return compactedSize;
+    }
+}
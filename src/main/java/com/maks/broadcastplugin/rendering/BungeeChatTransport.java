@@ -0,0 +1,37 @@
+package com.maks.broadcastplugin.rendering;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+/**
+ * Chat transport that sends BungeeCord components through the Spigot API.
+ * This works on every Spigot-based server and is the fallback when Adventure is not available.
+ */
+public class BungeeChatTransport implements ChatTransport {
+
+    @Override
+    public Object prepare(BaseComponent packet, String json) {
+        return packet;
+    }
+
+    @Override
+    public Object convert(BaseComponent packet) {
+        return packet;
+    }
+
+    @Override
+    public void send(Player player, Object prepared) {
+        player.spigot().sendMessage((BaseComponent) prepared);
+    }
+
+    @Override
+    public void broadcast(Object prepared) {
+        Bukkit.spigot().broadcast((BaseComponent) prepared);
+    }
+
+    @Override
+    public String getName() {
+        return "BungeeCord";
+    }
+}
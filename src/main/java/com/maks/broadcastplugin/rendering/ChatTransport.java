@@ -0,0 +1,76 @@
+package com.maks.broadcastplugin.rendering;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.bukkit.entity.Player;
+
+/**
+ * Sends prepared chat packets to players.
+ *
+ * A transport turns a component into the form the server can send with the least work per recipient.
+ * The prepared form is built once when messages are cached and reused for every send until the next reload.
+ */
+public interface ChatTransport {
+
+    /**
+     * Prepares a packet for sending.
+     *
+     * @param packet The packet component
+     * @param json The packet serialized with ComponentSerializer
+     * @return The prepared form of the packet, passed back to send and broadcast
+     */
+    Object prepare(BaseComponent packet, String json);
+
+    /**
+     * Converts a packet that is rendered for a single send, without serializing it first.
+     *
+     * @param packet The packet component
+     * @return The converted form of the packet, passed back to send
+     */
+    Object convert(BaseComponent packet);
+
+    /**
+     * Sends a prepared packet to a single player.
+     *
+     * @param player The player to send the packet to
+     * @param prepared The prepared packet
+     */
+    void send(Player player, Object prepared);
+
+    /**
+     * Sends a prepared packet to all online players.
+     *
+     * @param prepared The prepared packet
+     */
+    void broadcast(Object prepared);
+
+    /**
+     * Gets the name of this transport, used in debug output.
+     *
+     * @return The transport name
+     */
+    String getName();
+
+    /**
+     * Detects the best transport for the running server.
+     * Adventure is used when the server's players are Adventure audiences (Paper and forks),
+     * otherwise the BungeeCord chat API is used.
+     *
+     * @param preference The configured transport: "auto" to detect, "adventure" or "bungeecord" to prefer one
+     * @return The detected transport
+     */
+    static ChatTransport detect(String preference) {
+        if ("bungeecord".equalsIgnoreCase(preference)) {
+            return new BungeeChatTransport();
+        }
+        try {
+            Class.forName("net.kyori.adventure.text.serializer.gson.GsonComponentSerializer");
+            Class<?> audienceClass = Class.forName("net.kyori.adventure.audience.Audience");
+            if (audienceClass.isAssignableFrom(Player.class)) {
+                return new AdventureChatTransport();
+            }
+        } catch (ClassNotFoundException | LinkageError e) {
+            // Adventure is not available, fall back to BungeeCord components
+        }
+        return new BungeeChatTransport();
+    }
+}
@@ -0,0 +1,200 @@
+package com.maks.broadcastplugin.rendering;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * A bounded cache of compiled messages, used when messages are compiled lazily.
+ *
+ * Large catalogs are not compiled up front. A message is compiled the first time it is selected and kept
+ * in this cache, which evicts the least recently broadcast messages once their estimated memory use
+ * exceeds the configured cap. An evicted message is simply compiled again the next time it is selected.
+ *
+ * The memory use of a message is estimated from the length of its serialized payload, since the JSON
+ * strings and the component trees they were serialized from make up most of a compiled message.
+ *
+ * All methods must be called on the main thread.
+ */
+public class CompiledMessageCache {
+    // Estimated bytes per serialized JSON character: two for the string, the rest for the components and templates
+    private static final int BYTES_PER_JSON_CHAR = 8;
+
+    private final IntFunction<CompiledMessage> compiler;
+    private final long maxBytes;
+    private final LinkedHashMap<Integer, CompiledMessage> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes = 0;
+
+    // Statistics since the cache was last cleared
+    private int hits = 0;
+    private int misses = 0;
+    private int evictions = 0;
+
+    /**
+     * Constructs a new CompiledMessageCache.
+     *
+     * @param compiler The function that compiles the message with the given index
+     * @param maxBytes The estimated memory the cached messages may use, in bytes
+     */
+    public CompiledMessageCache(IntFunction<CompiledMessage> compiler, long maxBytes) {
+        this.compiler = compiler;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gets a compiled message, compiling it if it is not cached.
+     *
+     * @param index The index of the message
+     * @return The compiled message
+     */
+    public CompiledMessage get(int index) {
+        CompiledMessage message = entries.get(index);
+        if (message != null) {
+            hits++;
+            return message;
+        }
+        misses++;
+        return compile(index);
+    }
+
+    /**
+     * Compiles a message ahead of its selection if it is not cached yet.
+     * Pre-warming does not count as a hit or miss.
+     *
+     * @param index The index of the message
+     * @return true if the message was compiled, false if it was already cached
+     */
+    public boolean prewarm(int index) {
+        if (entries.containsKey(index)) {
+            return false;
+        }
+        compile(index);
+        return true;
+    }
+
+    /**
+     * Compiles a message, caches it and evicts the least recently used messages over the memory cap.
+     * The message just compiled is never evicted, so a single message larger than the cap is still served.
+     *
+     * @param index The index of the message
+     * @return The compiled message
+     */
+    private CompiledMessage compile(int index) {
+        CompiledMessage message = compiler.apply(index);
+        entries.put(index, message);
+        usedBytes += message.estimatedBytes;
+
+        Iterator<CompiledMessage> iterator = entries.values().iterator();
+        while (usedBytes > maxBytes && entries.size() > 1) {
+            CompiledMessage eldest = iterator.next();
+            iterator.remove();
+            usedBytes -= eldest.estimatedBytes;
+            evictions++;
+        }
+        return message;
+    }
+
+    /**
+     * Removes all compiled messages and resets the statistics.
+     */
+    public void clear() {
+        entries.clear();
+        usedBytes = 0;
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * Gets the number of cached messages.
+     *
+     * @return The number of cached messages
+     */
+    public int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the estimated memory used by the cached messages.
+     *
+     * @return The estimated memory in bytes
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Gets the memory cap of the cache.
+     *
+     * @return The memory cap in bytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Gets the number of selections served from the cache.
+     *
+     * @return The number of hits
+     */
+    public int getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of selections that had to compile their message.
+     *
+     * @return The number of misses
+     */
+    public int getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of messages evicted to stay under the memory cap.
+     *
+     * @return The number of evictions
+     */
+    public int getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * A message compiled into its template and its ready-to-send payload.
+     */
+    public static final class CompiledMessage {
+        private final MessageTemplate template;
+        private final BroadcastPayload payload;
+        private final long estimatedBytes;
+
+        /**
+         * Constructs a new CompiledMessage.
+         *
+         * @param template The compiled template with the dynamic placeholder slots of the message
+         * @param payload The prepared payload of the message
+         */
+        public CompiledMessage(MessageTemplate template, BroadcastPayload payload) {
+            this.template = template;
+            this.payload = payload;
+            this.estimatedBytes = (long) payload.getSerializedLength() * BYTES_PER_JSON_CHAR;
+        }
+
+        /**
+         * Gets the compiled template.
+         *
+         * @return The template
+         */
+        public MessageTemplate getTemplate() {
+            return template;
+        }
+
+        /**
+         * Gets the prepared payload.
+         *
+         * @return The payload
+         */
+        public BroadcastPayload getPayload() {
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package com.maks.broadcastplugin.rendering;
+
+import net.md_5.bungee.api.ChatColor;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.ClickEvent;
+import net.md_5.bungee.api.chat.HoverEvent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.chat.ComponentSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Rewrites a component tree into the smallest equivalent tree before it is serialized.
+ *
+ * Messages are built from nested containers, and legacy color codes stay inside their text, so the
+ * serialized JSON carries wrappers and style fields that the client does not need. Compacting:
+ * 1. Resolves the style every piece of text inherits from its parents
+ * 2. Converts legacy color and format codes into real style fields
+ * 3. Merges neighbouring pieces of text with the same style
+ * 4. Writes each piece as a flat child of one root, setting only the style fields that differ from the default
+ *
+ * Style fields are not always shorter than the legacy codes they replace, so the tree is also compacted
+ * with the legacy codes left in the text, and whichever result serializes smaller is used. A tree that
+ * is already smaller than both, such as a parent whose style its children share, is returned as it is. Legacy codes
+ * only apply within their own component, so text holding them is never merged with the text after it.
+ *
+ * The input tree is never modified, so shared and pooled components can be compacted safely.
+ */
+public final class ComponentCompactor {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ComponentCompactor() {
+    }
+
+    /**
+     * Compacts a component tree.
+     *
+     * @param component The component to compact
+     * @return A new, equivalent component with a flat structure and minimal style fields, or the component
+     *         itself if it already serializes smaller
+     */
+    public static BaseComponent compact(BaseComponent component) {
+        return compactWithSizes(component).getComponent();
+    }
+
+    /**
+     * Compacts a component tree and reports the serialized size before and after.
+     *
+     * @param component The component to compact
+     * @return The compacted component together with both sizes
+     */
+    public static Result compactWithSizes(BaseComponent component) {
+        BaseComponent converted = compact(component, true);
+        BaseComponent kept = compact(component, false);
+        int originalSize = serializedSize(component);
+        int convertedSize = serializedSize(converted);
+        int keptSize = serializedSize(kept);
+
+        BaseComponent smallest = component;
+        int smallestSize = originalSize;
+        if (keptSize <= smallestSize) {
+            smallest = kept;
+            smallestSize = keptSize;
+        }
+        if (convertedSize <= smallestSize) {
+            smallest = converted;
+            smallestSize = convertedSize;
+        }
+        return new Result(smallest, originalSize, smallestSize);
+    }
+
+    /**
+     * Gets the number of bytes a component takes when it is sent to the client.
+     *
+     * @param component The component
+     * @return The size of its JSON in UTF-8 bytes
+     */
+    private static int serializedSize(BaseComponent component) {
+        return ComponentSerializer.toString(component).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Compacts a component tree, either converting legacy codes into style fields or keeping them in the text.
+     *
+     * @param component The component to compact
+     * @param convertLegacy Whether to convert legacy codes into style fields
+     * @return A new, equivalent component
+     */
+    private static BaseComponent compact(BaseComponent component, boolean convertLegacy) {
+        List<Run> runs = new ArrayList<>();
+        collect(component, Style.DEFAULT, convertLegacy, runs);
+
+        if (runs.isEmpty()) {
+            return new TextComponent("");
+        }
+        if (runs.size() == 1) {
+            return runs.get(0).toComponent();
+        }
+
+        // Children inherit the root's style, so text can only be the root if it has the default style
+        Run first = runs.get(0);
+        TextComponent root = first.style.equals(Style.DEFAULT) && !first.legacyCodes
+            ? first.toComponent()
+            : new TextComponent("");
+        for (int i = root.getText().isEmpty() ? 0 : 1; i < runs.size(); i++) {
+            root.addExtra(runs.get(i).toComponent());
+        }
+        return root;
+    }
+
+    /**
+     * Collects the text of a component and its children as runs with their effective style.
+     *
+     * @param component The component
+     * @param parentStyle The style the component inherits from its parent
+     * @param convertLegacy Whether to convert legacy codes into style fields
+     * @param runs The list to add runs to
+     */
+    private static void collect(BaseComponent component, Style parentStyle, boolean convertLegacy, List<Run> runs) {
+        Style style = parentStyle.inherit(component);
+        if (component instanceof TextComponent) {
+            String text = ((TextComponent) component).getText();
+            if (convertLegacy) {
+                appendLegacyText(text, style, runs);
+            } else if (text != null) {
+                append(runs, text, style);
+            }
+        }
+
+        List<BaseComponent> extra = component.getExtra();
+        if (extra != null) {
+            for (BaseComponent child : extra) {
+                collect(child, style, convertLegacy, runs);
+            }
+        }
+    }
+
+    /**
+     * Splits a text at its legacy color and format codes and adds the pieces as runs.
+     * A color code clears the format codes before it and a reset code returns to the component's style,
+     * like the client does when it renders legacy text.
+     *
+     * @param text The text (can contain legacy codes)
+     * @param baseStyle The style of the component the text belongs to
+     * @param runs The list to add runs to
+     */
+    private static void appendLegacyText(String text, Style baseStyle, List<Run> runs) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+
+        Style style = baseStyle;
+        int length = text.length();
+        int runStart = 0;
+        int i = 0;
+        while (i < length - 1) {
+            if (text.charAt(i) != ChatColor.COLOR_CHAR) {
+                i++;
+                continue;
+            }
+
+            char code = Character.toLowerCase(text.charAt(i + 1));
+            int codeLength = 2;
+            ChatColor format;
+            if (code == 'x' && isHexColor(text, i)) {
+                // Hex color: the x code followed by six codes holding the digits
+                StringBuilder hex = new StringBuilder("#");
+                for (int j = i + 3; j < i + 14; j += 2) {
+                    hex.append(text.charAt(j));
+                }
+                format = ChatColor.of(hex.toString());
+                codeLength = 14;
+            } else {
+                format = ChatColor.getByChar(code);
+            }
+            if (format == null) {
+                // Not a code, keep the character as text
+                i++;
+                continue;
+            }
+
+            append(runs, text.substring(runStart, i), style);
+            if (format == ChatColor.RESET) {
+                style = baseStyle;
+            } else if (format == ChatColor.BOLD) {
+                style = style.withFlag(Style.BOLD);
+            } else if (format == ChatColor.ITALIC) {
+                style = style.withFlag(Style.ITALIC);
+            } else if (format == ChatColor.UNDERLINE) {
+                style = style.withFlag(Style.UNDERLINED);
+            } else if (format == ChatColor.STRIKETHROUGH) {
+                style = style.withFlag(Style.STRIKETHROUGH);
+            } else if (format == ChatColor.MAGIC) {
+                style = style.withFlag(Style.OBFUSCATED);
+            } else {
+                style = style.withColor(format);
+            }
+            i += codeLength;
+            runStart = i;
+        }
+        append(runs, text.substring(runStart), style);
+    }
+
+    /**
+     * Checks if a hex color code (the x code followed by six codes holding the digits) starts at a position.
+     *
+     * @param text The text
+     * @param index The position of the first color character
+     * @return true if a hex color code starts there, false otherwise
+     */
+    private static boolean isHexColor(String text, int index) {
+        if (index + 14 > text.length()) {
+            return false;
+        }
+        for (int j = index + 2; j < index + 14; j += 2) {
+            if (text.charAt(j) != ChatColor.COLOR_CHAR || Character.digit(text.charAt(j + 1), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds text to the runs, merging it into the last run if that has the same style
+     * and no legacy codes that would carry over to the merged text.
+     *
+     * @param runs The runs
+     * @param text The text to add
+     * @param style The style of the text
+     */
+    private static void append(List<Run> runs, String text, Style style) {
+        if (text.isEmpty()) {
+            return;
+        }
+        boolean legacyCodes = text.indexOf(ChatColor.COLOR_CHAR) >= 0;
+        if (!runs.isEmpty()) {
+            Run last = runs.get(runs.size() - 1);
+            if (last.style.equals(style) && !last.legacyCodes) {
+                last.text.append(text);
+                last.legacyCodes = legacyCodes;
+                return;
+            }
+        }
+        runs.add(new Run(text, style, legacyCodes));
+    }
+
+    /**
+     * A piece of text with the style it is displayed in.
+     */
+    private static final class Run {
+        private final StringBuilder text;
+        private final Style style;
+        private boolean legacyCodes;
+
+        private Run(String text, Style style, boolean legacyCodes) {
+            this.text = new StringBuilder(text);
+            this.style = style;
+            this.legacyCodes = legacyCodes;
+        }
+
+        /**
+         * Creates the component for this run, setting only the style fields that are not default.
+         *
+         * @return The component
+         */
+        private TextComponent toComponent() {
+            TextComponent component = new TextComponent(text.toString());
+            if (style.color != null) {
+                component.setColor(style.color);
+            }
+            if ((style.flags & Style.BOLD) != 0) {
+                component.setBold(true);
+            }
+            if ((style.flags & Style.ITALIC) != 0) {
+                component.setItalic(true);
+            }
+            if ((style.flags & Style.UNDERLINED) != 0) {
+                component.setUnderlined(true);
+            }
+            if ((style.flags & Style.STRIKETHROUGH) != 0) {
+                component.setStrikethrough(true);
+            }
+            if ((style.flags & Style.OBFUSCATED) != 0) {
+                component.setObfuscated(true);
+            }
+            if (style.font != null) {
+                component.setFont(style.font);
+            }
+            if (style.insertion != null) {
+                component.setInsertion(style.insertion);
+            }
+            if (style.hoverEvent != null) {
+                component.setHoverEvent(style.hoverEvent);
+            }
+            if (style.clickEvent != null) {
+                component.setClickEvent(style.clickEvent);
+            }
+            return component;
+        }
+    }
+
+    /**
+     * The effective style of a piece of text. Styles are immutable.
+     */
+    private static final class Style {
+        private static final int BOLD = 1;
+        private static final int ITALIC = 1 << 1;
+        private static final int UNDERLINED = 1 << 2;
+        private static final int STRIKETHROUGH = 1 << 3;
+        private static final int OBFUSCATED = 1 << 4;
+
+        private static final Style DEFAULT = new Style(null, 0, null, null, null, null);
+
+        private final ChatColor color;
+        private final int flags;
+        private final String font;
+        private final String insertion;
+        private final HoverEvent hoverEvent;
+        private final ClickEvent clickEvent;
+
+        private Style(ChatColor color, int flags, String font, String insertion,
+                      HoverEvent hoverEvent, ClickEvent clickEvent) {
+            this.color = color;
+            this.flags = flags;
+            this.font = font;
+            this.insertion = insertion;
+            this.hoverEvent = hoverEvent;
+            this.clickEvent = clickEvent;
+        }
+
+        /**
+         * Gets the style of a child component, which overrides the fields it sets and inherits the rest.
+         *
+         * @param component The child component
+         * @return The child's style
+         */
+        private Style inherit(BaseComponent component) {
+            int flags = this.flags;
+            flags = flag(flags, BOLD, component.isBoldRaw());
+            flags = flag(flags, ITALIC, component.isItalicRaw());
+            flags = flag(flags, UNDERLINED, component.isUnderlinedRaw());
+            flags = flag(flags, STRIKETHROUGH, component.isStrikethroughRaw());
+            flags = flag(flags, OBFUSCATED, component.isObfuscatedRaw());
+            return new Style(
+                component.getColorRaw() != null ? component.getColorRaw() : color,
+                flags,
+                component.getFontRaw() != null ? component.getFontRaw() : font,
+                component.getInsertion() != null ? component.getInsertion() : insertion,
+                component.getHoverEvent() != null ? component.getHoverEvent() : hoverEvent,
+                component.getClickEvent() != null ? component.getClickEvent() : clickEvent);
+        }
+
+        private static int flag(int flags, int flag, Boolean value) {
+            if (value == null) {
+                return flags;
+            }
+            return value ? flags | flag : flags & ~flag;
+        }
+
+        private Style withFlag(int flag) {
+            return new Style(color, flags | flag, font, insertion, hoverEvent, clickEvent);
+        }
+
+        /**
+         * Applies a legacy color code, which also clears the format flags.
+         *
+         * @param color The color
+         * @return The new style
+         */
+        private Style withColor(ChatColor color) {
+            return new Style(color, 0, font, insertion, hoverEvent, clickEvent);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Style)) {
+                return false;
+            }
+            Style other = (Style) o;
+            return flags == other.flags && Objects.equals(color, other.color) && Objects.equals(font, other.font)
+                && Objects.equals(insertion, other.insertion) && Objects.equals(hoverEvent, other.hoverEvent)
+                && Objects.equals(clickEvent, other.clickEvent);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(color, flags, font, insertion, hoverEvent, clickEvent);
+        }
+    }
+
+    /**
+     * A compacted component together with its serialized size before and after compaction.
+     */
+    public static final class Result {
+        private final BaseComponent component;
+        private final int originalSize;
+        private final int compactedSize;
+
+        private Result(BaseComponent component, int originalSize, int compactedSize) {
+            this.component = component;
+            this.originalSize = originalSize;
+            this.compactedSize = compactedSize;
+        }
+
+        /**
+         * Gets the compacted component.
+         *
+         * @return The compacted component, or the input component if it already serialized smaller
+         */
+        public BaseComponent getComponent() {
+            return component;
+        }
+
+        /**
+         * Gets the serialized size of the input component.
+         *
+         * @return The size in UTF-8 bytes
+         */
+        public int getOriginalSize() {
+            return originalSize;
+        }
+
+        /**
+         * Gets the serialized size of the compacted component.
+         *
+         * @return The size in UTF-8 bytes
+         */
+        public int getCompactedSize() {
+            return compactedSize;
+        }
+    }
+}
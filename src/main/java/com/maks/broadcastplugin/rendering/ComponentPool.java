@@ -0,0 +1,314 @@
+package com.maks.broadcastplugin.rendering;
+
+import com.maks.broadcastplugin.managers.PlaceholderManager;
+import com.maks.broadcastplugin.models.InteractiveMessage;
+import com.maks.broadcastplugin.utils.InteractiveMessageParser;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A plugin-wide, content-addressed cache of parsed line components and compiled line templates.
+ *
+ * Categories often repeat the same separators, footer lines and links. The pool parses each distinct
+ * line once and hands out the same component or template to every category that uses it, so identical
+ * lines are stored once no matter how many category files contain them. Lines are keyed by their trimmed
+ * text together with the flags that change how they are rendered, so the key is the line's content and
+ * not where it appears.
+ *
+ * The pool survives configuration reloads. Reloading rebuilds every category manager, but only lines whose
+ * content changed miss the pool and are parsed again; editing one message re-parses just the edited lines.
+ * The least recently used lines are evicted once the pool is full, so lines that were removed from the
+ * configuration do not stay forever. Every request for a line or separator counts as exactly one hit or
+ * miss, and every miss that needs a line's segments counts where they came from; all counters are per reload.
+ *
+ * The parsed segments of the pooled lines can be saved as a ParseBundle and loaded on the next start,
+ * so lines that are not pooled yet are taken from the bundle instead of being parsed.
+ *
+ * Pooled components and templates are shared and must not be modified by callers.
+ * All methods must be called on the main thread.
+ */
+public class ComponentPool {
+    // Maximum number of pooled lines before the least recently used ones are evicted
+    private static final int MAX_ENTRIES = 4096;
+
+    private final InteractiveMessageParser parser;
+    private final Map<String, PooledLine> entries = new LinkedHashMap<String, PooledLine>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PooledLine> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    // Parsed segments loaded from a parse bundle, by parse key
+    private Map<String, List<InteractiveMessage>> bundled = Collections.emptyMap();
+
+    // Statistics since the last reload
+    private int hits = 0;
+    private int misses = 0;
+    private int parsed = 0;
+    private int loaded = 0;
+
+    /**
+     * Constructs a new ComponentPool.
+     *
+     * @param plugin The plugin instance
+     */
+    public ComponentPool(JavaPlugin plugin) {
+        this.parser = new InteractiveMessageParser(plugin);
+    }
+
+    /**
+     * Gets the component for a trimmed, non-empty line, counting one hit or miss.
+     *
+     * @param normalized The trimmed line text
+     * @param enableClickableLinks Whether URLs in the line are clickable
+     * @return The shared component for the line
+     */
+    private TextComponent component(String normalized, boolean enableClickableLinks) {
+        String key = parseKey(normalized, enableClickableLinks);
+        PooledLine entry = entries.get(key);
+        if (entry != null) {
+            hits++;
+            return entry.component;
+        }
+        misses++;
+
+        // Create a container component holding all the parsed components of the line
+        List<InteractiveMessage> segments = segments(key, normalized, enableClickableLinks);
+        TextComponent component = new TextComponent("");
+        for (InteractiveMessage segment : segments) {
+            component.addExtra(InteractiveMessageParser.toComponent(segment));
+        }
+        entries.put(key, new PooledLine(component, null, segments, -1));
+        return component;
+    }
+
+    /**
+     * Gets the template for a message line.
+     * Lines without placeholders are wrapped around their pooled component. Lines with placeholders are
+     * compiled once per set of registered placeholders, so that only their dynamic slots are rendered at
+     * broadcast time.
+     *
+     * @param line The line text
+     * @param enableClickableLinks Whether URLs in the line are clickable
+     * @param placeholderManager The placeholder manager used to fold static placeholders (can be null)
+     * @return The template for the line, or null if the line is empty
+     */
+    public LineTemplate template(String line, boolean enableClickableLinks, PlaceholderManager placeholderManager) {
+        String normalized = line.trim();
+        if (normalized.isEmpty()) {
+            return null;
+        }
+
+        if (!PlaceholderManager.containsPlaceholders(normalized)) {
+            return LineTemplate.of(component(normalized, enableClickableLinks));
+        }
+
+        // Compiled templates bind the registered placeholders, so they are only reused for the same set
+        String key = (enableClickableLinks ? "T" : "t") + normalized;
+        long placeholderVersion = placeholderManager != null ? placeholderManager.getVersion() : -1;
+        PooledLine entry = entries.get(key);
+        if (entry != null && entry.placeholderVersion == placeholderVersion) {
+            hits++;
+            return entry.template;
+        }
+        misses++;
+
+        // A template compiled for other placeholders is recompiled from the segments it was parsed into
+        List<InteractiveMessage> segments = entry != null
+            ? entry.segments
+            : segments(parseKey(normalized, enableClickableLinks), normalized, enableClickableLinks);
+        LineTemplate template = LineTemplate.compile(segments, placeholderManager);
+        entries.put(key, new PooledLine(null, template, segments, placeholderVersion));
+        return template;
+    }
+
+    /**
+     * Gets the component for a separator line. Separators are plain text and are not parsed.
+     *
+     * @param separatorLine The separator text
+     * @return The shared component for the separator
+     */
+    public TextComponent separator(String separatorLine) {
+        String key = "S" + separatorLine;
+        PooledLine entry = entries.get(key);
+        if (entry != null) {
+            hits++;
+            return entry.component;
+        }
+        misses++;
+
+        TextComponent component = new TextComponent(separatorLine);
+        entries.put(key, new PooledLine(component, null, null, -1));
+        return component;
+    }
+
+    /**
+     * Gets the key a line's parsed segments are stored under, which depends on the flags that change parsing.
+     *
+     * @param normalized The trimmed line text
+     * @param enableClickableLinks Whether URLs in the line are clickable
+     * @return The parse key
+     */
+    private static String parseKey(String normalized, boolean enableClickableLinks) {
+        return (enableClickableLinks ? "L" : "l") + normalized;
+    }
+
+    /**
+     * Gets the parsed segments of a line, taking them from the loaded parse bundle if it has them.
+     *
+     * @param parseKey The parse key of the line
+     * @param normalized The trimmed line text
+     * @param enableClickableLinks Whether URLs in the line are clickable
+     * @return The segments of the line
+     */
+    private List<InteractiveMessage> segments(String parseKey, String normalized, boolean enableClickableLinks) {
+        List<InteractiveMessage> segments = bundled.get(parseKey);
+        if (segments != null) {
+            loaded++;
+            return segments;
+        }
+        parsed++;
+        return Collections.unmodifiableList(parser.parseSegments(normalized, enableClickableLinks));
+    }
+
+    /**
+     * Starts counting hits and misses for a new reload. Pooled lines are kept.
+     */
+    public void startReload() {
+        hits = 0;
+        misses = 0;
+        parsed = 0;
+        loaded = 0;
+    }
+
+    /**
+     * Uses the parsed segments of a parse bundle for lines that are not pooled yet.
+     *
+     * @param lines The parsed segments by parse key, as read by ParseBundle
+     */
+    public void loadBundle(Map<String, List<InteractiveMessage>> lines) {
+        bundled = lines;
+    }
+
+    /**
+     * Gets the parsed segments of every pooled line, to be saved as a parse bundle.
+     * Lines that are only used as separators are not parsed and are left out.
+     *
+     * @return The parsed segments by parse key
+     */
+    public Map<String, List<InteractiveMessage>> getParsedLines() {
+        Map<String, List<InteractiveMessage>> lines = new HashMap<>();
+        for (Map.Entry<String, PooledLine> entry : entries.entrySet()) {
+            if (entry.getValue().segments != null) {
+                // Lines and templates with the same text and flags are parsed the same way
+                String key = entry.getKey();
+                boolean clickable = key.charAt(0) == 'L' || key.charAt(0) == 'T';
+                lines.put(parseKey(key.substring(1), clickable), entry.getValue().segments);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Removes all pooled lines and resets the statistics.
+     * Components already handed out stay valid, they are just no longer shared with new requests.
+     */
+    public void clear() {
+        entries.clear();
+        bundled = Collections.emptyMap();
+        hits = 0;
+        misses = 0;
+        parsed = 0;
+        loaded = 0;
+    }
+
+    /**
+     * Gets the number of distinct lines in the pool.
+     *
+     * @return The number of pooled lines
+     */
+    public int getUniqueCount() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the number of lines and separators served from the pool since the last reload.
+     *
+     * @return The number of hits
+     */
+    public int getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lines and separators that were not pooled since the last reload, including templates
+     * that were pooled for other placeholders.
+     *
+     * @return The number of misses
+     */
+    public int getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of lines that were parsed since the last reload, because they were neither pooled
+     * nor in the loaded parse bundle.
+     *
+     * @return The number of parsed lines
+     */
+    public int getParsedCount() {
+        return parsed;
+    }
+
+    /**
+     * Gets the number of lines whose segments were taken from the loaded parse bundle since the last reload.
+     *
+     * @return The number of lines loaded from the bundle
+     */
+    public int getLoadedCount() {
+        return loaded;
+    }
+
+    /**
+     * Gets the share of lines served from the pool since the last reload.
+     *
+     * @return The hit ratio between 0 and 1
+     */
+    public double getHitRatio() {
+        int requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    /**
+     * A pooled line: either a parsed component or a compiled template.
+     */
+    private static final class PooledLine {
+        private final TextComponent component;
+        private final LineTemplate template;
+        private final List<InteractiveMessage> segments;
+        private final long placeholderVersion;
+
+        /**
+         * Constructs a new PooledLine.
+         *
+         * @param component The parsed component (null for templates)
+         * @param template The compiled template (null for components)
+         * @param segments The parsed segments of the line (null for separators)
+         * @param placeholderVersion The placeholder version the template was compiled for (-1 for components)
+         */
+        private PooledLine(TextComponent component, LineTemplate template, List<InteractiveMessage> segments,
+                           long placeholderVersion) {
+            this.component = component;
+            this.template = template;
+            this.segments = segments;
+            this.placeholderVersion = placeholderVersion;
+        }
+    }
+}
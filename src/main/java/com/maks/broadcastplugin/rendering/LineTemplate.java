@@ -0,0 +1,231 @@
+package com.maks.broadcastplugin.rendering;
+
+import com.maks.broadcastplugin.managers.PlaceholderManager;
+import com.maks.broadcastplugin.models.InteractiveMessage;
+import com.maks.broadcastplugin.placeholders.PlaceholderContext;
+import com.maks.broadcastplugin.placeholders.Volatility;
+import com.maks.broadcastplugin.utils.InteractiveMessageParser;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * A single message line compiled into static component segments and placeholder slots.
+ *
+ * The line is parsed once with the InteractiveMessageParser. Segments whose text, hover text
+ * or click value contain placeholders become slots; all other segments are converted to
+ * TextComponents up front and shared by every render. Rendering a line for a player only
+ * resolves the placeholders of the slots, so the interactive parsing is never repeated.
+ * Placeholder values are therefore plain text: URLs and interactive tags inside a value are not parsed,
+ * which also keeps player-controlled values from adding click or hover events.
+ *
+ * Segments whose placeholders are all static are resolved once at compile time and are not slots.
+ * The line's volatility is that of its most volatile slot, which tells callers whether the line
+ * can be rendered once per broadcast or has to be rendered for every recipient.
+ */
+public class LineTemplate {
+    private final InteractiveMessage[] segments;
+    private final BaseComponent[] components;
+    private final boolean[] slots;
+    private final int slotCount;
+    private final boolean placeholderApiTokens;
+    private final Volatility volatility;
+    private final Set<String> placeholderNames;
+
+    // Prebuilt line used when there are no slots to fill in
+    private final TextComponent staticLine;
+
+    /**
+     * Constructs a new LineTemplate.
+     *
+     * @param segments The parsed segments of the line
+     * @param placeholderManager The placeholder manager used to fold static placeholders (can be null)
+     */
+    private LineTemplate(List<InteractiveMessage> segments, PlaceholderManager placeholderManager) {
+        int size = segments.size();
+        this.segments = segments.toArray(new InteractiveMessage[size]);
+        this.components = new BaseComponent[size];
+        this.slots = new boolean[size];
+
+        int slotCount = 0;
+        boolean placeholderApiTokens = false;
+        Volatility volatility = Volatility.STATIC;
+        Set<String> placeholderNames = new LinkedHashSet<>();
+        for (int i = 0; i < size; i++) {
+            InteractiveMessage segment = this.segments[i];
+            boolean placeholders = PlaceholderManager.containsPlaceholders(segment.getText())
+                || PlaceholderManager.containsPlaceholders(segment.getHoverText())
+                || PlaceholderManager.containsPlaceholders(segment.getClickValue());
+
+            if (placeholders) {
+                // Without a placeholder manager every placeholder is assumed to be player-specific
+                Volatility segmentVolatility = placeholderManager == null ? Volatility.PER_PLAYER : Volatility.max(
+                    placeholderManager.getVolatility(segment.getText()), Volatility.max(
+                    placeholderManager.getVolatility(segment.getHoverText()),
+                    placeholderManager.getVolatility(segment.getClickValue())));
+
+                if (segmentVolatility == Volatility.STATIC) {
+                    // Static values never change, so resolve them once here
+                    segment = segment.map(text -> placeholderManager.replacePlaceholders(text, PlaceholderContext.EMPTY));
+                    this.segments[i] = segment;
+                } else {
+                    slots[i] = true;
+                    slotCount++;
+                    volatility = Volatility.max(volatility, segmentVolatility);
+                    if (placeholderManager != null) {
+                        placeholderNames.addAll(placeholderManager.getPlaceholderNames(segment.getText()));
+                        placeholderNames.addAll(placeholderManager.getPlaceholderNames(segment.getHoverText()));
+                        placeholderNames.addAll(placeholderManager.getPlaceholderNames(segment.getClickValue()));
+                    }
+                    // Use the exact token scan of the compiled texts when it is available
+                    placeholderApiTokens |= placeholderManager != null
+                        ? placeholderManager.usesPlaceholderApi(segment.getText())
+                            || placeholderManager.usesPlaceholderApi(segment.getHoverText())
+                            || placeholderManager.usesPlaceholderApi(segment.getClickValue())
+                        : PlaceholderManager.containsPlaceholderApiTokens(segment.getText())
+                            || PlaceholderManager.containsPlaceholderApiTokens(segment.getHoverText())
+                            || PlaceholderManager.containsPlaceholderApiTokens(segment.getClickValue());
+                }
+            }
+            // Text around the slots is compacted once here, so renders only build the slots
+            components[i] = slots[i]
+                ? InteractiveMessageParser.toComponent(segment)
+                : ComponentCompactor.compact(InteractiveMessageParser.toComponent(segment));
+        }
+        this.slotCount = slotCount;
+        this.placeholderApiTokens = placeholderApiTokens;
+        this.volatility = volatility;
+        this.placeholderNames = Collections.unmodifiableSet(placeholderNames);
+        this.staticLine = slotCount == 0 ? buildLine(null) : null;
+    }
+
+    /**
+     * Constructs a LineTemplate for a line that has already been rendered.
+     *
+     * @param line The rendered line
+     */
+    private LineTemplate(TextComponent line) {
+        this.segments = new InteractiveMessage[0];
+        this.components = new BaseComponent[0];
+        this.slots = new boolean[0];
+        this.slotCount = 0;
+        this.placeholderApiTokens = false;
+        this.volatility = Volatility.STATIC;
+        this.placeholderNames = Collections.emptySet();
+        this.staticLine = line;
+    }
+
+    /**
+     * Creates a template for a line without placeholders, such as a pooled line component.
+     * Every render returns the given component.
+     *
+     * @param line The rendered line
+     * @return The template
+     */
+    public static LineTemplate of(TextComponent line) {
+        return new LineTemplate(line);
+    }
+
+    /**
+     * Compiles a single line of text into a template.
+     *
+     * @param line The line to compile (already trimmed)
+     * @param parser The parser used to extract interactive elements
+     * @param enableClickableLinks Whether to make URLs clickable
+     * @param placeholderManager The placeholder manager used to fold static placeholders (can be null)
+     * @return The compiled template, or null if the line is empty
+     */
+    public static LineTemplate compile(String line, InteractiveMessageParser parser, boolean enableClickableLinks,
+                                       PlaceholderManager placeholderManager) {
+        if (line == null || line.isEmpty()) {
+            return null;
+        }
+        return new LineTemplate(parser.parseSegments(line, enableClickableLinks), placeholderManager);
+    }
+
+    /**
+     * Compiles a line that has already been parsed into segments.
+     *
+     * @param segments The parsed segments of the line
+     * @param placeholderManager The placeholder manager used to fold static placeholders (can be null)
+     * @return The compiled template
+     */
+    public static LineTemplate compile(List<InteractiveMessage> segments, PlaceholderManager placeholderManager) {
+        return new LineTemplate(segments, placeholderManager);
+    }
+
+    /**
+     * Renders this line with a custom placeholder resolver.
+     * The resolver is applied to the text, hover text and click value of each slot.
+     *
+     * @param resolver The function that replaces placeholders in a text (null leaves slots unresolved)
+     * @return A TextComponent containing the rendered line
+     */
+    public TextComponent render(UnaryOperator<String> resolver) {
+        if (staticLine != null) {
+            return staticLine;
+        }
+        return buildLine(resolver);
+    }
+
+    /**
+     * Builds the container component for this line, filling in slots if a resolver is given.
+     *
+     * @param resolver The function that replaces placeholders in a text (can be null)
+     * @return A new container component holding the line's segments
+     */
+    private TextComponent buildLine(UnaryOperator<String> resolver) {
+        TextComponent lineComponent = new TextComponent("");
+        for (int i = 0; i < components.length; i++) {
+            if (slots[i] && resolver != null) {
+                InteractiveMessage resolved = segments[i].map(resolver);
+                lineComponent.addExtra(InteractiveMessageParser.toComponent(resolved));
+            } else {
+                // Adding a component as a child sets its parent, so the shared component is copied
+                lineComponent.addExtra(components[i].duplicate());
+            }
+        }
+        return lineComponent;
+    }
+
+    /**
+     * Gets the number of placeholder slots in this line.
+     *
+     * @return The number of slots
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Checks if any slot of this line contains PlaceholderAPI placeholders.
+     *
+     * @return true if the line has PlaceholderAPI placeholders, false otherwise
+     */
+    public boolean hasPlaceholderApiTokens() {
+        return placeholderApiTokens;
+    }
+
+    /**
+     * Gets the volatility of this line, which is the volatility of its most volatile slot.
+     *
+     * @return The volatility
+     */
+    public Volatility getVolatility() {
+        return volatility;
+    }
+
+    /**
+     * Gets the names of the built-in and registered placeholders in the slots of this line.
+     *
+     * @return An unmodifiable set of placeholder names
+     */
+    public Set<String> getPlaceholderNames() {
+        return placeholderNames;
+    }
+}
@@ -0,0 +1,169 @@
+package com.maks.broadcastplugin.rendering;
+
+import com.maks.broadcastplugin.BroadcastPlugin;
+import com.maks.broadcastplugin.managers.PlaceholderManager;
+import com.maks.broadcastplugin.placeholders.PlaceholderContext;
+import com.maks.broadcastplugin.placeholders.PlaceholderScope;
+import com.maks.broadcastplugin.placeholders.Volatility;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Delivers compiled messages to their recipients, rendering them as often as their placeholders require.
+ *
+ * Static messages are sent from their cached payload. Messages whose placeholders are the same for every
+ * player are rendered once per broadcast. Only messages with player-specific placeholders are rendered per
+ * recipient, on the render pipeline if async rendering allows it. In every case only the placeholder slots
+ * of a template are rendered; the rest of each line is the cached component, shared with every render.
+ */
+public class MessageDelivery {
+    private final BroadcastPlugin plugin;
+
+    /**
+     * Constructs a new MessageDelivery.
+     *
+     * @param plugin The plugin instance
+     */
+    public MessageDelivery(BroadcastPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Sends a message to all online players.
+     *
+     * @param label The label of the broadcast, used in debug output
+     * @param template The compiled template of the message
+     * @param cachedPayload The prepared payload of the message, used if the message is static
+     * @param separator The separator sent before and after the message
+     * @param singlePacket Whether to send the separators and all lines as a single chat packet
+     */
+    public void broadcast(String label, MessageTemplate template, BroadcastPayload cachedPayload,
+                          TextComponent separator, boolean singlePacket) {
+        if (template.getVolatility() == Volatility.STATIC && !plugin.getConfigManager().isFanOutEnabled()) {
+            // Nothing to render, let the transport broadcast the cached packets
+            cachedPayload.broadcast();
+            return;
+        }
+        send(label, template, cachedPayload, separator, singlePacket, Bukkit.getOnlinePlayers());
+    }
+
+    /**
+     * Sends a message to a list of players.
+     * If fan-out delivery is enabled, rendering and sending are spread over several ticks.
+     *
+     * @param label The label of the broadcast, used in debug output
+     * @param template The compiled template of the message
+     * @param cachedPayload The prepared payload of the message, used if the message is static
+     * @param separator The separator sent before and after the message
+     * @param singlePacket Whether to send the separators and all lines as a single chat packet
+     * @param recipients The players to send the message to
+     */
+    public void send(String label, MessageTemplate template, BroadcastPayload cachedPayload,
+                     TextComponent separator, boolean singlePacket, Collection<? extends Player> recipients) {
+        PlaceholderManager placeholderManager = plugin.getPlaceholderManager();
+
+        // Render once for everyone unless the message has player-specific placeholders
+        if (template.getVolatility().compareTo(Volatility.PER_TICK) <= 0) {
+            BroadcastPayload payload = cachedPayload;
+            if (template.getVolatility() != Volatility.STATIC) {
+                PlaceholderScope scope = placeholderManager != null
+                    ? placeholderManager.captureScope(template.getPlaceholderNames())
+                    : null;
+                payload = render(template, PlaceholderContext.forScope(scope), separator, singlePacket)
+                    .convert(plugin.getChatTransport());
+            }
+            if (plugin.getConfigManager().isFanOutEnabled()) {
+                plugin.getFanOutDispatcher().enqueue(label, payload, recipients);
+            } else {
+                for (Player player : recipients) {
+                    payload.sendTo(player);
+                }
+            }
+            return;
+        }
+
+        if (canRenderAsync(template)) {
+            // Server values are computed here on the main thread and shared by all workers; canRenderAsync
+            // has checked that there is a placeholder manager
+            PlaceholderScope scope = placeholderManager.captureScope(template.getPlaceholderNames());
+            ChatTransport transport = plugin.getChatTransport();
+            plugin.getRenderPipeline().submit(label, recipients, template.getPlaceholderNames(), snapshot ->
+                render(template, PlaceholderContext.forSnapshot(snapshot, scope), separator, singlePacket).convert(transport));
+            return;
+        }
+
+        // Server values are computed once, in one pass, for all recipients of this broadcast
+        PlaceholderScope scope = placeholderManager != null
+            ? placeholderManager.captureScope(template.getPlaceholderNames())
+            : null;
+        ChatTransport transport = plugin.getChatTransport();
+        if (plugin.getConfigManager().isFanOutEnabled()) {
+            plugin.getFanOutDispatcher().enqueue(label,
+                player -> render(template, context(player, template, scope), separator, singlePacket).convert(transport),
+                recipients);
+            return;
+        }
+
+        for (Player player : recipients) {
+            render(template, context(player, template, scope), separator, singlePacket).convert(transport).sendTo(player);
+        }
+    }
+
+    /**
+     * Creates the context a message is rendered in for a recipient on the main thread.
+     * The recipient's player state is captured once and shared by all lines of the message,
+     * while PlaceholderAPI tokens still see the live player.
+     *
+     * @param player The recipient
+     * @param template The compiled template of the message
+     * @param scope The scope of the broadcast (can be null)
+     * @return The context
+     */
+    private PlaceholderContext context(Player player, MessageTemplate template, PlaceholderScope scope) {
+        PlaceholderManager placeholderManager = plugin.getPlaceholderManager();
+        if (placeholderManager == null) {
+            return PlaceholderContext.forPlayer(player, scope);
+        }
+        return PlaceholderContext.forPlayer(player, placeholderManager.capturePlayer(player, template.getPlaceholderNames()), scope);
+    }
+
+    /**
+     * Checks if a message can be rendered on the render pipeline.
+     * Messages without placeholders are cheap to render and stay on the main thread, and so do messages
+     * with PlaceholderAPI placeholders while PlaceholderAPI is installed, since it needs live player access.
+     *
+     * @param template The compiled template of the message
+     * @return true if the message can be rendered off the main thread, false otherwise
+     */
+    private boolean canRenderAsync(MessageTemplate template) {
+        PlaceholderManager placeholderManager = plugin.getPlaceholderManager();
+        if (!plugin.getConfigManager().isAsyncRenderEnabled() || plugin.getRenderPipeline() == null ||
+            placeholderManager == null || template.getSlotCount() == 0) {
+            return false;
+        }
+        return !(template.hasPlaceholderApiTokens() && placeholderManager.isPlaceholderApiEnabled());
+    }
+
+    /**
+     * Renders a message in a placeholder context.
+     * Only the placeholder slots of the template are resolved; the rest of the message is reused from the template.
+     *
+     * @param template The compiled template of the message
+     * @param context The context to resolve the placeholders in
+     * @param separator The separator sent before and after the message
+     * @param singlePacket Whether to send the separators and all lines as a single chat packet
+     * @return The rendered payload
+     */
+    private BroadcastPayload render(MessageTemplate template, PlaceholderContext context,
+                                    TextComponent separator, boolean singlePacket) {
+        PlaceholderManager placeholderManager = plugin.getPlaceholderManager();
+        List<TextComponent> lines = placeholderManager != null
+            ? template.render(text -> placeholderManager.replacePlaceholders(text, context))
+            : template.render(null);
+        return BroadcastPayload.of(separator, lines, singlePacket);
+    }
+}
@@ -0,0 +1,135 @@
+package com.maks.broadcastplugin.rendering;
+
+import com.maks.broadcastplugin.managers.PlaceholderManager;
+import com.maks.broadcastplugin.placeholders.Volatility;
+import com.maks.broadcastplugin.utils.InteractiveMessageParser;
+import net.md_5.bungee.api.chat.TextComponent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * A multi-line message compiled once at cache time for per-player rendering.
+ * Each line is held as a LineTemplate, so rendering for a recipient only fills in placeholder slots.
+ */
+public class MessageTemplate {
+    private final List<LineTemplate> lines;
+    private final int slotCount;
+    private final boolean placeholderApiTokens;
+    private final Volatility volatility;
+    private final Set<String> placeholderNames;
+
+    /**
+     * Constructs a new MessageTemplate.
+     *
+     * @param lines The compiled lines of the message
+     */
+    private MessageTemplate(List<LineTemplate> lines) {
+        this.lines = lines;
+
+        int slotCount = 0;
+        boolean placeholderApiTokens = false;
+        Volatility volatility = Volatility.STATIC;
+        Set<String> placeholderNames = new LinkedHashSet<>();
+        for (LineTemplate line : lines) {
+            slotCount += line.getSlotCount();
+            placeholderApiTokens |= line.hasPlaceholderApiTokens();
+            volatility = Volatility.max(volatility, line.getVolatility());
+            placeholderNames.addAll(line.getPlaceholderNames());
+        }
+        this.slotCount = slotCount;
+        this.placeholderApiTokens = placeholderApiTokens;
+        this.volatility = volatility;
+        this.placeholderNames = Collections.unmodifiableSet(placeholderNames);
+    }
+
+    /**
+     * Compiles a message into a template.
+     * The message is split on new lines, each line is trimmed and empty lines are skipped.
+     *
+     * @param message The raw message text
+     * @param parser The parser used to extract interactive elements
+     * @param enableClickableLinks Whether to make URLs clickable
+     * @param placeholderManager The placeholder manager used to fold static placeholders (can be null)
+     * @return The compiled template
+     */
+    public static MessageTemplate compile(String message, InteractiveMessageParser parser, boolean enableClickableLinks,
+                                          PlaceholderManager placeholderManager) {
+        List<LineTemplate> lines = new ArrayList<>();
+        for (String line : message.split("\n")) {
+            LineTemplate lineTemplate = LineTemplate.compile(line.trim(), parser, enableClickableLinks, placeholderManager);
+            if (lineTemplate != null) {
+                lines.add(lineTemplate);
+            }
+        }
+        return new MessageTemplate(lines);
+    }
+
+    /**
+     * Creates a template from lines that have already been compiled.
+     *
+     * @param lines The compiled lines of the message
+     * @return The template
+     */
+    public static MessageTemplate of(List<LineTemplate> lines) {
+        return new MessageTemplate(lines);
+    }
+
+    /**
+     * Renders all lines of this message with a custom placeholder resolver.
+     *
+     * @param resolver The function that replaces placeholders in a text (null leaves slots unresolved)
+     * @return The rendered lines in order
+     */
+    public List<TextComponent> render(UnaryOperator<String> resolver) {
+        List<TextComponent> rendered = new ArrayList<>(lines.size());
+        for (LineTemplate line : lines) {
+            rendered.add(line.render(resolver));
+        }
+        return rendered;
+    }
+
+    /**
+     * Gets the total number of placeholder slots in this message.
+     *
+     * @return The number of slots
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Checks if any line of this message contains PlaceholderAPI placeholders.
+     * Such messages must be rendered on the main thread when PlaceholderAPI is installed.
+     *
+     * @return true if the message has PlaceholderAPI placeholders, false otherwise
+     */
+    public boolean hasPlaceholderApiTokens() {
+        return placeholderApiTokens;
+    }
+
+    /**
+     * Gets the volatility of this message, which is the volatility of its most volatile line.
+     * Static messages are fully resolved at compile time, per-tick messages can be rendered once
+     * per broadcast and per-player messages have to be rendered for every recipient.
+     *
+     * @return The volatility
+     */
+    public Volatility getVolatility() {
+        return volatility;
+    }
+
+    /**
+     * Gets the names of the built-in and registered placeholders this message needs.
+     * Broadcasts resolve exactly these placeholders in one pass before rendering.
+     *
+     * @return An unmodifiable set of placeholder names
+     */
+    public Set<String> getPlaceholderNames() {
+        return placeholderNames;
+    }
+}
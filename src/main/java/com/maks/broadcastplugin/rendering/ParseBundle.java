@@ -0,0 +1,256 @@
+package com.maks.broadcastplugin.rendering;
+
+import com.maks.broadcastplugin.models.InteractiveMessage;
+import com.maks.broadcastplugin.models.InteractiveMessage.ClickAction;
+import com.maks.broadcastplugin.utils.InteractiveMessageParser;
+import net.md_5.bungee.api.ChatColor;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A versioned binary file holding the parsed segments of every pooled message line.
+ *
+ * The bundle is written to the data folder after the category messages are compiled and read back on the next
+ * start, so lines are not parsed again when the configuration did not change. It is keyed by a hash of the
+ * configuration and category files, by the plugin version and by the version of the parser that produced the
+ * segments, and a bundle whose key does not match is ignored, which makes the plugin compile everything from the
+ * source files as before.
+ *
+ * Only the parsed segments are stored. Placeholder slots depend on the placeholders registered at runtime and
+ * are compiled from the segments on load, which is cheap compared to parsing.
+ *
+ * The file layout is:
+ * 1. A header with the magic number, format version, parser version, plugin version and source hash
+ * 2. The number of lines, followed by each line's pool key and its segments
+ *
+ * Strings are stored as their UTF-8 length followed by their bytes, with a length of -1 for null.
+ */
+public final class ParseBundle {
+    private static final int MAGIC = 0x42435042; // "BCPB"
+    private static final int FORMAT_VERSION = 2;
+
+    // Style flags of a segment
+    private static final int BOLD = 1;
+    private static final int ITALIC = 1 << 1;
+    private static final int UNDERLINED = 1 << 2;
+    private static final int STRIKETHROUGH = 1 << 3;
+    private static final int OBFUSCATED = 1 << 4;
+
+    private static final ClickAction[] CLICK_ACTIONS = ClickAction.values();
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ParseBundle() {
+    }
+
+    /**
+     * Hashes the source files the messages are compiled from.
+     * Files are hashed in the given order together with their names, so renaming a file changes the hash.
+     *
+     * @param files The source files
+     * @return The hex-encoded SHA-256 hash of the files
+     * @throws IOException If a file cannot be read
+     */
+    public static String hashSources(List<File> files) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 is not available", e);
+        }
+
+        for (File file : files) {
+            digest.update(file.getName().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            if (file.isFile()) {
+                digest.update(Files.readAllBytes(file.toPath()));
+            }
+            digest.update((byte) 0);
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Reads a bundle with a memory-mapped read.
+     *
+     * @param file The bundle file
+     * @param pluginVersion The version of the running plugin
+     * @param sourceHash The hash of the current source files
+     * @return The parsed segments by pool key, or null if the bundle does not exist or does not match
+     * @throws IOException If the bundle cannot be read or is corrupt
+     */
+    public static Map<String, List<InteractiveMessage>> read(File file, String pluginVersion, String sourceHash)
+            throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION ||
+                buffer.getInt() != InteractiveMessageParser.PARSER_VERSION) {
+                return null;
+            }
+            if (!pluginVersion.equals(readString(buffer)) || !sourceHash.equals(readString(buffer))) {
+                return null;
+            }
+
+            int lineCount = buffer.getInt();
+            Map<String, List<InteractiveMessage>> lines = new HashMap<>(Math.max(16, lineCount * 2));
+            for (int i = 0; i < lineCount; i++) {
+                String key = readString(buffer);
+                int segmentCount = buffer.getInt();
+                List<InteractiveMessage> segments = new ArrayList<>(segmentCount);
+                for (int j = 0; j < segmentCount; j++) {
+                    segments.add(readSegment(buffer));
+                }
+                lines.put(key, Collections.unmodifiableList(segments));
+            }
+            return lines;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Parse bundle is corrupt: " + file.getName(), e);
+        }
+    }
+
+    /**
+     * Writes a bundle. The bundle is written to a temporary file first and then moved into place,
+     * so a server stopped while writing never leaves a partial bundle behind.
+     *
+     * @param file The bundle file
+     * @param pluginVersion The version of the running plugin
+     * @param sourceHash The hash of the source files the lines were compiled from
+     * @param lines The parsed segments by pool key
+     * @throws IOException If the bundle cannot be written
+     */
+    public static void write(File file, String pluginVersion, String sourceHash,
+                             Map<String, List<InteractiveMessage>> lines) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(InteractiveMessageParser.PARSER_VERSION);
+            writeString(out, pluginVersion);
+            writeString(out, sourceHash);
+
+            out.writeInt(lines.size());
+            for (Map.Entry<String, List<InteractiveMessage>> line : lines.entrySet()) {
+                writeString(out, line.getKey());
+                out.writeInt(line.getValue().size());
+                for (InteractiveMessage segment : line.getValue()) {
+                    writeSegment(out, segment);
+                }
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Writes a parsed segment.
+     *
+     * @param out The output
+     * @param segment The segment
+     * @throws IOException If the segment cannot be written
+     */
+    private static void writeSegment(DataOutputStream out, InteractiveMessage segment) throws IOException {
+        writeString(out, segment.getText());
+        writeString(out, segment.getHoverText());
+        out.writeByte(segment.getClickAction().ordinal());
+        writeString(out, segment.getClickValue());
+        writeString(out, segment.getColor() != null ? segment.getColor().getName() : null);
+
+        int flags = 0;
+        flags |= segment.isBold() ? BOLD : 0;
+        flags |= segment.isItalic() ? ITALIC : 0;
+        flags |= segment.isUnderlined() ? UNDERLINED : 0;
+        flags |= segment.isStrikethrough() ? STRIKETHROUGH : 0;
+        flags |= segment.isObfuscated() ? OBFUSCATED : 0;
+        out.writeByte(flags);
+    }
+
+    /**
+     * Reads a parsed segment.
+     *
+     * @param buffer The buffer to read from
+     * @return The segment
+     */
+    private static InteractiveMessage readSegment(MappedByteBuffer buffer) {
+        String text = readString(buffer);
+        String hoverText = readString(buffer);
+        ClickAction clickAction = CLICK_ACTIONS[buffer.get()];
+        String clickValue = readString(buffer);
+        String color = readString(buffer);
+        int flags = buffer.get();
+
+        InteractiveMessage.Builder builder = InteractiveMessage.builder(text)
+            .withHoverText(hoverText)
+            .withClickAction(clickAction, clickValue)
+            .withBold((flags & BOLD) != 0)
+            .withItalic((flags & ITALIC) != 0)
+            .withUnderlined((flags & UNDERLINED) != 0)
+            .withStrikethrough((flags & STRIKETHROUGH) != 0)
+            .withObfuscated((flags & OBFUSCATED) != 0);
+        if (color != null) {
+            builder.withColor(ChatColor.of(color));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Writes a string as its UTF-8 length followed by its bytes.
+     *
+     * @param out The output
+     * @param value The string (can be null)
+     * @throws IOException If the string cannot be written
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by writeString.
+     *
+     * @param buffer The buffer to read from
+     * @return The string, or null if a null string was written
+     */
+    private static String readString(MappedByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("String length " + length + " exceeds the bundle size");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,178 @@
+package com.maks.broadcastplugin.rendering;
+
+import com.maks.broadcastplugin.BroadcastPlugin;
+import com.maks.broadcastplugin.managers.PlaceholderManager;
+import com.maks.broadcastplugin.placeholders.PlayerSnapshot;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Renders personalized broadcasts off the main thread.
+ *
+ * The pipeline has three stages:
+ * 1. An immutable snapshot of each recipient's state is captured on the main thread
+ * 2. The personalized payloads are rendered from the snapshots on a bounded worker pool
+ * 3. The finished payloads are handed back to the main thread and sent
+ *
+ * Only renderers that work from snapshots may be submitted. Messages that need live player
+ * access, such as PlaceholderAPI placeholders, must keep using the synchronous path.
+ * If the worker queue is full, the payloads are rendered synchronously as a fallback.
+ */
+public class RenderPipeline {
+    private final BroadcastPlugin plugin;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Constructs a new RenderPipeline.
+     *
+     * @param plugin The plugin instance
+     * @param threads The number of worker threads
+     * @param queueSize The maximum number of broadcasts waiting for a worker
+     */
+    public RenderPipeline(BroadcastPlugin plugin, int threads, int queueSize) {
+        this.plugin = plugin;
+        this.executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueSize),
+            new RenderThreadFactory()
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Renders and sends a broadcast to a list of recipients.
+     * This must be called on the main thread.
+     *
+     * @param label The label used in log output (for example the message index)
+     * @param recipients The recipients of the broadcast
+     * @param placeholderNames The names of the placeholders the broadcast needs, captured for each recipient
+     * @param renderer The function that renders the payload for a recipient snapshot; it is called on a worker thread
+     */
+    public void submit(String label, Collection<? extends Player> recipients, Collection<String> placeholderNames,
+                       Function<PlayerSnapshot, BroadcastPayload> renderer) {
+        if (recipients.isEmpty()) {
+            return;
+        }
+
+        // Stage 1: capture the recipients' state on the main thread
+        PlaceholderManager placeholderManager = plugin.getPlaceholderManager();
+        List<PlayerSnapshot> snapshots = new ArrayList<>(recipients.size());
+        for (Player player : recipients) {
+            snapshots.add(placeholderManager != null
+                ? placeholderManager.capturePlayer(player, placeholderNames)
+                : new PlayerSnapshot(player, 0, null, null));
+        }
+
+        // Stage 2: render on a worker thread
+        try {
+            executor.execute(() -> {
+                try {
+                    RenderedBroadcast rendered = render(snapshots, renderer);
+
+                    // Stage 3: hand the payloads back to the main thread
+                    if (plugin.isEnabled()) {
+                        Bukkit.getScheduler().runTask(plugin, () -> deliver(label, rendered));
+                    }
+                } catch (Exception e) {
+                    plugin.getLogger().severe("Error rendering broadcast " + label + ": " + e.getMessage());
+                    if (plugin.getConfigManager().isDebugMode()) {
+                        e.printStackTrace();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // All workers are busy and the queue is full, render on the main thread instead
+            if (plugin.getConfigManager().isDebugMode()) {
+                plugin.getLogger().info("Render queue full, rendering broadcast " + label + " synchronously");
+            }
+            deliver(label, render(snapshots, renderer));
+        }
+    }
+
+    /**
+     * Renders the payloads for all snapshots.
+     *
+     * @param snapshots The recipient snapshots
+     * @param renderer The function that renders the payload for a snapshot
+     * @return The recipients and their rendered payloads, in snapshot order
+     */
+    private RenderedBroadcast render(List<PlayerSnapshot> snapshots,
+                                     Function<PlayerSnapshot, BroadcastPayload> renderer) {
+        Player[] recipients = new Player[snapshots.size()];
+        BroadcastPayload[] payloads = new BroadcastPayload[snapshots.size()];
+        for (int i = 0; i < recipients.length; i++) {
+            PlayerSnapshot snapshot = snapshots.get(i);
+            recipients[i] = snapshot.getPlayer();
+            payloads[i] = renderer.apply(snapshot);
+        }
+        return new RenderedBroadcast(recipients, payloads);
+    }
+
+    /**
+     * Sends rendered payloads to their recipients, in the order the recipients were submitted.
+     * This must be called on the main thread.
+     *
+     * @param label The label used in log output
+     * @param rendered The recipients and their rendered payloads
+     */
+    private void deliver(String label, RenderedBroadcast rendered) {
+        if (plugin.getConfigManager().isFanOutEnabled() && plugin.getFanOutDispatcher() != null) {
+            plugin.getFanOutDispatcher().enqueue(label, rendered.recipients, rendered.payloads);
+            return;
+        }
+
+        for (int i = 0; i < rendered.recipients.length; i++) {
+            Player player = rendered.recipients[i];
+            if (player.isOnline()) {
+                rendered.payloads[i].sendTo(player);
+            }
+        }
+    }
+
+    /**
+     * Stops the worker threads. Broadcasts that are still rendering are dropped.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The rendered payloads of a broadcast, with the payload of each recipient at the recipient's index.
+     */
+    private static final class RenderedBroadcast {
+        private final Player[] recipients;
+        private final BroadcastPayload[] payloads;
+
+        private RenderedBroadcast(Player[] recipients, BroadcastPayload[] payloads) {
+            this.recipients = recipients;
+            this.payloads = payloads;
+        }
+    }
+
+    /**
+     * Creates named daemon threads for the worker pool.
+     */
+    private static class RenderThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "BroadcastPlugin-Render-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.maks.broadcastplugin.scheduling;
+
+import com.maks.broadcastplugin.BroadcastPlugin;
+import com.maks.broadcastplugin.rendering.BroadcastPayload;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.function.Function;
+
+/**
+ * Spreads the delivery of broadcasts over several ticks.
+ *
+ * Instead of sending a broadcast to every recipient in the tick it was triggered, recipients are queued
+ * and drained by a task that runs every tick and stops once the configured nanosecond budget is used up.
+ * The remaining recipients are carried over to the next tick. Broadcasts are drained strictly in the
+ * order they were queued and each recipient receives all packets of a payload at once, so the order
+ * of lines and messages seen by a player is preserved.
+ */
+public class FanOutDispatcher {
+    private final BroadcastPlugin plugin;
+    private final Deque<FanOutJob> queue = new ArrayDeque<>();
+    private BukkitTask task;
+    private long currentTick = 0;
+
+    // Statistics
+    private int lastBroadcastTicks = 0;
+    private int maxBroadcastTicks = 0;
+    private long completedBroadcasts = 0;
+
+    /**
+     * Constructs a new FanOutDispatcher.
+     *
+     * @param plugin The plugin instance
+     */
+    public FanOutDispatcher(BroadcastPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Queues a payload to be sent to a set of recipients.
+     *
+     * @param label The label used in debug output (for example the category name)
+     * @param payload The payload to send to every recipient
+     * @param recipients The recipients of the payload
+     */
+    public void enqueue(String label, BroadcastPayload payload, Collection<? extends Player> recipients) {
+        enqueue(label, player -> payload, recipients);
+    }
+
+    /**
+     * Queues a broadcast whose payload is rendered for each recipient when it is their turn.
+     * Rendering happens inside the tick budget, so per-player rendering is spread over ticks as well.
+     *
+     * @param label The label used in debug output (for example the category name)
+     * @param renderer The function that renders the payload for a recipient
+     * @param recipients The recipients of the broadcast
+     */
+    public void enqueue(String label, Function<Player, BroadcastPayload> renderer, Collection<? extends Player> recipients) {
+        if (recipients.isEmpty()) {
+            return;
+        }
+
+        queue.addLast(new FanOutJob(label, renderer, recipients.toArray(new Player[0]), null, currentTick));
+        startTask();
+    }
+
+    /**
+     * Queues a broadcast whose payloads were already rendered for each recipient.
+     *
+     * @param label The label used in debug output (for example the category name)
+     * @param recipients The recipients of the broadcast
+     * @param payloads The payload of each recipient, at the recipient's index
+     */
+    public void enqueue(String label, Player[] recipients, BroadcastPayload[] payloads) {
+        if (recipients.length == 0) {
+            return;
+        }
+
+        queue.addLast(new FanOutJob(label, null, recipients, payloads, currentTick));
+        startTask();
+    }
+
+    /**
+     * Starts the drain task if it is not already running.
+     */
+    private void startTask() {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 0L, 1L);
+        }
+    }
+
+    /**
+     * Drains queued recipients until the tick budget is used up.
+     */
+    private void tick() {
+        long budgetNanos = plugin.getConfigManager().getFanOutTickBudgetNanos();
+        long startTime = System.nanoTime();
+        boolean sentThisTick = false;
+
+        while (!queue.isEmpty()) {
+            FanOutJob job = queue.peekFirst();
+
+            while (job.hasNext()) {
+                // Always make progress, even if a single send exceeds the budget
+                if (sentThisTick && System.nanoTime() - startTime >= budgetNanos) {
+                    currentTick++;
+                    return;
+                }
+
+                int index = job.position++;
+                Player player = job.recipients[index];
+                if (player.isOnline()) {
+                    job.payload(index, player).sendTo(player);
+                }
+                sentThisTick = true;
+            }
+
+            queue.pollFirst();
+            completeJob(job);
+        }
+
+        currentTick++;
+
+        // Nothing left to send, stop the task until the next broadcast is queued
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Records statistics for a finished broadcast.
+     *
+     * @param job The finished job
+     */
+    private void completeJob(FanOutJob job) {
+        int ticks = (int) (currentTick - job.startTick) + 1;
+        lastBroadcastTicks = ticks;
+        maxBroadcastTicks = Math.max(maxBroadcastTicks, ticks);
+        completedBroadcasts++;
+
+        if (plugin.getConfigManager().isDebugMode()) {
+            plugin.getLogger().info("Fan-out broadcast " + job.label + " reached " + job.recipients.length +
+                                   " players in " + ticks + " ticks");
+        }
+    }
+
+    /**
+     * Stops the drain task and drops all queued broadcasts.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        queue.clear();
+    }
+
+    /**
+     * Gets the number of recipients still waiting to receive a queued broadcast.
+     *
+     * @return The number of queued recipients
+     */
+    public int getQueuedRecipients() {
+        int queued = 0;
+        for (FanOutJob job : queue) {
+            queued += job.recipients.length - job.position;
+        }
+        return queued;
+    }
+
+    /**
+     * Gets the number of ticks the last completed broadcast took to reach all recipients.
+     *
+     * @return The number of ticks, or 0 if no broadcast has completed yet
+     */
+    public int getLastBroadcastTicks() {
+        return lastBroadcastTicks;
+    }
+
+    /**
+     * Gets the largest number of ticks a completed broadcast took to reach all recipients.
+     *
+     * @return The number of ticks, or 0 if no broadcast has completed yet
+     */
+    public int getMaxBroadcastTicks() {
+        return maxBroadcastTicks;
+    }
+
+    /**
+     * Gets the number of broadcasts that have been fully delivered.
+     *
+     * @return The number of completed broadcasts
+     */
+    public long getCompletedBroadcasts() {
+        return completedBroadcasts;
+    }
+
+    /**
+     * A queued broadcast and the position of the next recipient.
+     * Its payloads are either rendered up front, one per recipient, or rendered by the renderer on each send.
+     */
+    private static class FanOutJob {
+        private final String label;
+        private final Function<Player, BroadcastPayload> renderer;
+        private final Player[] recipients;
+        private final BroadcastPayload[] payloads;
+        private final long startTick;
+        private int position = 0;
+
+        private FanOutJob(String label, Function<Player, BroadcastPayload> renderer, Player[] recipients,
+                          BroadcastPayload[] payloads, long startTick) {
+            this.label = label;
+            this.renderer = renderer;
+            this.recipients = recipients;
+            this.payloads = payloads;
+            this.startTick = startTick;
+        }
+
+        private boolean hasNext() {
+            return position < recipients.length;
+        }
+
+        private BroadcastPayload payload(int index, Player player) {
+            return payloads != null ? payloads[index] : renderer.apply(player);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.maks.broadcastplugin.selection;
+
+import java.util.Random;
+
+/**
+ * Walker's alias table for sampling message indices in proportion to their weights.
+ *
+ * Building the table takes linear time; after that every draw takes one random column and one
+ * biased coin flip, independent of the number of messages. The arrays are kept between builds and
+ * only grow, so neither rebuilding with a similar number of messages nor sampling allocates.
+ * Instances are not thread-safe.
+ */
+public class AliasTable {
+    // Message index held by each column
+    private int[] outcomes = new int[0];
+    // Column whose outcome is used when the coin flip rejects this column's own outcome
+    private int[] aliases = new int[0];
+    // Probability of keeping the column's own outcome
+    private double[] probabilities = new double[0];
+    private int size = 0;
+
+    // Work arrays used while building
+    private double[] scaled = new double[0];
+    private int[] small = new int[0];
+    private int[] large = new int[0];
+
+    /**
+     * Builds the table for a set of messages.
+     *
+     * @param indices The message indices to sample from
+     * @param weights The weight of each message, by message index; all weights must be positive
+     * @param count The number of entries of indices to use
+     */
+    public void build(int[] indices, double[] weights, int count) {
+        ensureCapacity(count);
+        size = count;
+        if (count == 0) {
+            return;
+        }
+
+        double totalWeight = 0;
+        for (int i = 0; i < count; i++) {
+            totalWeight += weights[indices[i]];
+        }
+
+        // Scale the weights so the average column holds exactly 1
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < count; i++) {
+            outcomes[i] = indices[i];
+            scaled[i] = weights[indices[i]] * count / totalWeight;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        // Fill each light column with the excess of a heavy one
+        while (smallCount > 0 && largeCount > 0) {
+            int light = small[--smallCount];
+            int heavy = large[--largeCount];
+
+            probabilities[light] = scaled[light];
+            aliases[light] = heavy;
+
+            scaled[heavy] = (scaled[heavy] + scaled[light]) - 1.0;
+            if (scaled[heavy] < 1.0) {
+                small[smallCount++] = heavy;
+            } else {
+                large[largeCount++] = heavy;
+            }
+        }
+
+        // Whatever is left is full, up to rounding errors
+        while (largeCount > 0) {
+            int column = large[--largeCount];
+            probabilities[column] = 1.0;
+            aliases[column] = column;
+        }
+        while (smallCount > 0) {
+            int column = small[--smallCount];
+            probabilities[column] = 1.0;
+            aliases[column] = column;
+        }
+    }
+
+    /**
+     * Draws a message index.
+     *
+     * @param random The random number generator to use
+     * @return The drawn message index, or -1 if the table is empty
+     */
+    public int sample(Random random) {
+        if (size == 0) {
+            return -1;
+        }
+
+        int column = random.nextInt(size);
+        return random.nextDouble() < probabilities[column] ? outcomes[column] : outcomes[aliases[column]];
+    }
+
+    /**
+     * Gets the number of messages in the table.
+     *
+     * @return The number of messages
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Grows the arrays so they can hold a number of columns.
+     *
+     * @param count The number of columns needed
+     */
+    private void ensureCapacity(int count) {
+        if (outcomes.length >= count) {
+            return;
+        }
+
+        outcomes = new int[count];
+        aliases = new int[count];
+        probabilities = new double[count];
+        scaled = new double[count];
+        small = new int[count];
+        large = new int[count];
+    }
+}
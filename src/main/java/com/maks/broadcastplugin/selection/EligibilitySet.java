@@ -0,0 +1,215 @@
+package com.maks.broadcastplugin.selection;
+
+/**
+ * A fixed-size set of message indices backed by 64-bit words.
+ *
+ * Besides the usual bit operations it supports select, finding the n-th set bit, which is what
+ * uniform random selection needs. A running count of set bits per word is kept for this, so select
+ * is a binary search over the words plus a scan inside a single word.
+ * Instances are not thread-safe.
+ */
+public class EligibilitySet {
+    private long[] words;
+    private int size;
+
+    // Number of set bits before each word, rebuilt lazily after modifications
+    private int[] ranks;
+    private int cardinality;
+    private boolean ranksValid = false;
+
+    /**
+     * Constructs a new, empty EligibilitySet.
+     *
+     * @param size The number of indices the set can hold
+     */
+    public EligibilitySet(int size) {
+        this.words = new long[wordCount(size)];
+        this.ranks = new int[words.length];
+        this.size = size;
+    }
+
+    /**
+     * Gets the number of words needed for a number of indices.
+     *
+     * @param size The number of indices
+     * @return The number of words
+     */
+    private static int wordCount(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    /**
+     * Clears the set and changes the number of indices it can hold.
+     * The backing arrays are only reallocated if they are too small.
+     *
+     * @param size The new number of indices
+     */
+    public void resize(int size) {
+        int wordCount = wordCount(size);
+        if (wordCount > words.length) {
+            words = new long[wordCount];
+            ranks = new int[wordCount];
+        }
+        this.size = size;
+        clear();
+    }
+
+    /**
+     * Removes all indices from the set.
+     */
+    public void clear() {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = 0L;
+        }
+        ranksValid = false;
+    }
+
+    /**
+     * Adds an index to the set.
+     *
+     * @param index The index to add
+     */
+    public void set(int index) {
+        checkIndex(index);
+        words[index >>> 6] |= 1L << index;
+        ranksValid = false;
+    }
+
+    /**
+     * Checks if an index is in the set.
+     *
+     * @param index The index to check
+     * @return true if the index is in the set, false otherwise
+     */
+    public boolean get(int index) {
+        checkIndex(index);
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Gets the number of indices the set can hold.
+     *
+     * @return The size of the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of indices in the set.
+     *
+     * @return The number of set bits
+     */
+    public int cardinality() {
+        updateRanks();
+        return cardinality;
+    }
+
+    /**
+     * Checks if the set is empty.
+     *
+     * @return true if no index is set, false otherwise
+     */
+    public boolean isEmpty() {
+        return cardinality() == 0;
+    }
+
+    /**
+     * Finds the first index in the set at or after a starting index.
+     *
+     * @param fromIndex The index to start from
+     * @return The next set index, or -1 if there is none
+     */
+    public int nextSetBit(int fromIndex) {
+        if (fromIndex < 0 || fromIndex >= size) {
+            return -1;
+        }
+
+        int wordIndex = fromIndex >>> 6;
+        long word = words[wordIndex] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                int index = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                return index < size ? index : -1;
+            }
+            if (++wordIndex >= wordCount(size)) {
+                return -1;
+            }
+            word = words[wordIndex];
+        }
+    }
+
+    /**
+     * Finds the first index in the set at or after a starting index, wrapping around to the start.
+     *
+     * @param fromIndex The index to start from
+     * @return The next set index, or -1 if the set is empty
+     */
+    public int nextSetBitWrapping(int fromIndex) {
+        int index = nextSetBit(fromIndex);
+        return index != -1 ? index : nextSetBit(0);
+    }
+
+    /**
+     * Finds the index with the given rank, that is the n-th index in the set counting from zero.
+     *
+     * @param rank The rank of the index, between 0 and cardinality() - 1
+     * @return The index with the given rank
+     * @throws IndexOutOfBoundsException If the rank is out of range
+     */
+    public int select(int rank) {
+        updateRanks();
+        if (rank < 0 || rank >= cardinality) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " out of range for " + cardinality + " set bits");
+        }
+
+        // Find the last word that starts at or before the rank
+        int low = 0;
+        int high = wordCount(size) - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (ranks[middle] <= rank) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        // Drop the lower set bits of the word until the wanted one is the lowest
+        long word = words[low];
+        for (int i = ranks[low]; i < rank; i++) {
+            word &= word - 1;
+        }
+        return (low << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Rebuilds the per-word rank counts if the set was modified.
+     */
+    private void updateRanks() {
+        if (ranksValid) {
+            return;
+        }
+
+        int count = 0;
+        int wordCount = wordCount(size);
+        for (int i = 0; i < wordCount; i++) {
+            ranks[i] = count;
+            count += Long.bitCount(words[i]);
+        }
+        cardinality = count;
+        ranksValid = true;
+    }
+
+    /**
+     * Checks that an index is within the bounds of the set.
+     *
+     * @param index The index to check
+     * @throws IndexOutOfBoundsException If the index is out of range
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range for size " + size);
+        }
+    }
+}
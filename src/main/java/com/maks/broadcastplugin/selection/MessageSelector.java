@@ -0,0 +1,234 @@
+package com.maks.broadcastplugin.selection;
+
+import com.maks.broadcastplugin.BroadcastPlugin;
+import com.maks.broadcastplugin.conditions.MessageConditionEvaluator;
+import org.bukkit.Bukkit;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Selects the next message of a rotation, skipping messages whose conditions are not met.
+ *
+ * The selector keeps the set of eligible messages as an EligibilitySet. The set is only recomputed
+ * when the inputs of the conditions change: the online player count, which is all MessageCondition
+ * currently checks, or the loaded conditions themselves. Between changes, sequential selection is a
+ * single nextSetBit from the current index and random selection is a select over the set bits, so
+ * neither checks conditions nor allocates per broadcast.
+ *
+ * If any message has a weight other than the default, random selection draws from an AliasTable
+ * over the eligible messages instead, which is rebuilt together with the eligible set.
+ */
+public class MessageSelector {
+    /**
+     * The weight of messages that do not have a weight configured.
+     */
+    public static final double DEFAULT_WEIGHT = 1.0;
+
+    private final BroadcastPlugin plugin;
+    private final String owner;
+    private final Random random = new Random();
+
+    // Messages that have a cache entry, and the subset whose conditions are met
+    private final EligibilitySet available = new EligibilitySet(0);
+    private final EligibilitySet eligible = new EligibilitySet(0);
+
+    // Condition name for each message index, null for messages without a condition
+    private String[] conditions = new String[0];
+    private boolean hasConditions = false;
+
+    // Weight of each message index, used for weighted random selection
+    private double[] weights = new double[0];
+    private boolean weighted = false;
+    private final AliasTable aliasTable = new AliasTable();
+    private int[] eligibleIndices = new int[0];
+
+    private int currentIndex = 0;
+
+    // Inputs of the last eligibility computation
+    private boolean eligibilityValid = false;
+    private int lastPlayerCount = -1;
+    private long lastConditionsVersion = -1;
+
+    /**
+     * Constructs a new MessageSelector.
+     *
+     * @param plugin The plugin instance
+     * @param owner The name used in debug output (for example the category name)
+     */
+    public MessageSelector(BroadcastPlugin plugin, String owner) {
+        this.plugin = plugin;
+        this.owner = owner;
+    }
+
+    /**
+     * Rebuilds the selector for a new set of cached messages.
+     * This should be called whenever the message cache is rebuilt.
+     *
+     * @param messageCount The total number of messages, including empty ones
+     * @param availableIndices The indices of the messages that can be broadcast
+     * @param messageConditions The condition name for each message index
+     * @param messageWeights The weight for each message index; messages without a weight have a weight of 1
+     */
+    public void rebuild(int messageCount, Collection<Integer> availableIndices, Map<Integer, String> messageConditions,
+                        Map<Integer, Double> messageWeights) {
+        available.resize(messageCount);
+        eligible.resize(messageCount);
+        for (int index : availableIndices) {
+            available.set(index);
+        }
+
+        conditions = new String[messageCount];
+        hasConditions = false;
+        for (Map.Entry<Integer, String> entry : messageConditions.entrySet()) {
+            int index = entry.getKey();
+            if (index >= 0 && index < messageCount) {
+                conditions[index] = entry.getValue();
+                hasConditions = true;
+            }
+        }
+
+        weights = new double[messageCount];
+        weighted = false;
+        Arrays.fill(weights, DEFAULT_WEIGHT);
+        for (Map.Entry<Integer, Double> entry : messageWeights.entrySet()) {
+            int index = entry.getKey();
+            if (index >= 0 && index < messageCount) {
+                weights[index] = entry.getValue();
+                weighted |= entry.getValue() != DEFAULT_WEIGHT;
+            }
+        }
+        if (eligibleIndices.length < messageCount) {
+            eligibleIndices = new int[messageCount];
+        }
+
+        if (currentIndex >= messageCount) {
+            currentIndex = 0;
+        }
+        eligibilityValid = false;
+    }
+
+    /**
+     * Checks if any message can be broadcast, regardless of conditions.
+     *
+     * @return true if at least one message has a cache entry, false otherwise
+     */
+    public boolean hasAvailableMessages() {
+        return !available.isEmpty();
+    }
+
+    /**
+     * Selects the next eligible message in sequential order and advances the rotation past it.
+     *
+     * @return The index of the selected message, or -1 if no message is eligible
+     */
+    public int nextSequential() {
+        refreshEligibility();
+
+        int messageIndex = eligible.nextSetBitWrapping(currentIndex);
+        if (messageIndex == -1) {
+            return -1;
+        }
+
+        // Update the current index for next time
+        currentIndex = (messageIndex + 1) % eligible.size();
+        return messageIndex;
+    }
+
+    /**
+     * Gets the messages that sequential selection will select next, without advancing the rotation.
+     *
+     * @param count The maximum number of messages to return
+     * @return The indices of the next eligible messages in rotation order, fewer if not enough are eligible
+     */
+    public int[] peekSequential(int count) {
+        refreshEligibility();
+
+        int[] indices = new int[Math.min(count, eligible.cardinality())];
+        int index = currentIndex;
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = eligible.nextSetBitWrapping(index);
+            index = (indices[i] + 1) % eligible.size();
+        }
+        return indices;
+    }
+
+    /**
+     * Selects a random eligible message.
+     * Each eligible message is selected with a chance proportional to its weight.
+     *
+     * @return The index of the selected message, or -1 if no message is eligible
+     */
+    public int nextRandom() {
+        refreshEligibility();
+
+        if (weighted) {
+            return aliasTable.sample(random);
+        }
+
+        int eligibleCount = eligible.cardinality();
+        if (eligibleCount == 0) {
+            return -1;
+        }
+        return eligible.select(random.nextInt(eligibleCount));
+    }
+
+    /**
+     * Recomputes the eligible messages if the inputs of the conditions changed.
+     */
+    private void refreshEligibility() {
+        MessageConditionEvaluator evaluator = plugin.getConditionEvaluator();
+        long conditionsVersion = evaluator != null ? evaluator.getVersion() : 0;
+        int playerCount = hasConditions ? Bukkit.getOnlinePlayers().size() : 0;
+
+        if (eligibilityValid && playerCount == lastPlayerCount && conditionsVersion == lastConditionsVersion) {
+            return;
+        }
+
+        eligible.clear();
+        for (int index = available.nextSetBit(0); index != -1; index = available.nextSetBit(index + 1)) {
+            String conditionName = conditions[index];
+            if (conditionName == null || evaluator == null || evaluator.isConditionMet(conditionName)) {
+                eligible.set(index);
+            }
+        }
+
+        // Rebuild the alias table over the eligible messages
+        if (weighted) {
+            int eligibleCount = 0;
+            for (int index = eligible.nextSetBit(0); index != -1; index = eligible.nextSetBit(index + 1)) {
+                eligibleIndices[eligibleCount++] = index;
+            }
+            aliasTable.build(eligibleIndices, weights, eligibleCount);
+        }
+
+        eligibilityValid = true;
+        lastPlayerCount = playerCount;
+        lastConditionsVersion = conditionsVersion;
+
+        if (plugin.getConfigManager().isDebugMode()) {
+            plugin.getLogger().info("Recomputed eligible messages for " + owner + ": " + eligible.cardinality() +
+                                   " of " + available.cardinality());
+        }
+    }
+
+    /**
+     * Gets the current index of the rotation.
+     *
+     * @return The current index
+     */
+    public int getCurrentIndex() {
+        return currentIndex;
+    }
+
+    /**
+     * Sets the current index of the rotation.
+     *
+     * @param index The index to set
+     */
+    public void setCurrentIndex(int index) {
+        this.currentIndex = index;
+    }
+}
@@ -7,21 +7,55 @@ import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Utility class for parsing interactive messages from text.
  * This class handles the extraction of hover and click events from specially formatted text.
+ *
+ * The text is lexed in a single pass, character by character. Tags are tracked on a stack, so they can be
+ * nested ([hover:...][command:...]Click[/command][/hover]) or placed next to each other, and segments are
+ * emitted in the order they appear in the text. Substrings are only taken for emitted text and tag values.
  */
 public class InteractiveMessageParser {
+    /**
+     * The version of the parser's output. Parsed segments are saved in the parse bundle with this version,
+     * so it must be increased whenever a change to the lexer changes the segments produced for any text.
+     */
+    public static final int PARSER_VERSION = 1;
+
     private final JavaPlugin plugin;
     
-    // Patterns for interactive elements
-    private static final Pattern HOVER_PATTERN = Pattern.compile("\\[hover:([^\\]]+)\\]([^\\[]+)\\[/hover\\]");
-    private static final Pattern COMMAND_PATTERN = Pattern.compile("\\[command:([^\\]]+)\\]([^\\[]+)\\[/command\\]");
-    private static final Pattern SUGGEST_PATTERN = Pattern.compile("\\[suggest:([^\\]]+)\\]([^\\[]+)\\[/suggest\\]");
-    private static final Pattern URL_PATTERN = Pattern.compile("(https?://\\S+)");
+    /**
+     * The tags the parser recognizes, with the click action they set (null for hover tags).
+     */
+    private enum Tag {
+        HOVER("hover", null),
+        COMMAND("command", InteractiveMessage.ClickAction.RUN_COMMAND),
+        SUGGEST("suggest", InteractiveMessage.ClickAction.SUGGEST_COMMAND);
+        
+        private final String name;
+        private final String closing;
+        private final InteractiveMessage.ClickAction clickAction;
+        
+        Tag(String name, InteractiveMessage.ClickAction clickAction) {
+            this.name = name;
+            this.closing = "[/" + name + "]";
+            this.clickAction = clickAction;
+        }
+    }
+    
+    /**
+     * A tag that has been opened and not closed yet, with its value.
+     */
+    private static final class OpenTag {
+        private final Tag tag;
+        private final String value;
+        
+        private OpenTag(Tag tag, String value) {
+            this.tag = tag;
+            this.value = value;
+        }
+    }
     
     /**
      * Constructs a new InteractiveMessageParser.
@@ -41,196 +75,271 @@ public class InteractiveMessageParser {
      * - [suggest:/command arg1 arg2]Click to suggest command[/suggest]
      * - URLs are automatically detected and made clickable
      *
+     * Tags can be nested to combine a hover text with a click action. Tags without a closing tag
+     * are kept as plain text.
+     *
      * @param text The text to parse
      * @param enableClickableLinks Whether to make URLs clickable
      * @return A list of TextComponents representing the parsed message
      */
     public List<TextComponent> parse(String text, boolean enableClickableLinks) {
-        List<TextComponent> components = new ArrayList<>();
+        List<InteractiveMessage> segments = parseSegments(text, enableClickableLinks);
+        List<TextComponent> components = new ArrayList<>(segments.size());
+        for (InteractiveMessage segment : segments) {
+            components.add(toComponent(segment));
+        }
+        return components;
+    }
+
+    /**
+     * Parses a text message into interactive message segments without converting them to components.
+     * This keeps the raw hover text and click values available, so callers such as message templates
+     * can substitute placeholders into a segment without parsing the whole line again.
+     *
+     * @param text The text to parse
+     * @param enableClickableLinks Whether to make URLs clickable
+     * @return A list of interactive message segments in the order they appear in the text
+     */
+    public List<InteractiveMessage> parseSegments(String text, boolean enableClickableLinks) {
+        List<InteractiveMessage> segments = new ArrayList<>();
         
         if (text == null || text.isEmpty()) {
-            return components;
+            return segments;
         }
         
         try {
-            // Process hover events
-            text = processHoverEvents(text, components);
-            
-            // Process command events
-            text = processCommandEvents(text, components);
-            
-            // Process suggest events
-            text = processSuggestEvents(text, components);
-            
-            // Process URLs if enabled
-            if (enableClickableLinks) {
-                text = processUrls(text, components);
-            }
-            
-            // Add any remaining text
-            if (!text.isEmpty()) {
-                components.add(new TextComponent(text));
-            }
+            lex(text, enableClickableLinks, segments);
         } catch (Exception e) {
             plugin.getLogger().warning("Error parsing interactive message: " + e.getMessage());
             // Return the original text as a fallback
-            components.clear();
-            components.add(new TextComponent(text));
+            segments.clear();
+            segments.add(InteractiveMessage.builder(text).build());
         }
         
-        return components;
+        return segments;
+    }
+
+    /**
+     * Converts a parsed segment to a TextComponent.
+     * Plain segments become bare text components without any styling fields.
+     *
+     * @param segment The segment to convert
+     * @return The TextComponent for the segment
+     */
+    public static TextComponent toComponent(InteractiveMessage segment) {
+        return segment.isPlain() ? new TextComponent(segment.getText()) : segment.toTextComponent();
     }
     
     /**
-     * Processes hover events in the text.
+     * Lexes a text into segments in a single pass.
      *
-     * @param text The text to process
-     * @param components The list to add components to
-     * @return The remaining text after processing
+     * @param text The text to lex
+     * @param enableClickableLinks Whether to make URLs clickable
+     * @param segments The list to add segments to
      */
-    private String processHoverEvents(String text, List<TextComponent> components) {
-        Matcher matcher = HOVER_PATTERN.matcher(text);
-        int lastIndex = 0;
+    private void lex(String text, boolean enableClickableLinks, List<InteractiveMessage> segments) {
+        List<OpenTag> openTags = new ArrayList<>();
+        int length = text.length();
+        int runStart = 0;
+        int i = 0;
         
-        while (matcher.find()) {
-            // Add text before the hover event
-            String beforeText = text.substring(lastIndex, matcher.start());
-            if (!beforeText.isEmpty()) {
-                components.add(new TextComponent(beforeText));
-            }
+        while (i < length) {
+            char c = text.charAt(i);
             
-            // Extract hover text and display text
-            String hoverText = matcher.group(1);
-            String displayText = matcher.group(2);
-            
-            // Create interactive message with hover
-            InteractiveMessage message = InteractiveMessage.builder(displayText)
-                .withHoverText(hoverText)
-                .build();
-            
-            // Add to components
-            components.add(message.toTextComponent());
+            if (c == '[') {
+                // Closing tag of a tag that is open
+                Tag closing = closingTagAt(text, i);
+                int openIndex = closing != null ? indexOfOpen(openTags, closing) : -1;
+                if (openIndex >= 0) {
+                    emit(text, runStart, i, openTags, segments);
+                    openTags.remove(openIndex);
+                    i += closing.closing.length();
+                    runStart = i;
+                    continue;
+                }
+                
+                // Opening tag with a value and a closing tag somewhere after it
+                Tag opening = openingTagAt(text, i);
+                if (opening != null) {
+                    int valueStart = i + opening.name.length() + 2;
+                    int valueEnd = text.indexOf(']', valueStart);
+                    if (valueEnd > valueStart && text.indexOf(opening.closing, valueEnd + 1) >= 0) {
+                        emit(text, runStart, i, openTags, segments);
+                        openTags.add(new OpenTag(opening, text.substring(valueStart, valueEnd)));
+                        i = valueEnd + 1;
+                        runStart = i;
+                        continue;
+                    }
+                }
+            } else if (c == 'h' && enableClickableLinks && clickTag(openTags) == null) {
+                // URLs are only linked where no tag sets a click action
+                int urlEnd = urlEndAt(text, i);
+                if (urlEnd > 0) {
+                    emit(text, runStart, i, openTags, segments);
+                    String url = text.substring(i, urlEnd);
+                    OpenTag hover = hoverTag(openTags);
+                    segments.add(InteractiveMessage.builder(url)
+                        .withHoverText(hover != null ? hover.value : null)
+                        .withClickAction(InteractiveMessage.ClickAction.OPEN_URL, url)
+                        .withColor(ChatColor.AQUA)
+                        .withUnderlined(true)
+                        .build());
+                    i = urlEnd;
+                    runStart = i;
+                    continue;
+                }
+            }
             
-            // Update last index
-            lastIndex = matcher.end();
+            i++;
         }
         
-        // Return remaining text
-        return lastIndex > 0 ? text.substring(lastIndex) : text;
+        emit(text, runStart, length, openTags, segments);
     }
     
     /**
-     * Processes command events in the text.
+     * Emits the text between two positions as a segment styled by the open tags.
      *
-     * @param text The text to process
-     * @param components The list to add components to
-     * @return The remaining text after processing
+     * @param text The text being lexed
+     * @param start The start of the segment text (inclusive)
+     * @param end The end of the segment text (exclusive)
+     * @param openTags The open tags
+     * @param segments The list to add the segment to
      */
-    private String processCommandEvents(String text, List<TextComponent> components) {
-        Matcher matcher = COMMAND_PATTERN.matcher(text);
-        int lastIndex = 0;
+    private static void emit(String text, int start, int end, List<OpenTag> openTags, List<InteractiveMessage> segments) {
+        if (end <= start) {
+            return;
+        }
         
-        while (matcher.find()) {
-            // Add text before the command event
-            String beforeText = text.substring(lastIndex, matcher.start());
-            if (!beforeText.isEmpty()) {
-                components.add(new TextComponent(beforeText));
+        InteractiveMessage.Builder builder = InteractiveMessage.builder(text.substring(start, end));
+        OpenTag hover = hoverTag(openTags);
+        if (hover != null) {
+            builder.withHoverText(hover.value);
+        }
+        OpenTag click = clickTag(openTags);
+        if (click != null) {
+            builder.withClickAction(click.tag.clickAction, click.value);
+        }
+        segments.add(builder.build());
+    }
+    
+    /**
+     * Gets the innermost open hover tag.
+     *
+     * @param openTags The open tags
+     * @return The tag, or null if no hover tag is open
+     */
+    private static OpenTag hoverTag(List<OpenTag> openTags) {
+        for (int i = openTags.size() - 1; i >= 0; i--) {
+            if (openTags.get(i).tag.clickAction == null) {
+                return openTags.get(i);
             }
-            
-            // Extract command and display text
-            String command = matcher.group(1);
-            String displayText = matcher.group(2);
-            
-            // Create interactive message with command
-            InteractiveMessage message = InteractiveMessage.builder(displayText)
-                .withClickAction(InteractiveMessage.ClickAction.RUN_COMMAND, command)
-                .build();
-            
-            // Add to components
-            components.add(message.toTextComponent());
-            
-            // Update last index
-            lastIndex = matcher.end();
         }
-        
-        // Return remaining text
-        return lastIndex > 0 ? text.substring(lastIndex) : text;
+        return null;
     }
     
     /**
-     * Processes suggest events in the text.
+     * Gets the innermost open tag that sets a click action.
      *
-     * @param text The text to process
-     * @param components The list to add components to
-     * @return The remaining text after processing
+     * @param openTags The open tags
+     * @return The tag, or null if no click tag is open
      */
-    private String processSuggestEvents(String text, List<TextComponent> components) {
-        Matcher matcher = SUGGEST_PATTERN.matcher(text);
-        int lastIndex = 0;
-        
-        while (matcher.find()) {
-            // Add text before the suggest event
-            String beforeText = text.substring(lastIndex, matcher.start());
-            if (!beforeText.isEmpty()) {
-                components.add(new TextComponent(beforeText));
+    private static OpenTag clickTag(List<OpenTag> openTags) {
+        for (int i = openTags.size() - 1; i >= 0; i--) {
+            if (openTags.get(i).tag.clickAction != null) {
+                return openTags.get(i);
             }
-            
-            // Extract command and display text
-            String command = matcher.group(1);
-            String displayText = matcher.group(2);
-            
-            // Create interactive message with suggest command
-            InteractiveMessage message = InteractiveMessage.builder(displayText)
-                .withClickAction(InteractiveMessage.ClickAction.SUGGEST_COMMAND, command)
-                .build();
-            
-            // Add to components
-            components.add(message.toTextComponent());
-            
-            // Update last index
-            lastIndex = matcher.end();
         }
-        
-        // Return remaining text
-        return lastIndex > 0 ? text.substring(lastIndex) : text;
+        return null;
     }
     
     /**
-     * Processes URLs in the text.
+     * Gets the position of the innermost open tag of a kind, which a closing tag of that kind closes.
      *
-     * @param text The text to process
-     * @param components The list to add components to
-     * @return The remaining text after processing
+     * @param openTags The open tags
+     * @param tag The kind of tag
+     * @return The position in the open tags, or -1 if no tag of that kind is open
      */
-    private String processUrls(String text, List<TextComponent> components) {
-        Matcher matcher = URL_PATTERN.matcher(text);
-        int lastIndex = 0;
-        
-        while (matcher.find()) {
-            // Add text before the URL
-            String beforeText = text.substring(lastIndex, matcher.start());
-            if (!beforeText.isEmpty()) {
-                components.add(new TextComponent(beforeText));
+    private static int indexOfOpen(List<OpenTag> openTags, Tag tag) {
+        for (int i = openTags.size() - 1; i >= 0; i--) {
+            if (openTags.get(i).tag == tag) {
+                return i;
             }
-            
-            // Extract URL
-            String url = matcher.group(1);
-            
-            // Create interactive message with URL
-            InteractiveMessage message = InteractiveMessage.builder(url)
-                .withClickAction(InteractiveMessage.ClickAction.OPEN_URL, url)
-                .withColor(ChatColor.AQUA)
-                .withUnderlined(true)
-                .build();
-            
-            // Add to components
-            components.add(message.toTextComponent());
-            
-            // Update last index
-            lastIndex = matcher.end();
+        }
+        return -1;
+    }
+    
+    /**
+     * Gets the tag whose opening ("[name:") starts at a position.
+     *
+     * @param text The text being lexed
+     * @param index The position of the opening bracket
+     * @return The tag, or null if no opening tag starts there
+     */
+    private static Tag openingTagAt(String text, int index) {
+        for (Tag tag : Tag.values()) {
+            int colon = index + 1 + tag.name.length();
+            if (colon < text.length() && text.charAt(colon) == ':' && text.startsWith(tag.name, index + 1)) {
+                return tag;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Gets the tag whose closing ("[/name]") starts at a position.
+     *
+     * @param text The text being lexed
+     * @param index The position of the opening bracket
+     * @return The tag, or null if no closing tag starts there
+     */
+    private static Tag closingTagAt(String text, int index) {
+        if (index + 1 >= text.length() || text.charAt(index + 1) != '/') {
+            return null;
+        }
+        for (Tag tag : Tag.values()) {
+            if (text.startsWith(tag.closing, index)) {
+                return tag;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Gets the end of a URL starting at a position.
+     * A URL starts with http:// or https:// and runs up to the next whitespace or tag.
+     *
+     * @param text The text being lexed
+     * @param index The position to check
+     * @return The end of the URL (exclusive), or -1 if no URL starts there
+     */
+    private static int urlEndAt(String text, int index) {
+        int end;
+        if (text.startsWith("http://", index)) {
+            end = index + 7;
+        } else if (text.startsWith("https://", index)) {
+            end = index + 8;
+        } else {
+            return -1;
         }
         
-        // Return remaining text
-        return lastIndex > 0 ? text.substring(lastIndex) : text;
+        int hostStart = end;
+        int length = text.length();
+        while (end < length && !isWhitespace(text.charAt(end))) {
+            if (text.charAt(end) == '[' && (closingTagAt(text, end) != null || openingTagAt(text, end) != null)) {
+                break;
+            }
+            end++;
+        }
+        return end > hostStart ? end : -1;
+    }
+    
+    /**
+     * Checks if a character ends a URL, using the same whitespace characters as regular expressions.
+     *
+     * @param c The character to check
+     * @return true if the character is whitespace, false otherwise
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
-}
\ No newline at end of file
+}
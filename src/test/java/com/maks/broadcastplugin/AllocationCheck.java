@@ -0,0 +1,61 @@
+package com.maks.broadcastplugin;
+
+import com.maks.broadcastplugin.managers.BroadcastPathBenchmark;
+import com.maks.broadcastplugin.managers.CategoryBroadcastBenchmark;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+/**
+ * Runs the broadcast path benchmarks with the allocation profiler and fails if a cached static broadcast
+ * allocates.
+ *
+ * Broadcasting a cached static message should not allocate at all; the bound leaves a few bytes for
+ * profiler noise. The process exits with status 1 if any benchmark allocates more, so the
+ * allocation-check profile fails the build.
+ */
+public final class AllocationCheck {
+    // Highest allowed gc.alloc.rate.norm, in bytes per operation
+    private static final double MAX_BYTES_PER_OP = 8.0;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private AllocationCheck() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(BroadcastPathBenchmark.class.getName())
+            .include(CategoryBroadcastBenchmark.class.getName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        boolean failed = false;
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            Result<?> allocation = result.getSecondaryResults().get("gc.alloc.rate.norm");
+            if (allocation == null) {
+                System.err.println(benchmark + ": gc.alloc.rate.norm was not reported");
+                failed = true;
+            } else if (allocation.getScore() > MAX_BYTES_PER_OP) {
+                System.err.println(String.format("%s: %.2f B/op, expected at most %.2f B/op", benchmark,
+                                                 allocation.getScore(), MAX_BYTES_PER_OP));
+                failed = true;
+            } else {
+                System.out.println(String.format("%s: %.2f B/op", benchmark, allocation.getScore()));
+            }
+        }
+
+        if (failed || results.isEmpty()) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.maks.broadcastplugin;
+
+import com.maks.broadcastplugin.managers.ConfigManager;
+import com.maks.broadcastplugin.models.MessageCategory;
+import com.maks.broadcastplugin.rendering.ChatTransport;
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.objenesis.ObjenesisStd;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * A plugin instance for benchmarks, running the real managers outside a server.
+ *
+ * JavaPlugin can only be constructed by the server's plugin class loader, so the instance is created without
+ * running any constructor. The configuration is the bundled config.yml, read from the class path, and chat
+ * packets are handed to a transport that only counts them. Features that need a running server (placeholders,
+ * conditions, schedulers) are left disabled.
+ */
+public class BenchmarkPlugin extends BroadcastPlugin {
+    private FileConfiguration config;
+    private ConfigManager configManager;
+    private CountingTransport transport;
+
+    /**
+     * Creates a plugin instance with the bundled configuration.
+     *
+     * @return The plugin instance
+     */
+    public static BenchmarkPlugin create() {
+        BenchmarkPlugin plugin = new ObjenesisStd().newInstance(BenchmarkPlugin.class);
+        setLogger(plugin, Logger.getLogger("BroadcastPlugin"));
+        plugin.config = loadBundledConfig();
+        plugin.transport = new CountingTransport();
+        plugin.configManager = new ConfigManager(plugin);
+        return plugin;
+    }
+
+    /**
+     * Sets the logger the server's plugin class loader would have given the plugin.
+     *
+     * @param plugin The plugin instance
+     * @param logger The logger
+     */
+    private static void setLogger(JavaPlugin plugin, Logger logger) {
+        try {
+            Field field = JavaPlugin.class.getDeclaredField("logger");
+            field.setAccessible(true);
+            field.set(plugin, logger);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not set the plugin logger", e);
+        }
+    }
+
+    /**
+     * Loads a category file bundled with the plugin, the way ConfigManager reads it from the data folder.
+     *
+     * @param name The name of the category, such as "general"
+     * @return The category
+     */
+    public static MessageCategory loadBundledCategory(String name) {
+        FileConfiguration category = loadResource("/categories/" + name + ".yml");
+        List<String> messages = category.getStringList("messages");
+        return new MessageCategory(name, messages, category.getInt("interval") * 60 * 20,
+                                   category.getString("appearance.separator"),
+                                   category.getBoolean("appearance.enable_clickable_links"),
+                                   category.getBoolean("order.randomize_messages"),
+                                   category.getBoolean("appearance.single_packet"));
+    }
+
+    /**
+     * Loads the config.yml bundled with the plugin, in legacy broadcast mode.
+     *
+     * @return The configuration
+     */
+    private static FileConfiguration loadBundledConfig() {
+        FileConfiguration config = loadResource("/config.yml");
+        // Category files live in the data folder, which does not exist outside a server
+        config.set("categories.enabled", false);
+        return config;
+    }
+
+    /**
+     * Loads a YAML file from the class path.
+     *
+     * @param path The path of the file
+     * @return The configuration
+     */
+    private static FileConfiguration loadResource(String path) {
+        try (InputStream in = BenchmarkPlugin.class.getResourceAsStream(path);
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return YamlConfiguration.loadConfiguration(reader);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read the bundled " + path.substring(1), e);
+        }
+    }
+
+    @Override
+    public FileConfiguration getConfig() {
+        return config;
+    }
+
+    @Override
+    public void reloadConfig() {
+        // The configuration is only changed by the benchmark itself
+    }
+
+    @Override
+    public void saveDefaultConfig() {
+        // There is no data folder outside a server
+    }
+
+    @Override
+    public ConfigManager getConfigManager() {
+        return configManager;
+    }
+
+    @Override
+    public ChatTransport getChatTransport() {
+        return transport;
+    }
+
+    /**
+     * Gets the transport the plugin sends its packets to.
+     *
+     * @return The counting transport
+     */
+    public CountingTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * A chat transport that counts the packets it is asked to send instead of sending them.
+     */
+    public static class CountingTransport implements ChatTransport {
+        private long packets = 0;
+
+        @Override
+        public Object prepare(BaseComponent packet, String json) {
+            return json;
+        }
+
+        @Override
+        public Object convert(BaseComponent packet) {
+            return packet;
+        }
+
+        @Override
+        public void send(Player player, Object prepared) {
+            packets++;
+        }
+
+        @Override
+        public void broadcast(Object prepared) {
+            packets++;
+        }
+
+        @Override
+        public String getName() {
+            return "counting";
+        }
+
+        /**
+         * Gets the number of packets sent or broadcast so far.
+         *
+         * @return The number of packets
+         */
+        public long getPackets() {
+            return packets;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.maks.broadcastplugin.managers;
+
+import com.maks.broadcastplugin.BenchmarkPlugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time and allocation of broadcasting a cached static message.
+ *
+ * Every message of the bundled config.yml is compiled once in setup, so each invocation is the work of a
+ * scheduled broadcast: selecting the next message and handing its prepared packets to the transport.
+ * Run with -prof gc; gc.alloc.rate.norm should stay at about 0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastPathBenchmark {
+    private BenchmarkPlugin plugin;
+    private MessageManager messageManager;
+
+    @Setup
+    public void setUp() {
+        plugin = BenchmarkPlugin.create();
+        messageManager = new MessageManager(plugin, plugin.getConfigManager().getMessages());
+    }
+
+    @Benchmark
+    public long broadcastNextMessage() {
+        messageManager.broadcastNextMessage();
+        return plugin.getTransport().getPackets();
+    }
+}
@@ -0,0 +1,47 @@
+package com.maks.broadcastplugin.managers;
+
+import com.maks.broadcastplugin.BenchmarkPlugin;
+import com.maks.broadcastplugin.rendering.ComponentPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time and allocation of broadcasting a cached static message of a category.
+ *
+ * The bundled general category is compiled once in setup through a shared component pool, as
+ * CategoryManagerFactory does, so each invocation is the work of a scheduled category broadcast.
+ * Run with -prof gc; gc.alloc.rate.norm should stay at about 0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CategoryBroadcastBenchmark {
+    private BenchmarkPlugin plugin;
+    private CategoryMessageManager categoryManager;
+
+    @Setup
+    public void setUp() {
+        plugin = BenchmarkPlugin.create();
+        categoryManager = new CategoryMessageManager(plugin, BenchmarkPlugin.loadBundledCategory("general"),
+                                                     new ComponentPool(plugin));
+    }
+
+    @Benchmark
+    public long broadcastNextMessage() {
+        categoryManager.broadcastNextMessage();
+        return plugin.getTransport().getPackets();
+    }
+}
@@ -0,0 +1,148 @@
+package com.maks.broadcastplugin.placeholders;
+
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class CompiledPlaceholdersTest {
+    private final Map<String, PlaceholderBinding> bindings = new HashMap<>();
+
+    private void bind(String name, int slot, PlayerField field, PlaceholderProvider provider) {
+        bindings.put(name, new PlaceholderBinding(name, provider, slot, field));
+    }
+
+    private CompiledPlaceholders compile(String text) {
+        return CompiledPlaceholders.compile(text, bindings::get);
+    }
+
+    private static PlaceholderProvider counting(Volatility volatility, AtomicInteger calls) {
+        return PlaceholderProvider.of(volatility, player -> String.valueOf(calls.incrementAndGet()));
+    }
+
+    private static PlaceholderProvider neverCalled() {
+        return PlaceholderProvider.of(Volatility.PER_PLAYER, player -> {
+            fail("the value should have been read from the snapshot");
+            return null;
+        });
+    }
+
+    private static Player player(String name) {
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[] { Player.class },
+            (proxy, method, args) -> "getName".equals(method.getName()) ? name : null);
+    }
+
+    @Test
+    void unknownAndStaticPlaceholdersAreFoldedAtCompileTime() {
+        AtomicInteger calls = new AtomicInteger();
+        bind("server_name", 0, null, counting(Volatility.STATIC, calls));
+
+        CompiledPlaceholders compiled = compile("Welcome to {server_name}, {unknown} {}!");
+
+        assertEquals(0, compiled.getPlaceholderCount());
+        assertEquals(Volatility.STATIC, compiled.getVolatility());
+        assertEquals("Welcome to 1, {unknown} {}!", compiled.resolve(PlaceholderContext.EMPTY));
+        assertEquals("Welcome to 1, {unknown} {}!", compiled.resolve(PlaceholderContext.EMPTY));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void perTickValuesAreComputedOncePerScope() {
+        AtomicInteger calls = new AtomicInteger();
+        bind("online_players", 1, null, counting(Volatility.PER_TICK, calls));
+        CompiledPlaceholders compiled = compile("{online_players} online");
+        PlaceholderScope scope = new PlaceholderScope(2);
+
+        assertEquals("1 online", compiled.resolve(PlaceholderContext.forScope(scope)));
+        assertEquals("1 online", compiled.resolve(PlaceholderContext.forScope(scope)));
+        assertEquals(1, calls.get());
+
+        // Without a scope the value is computed on every use
+        assertEquals("2 online", compiled.resolve(PlaceholderContext.EMPTY));
+    }
+
+    @Test
+    void scopesComputePlaceholdersRegisteredAfterThemOnEveryUse() {
+        AtomicInteger calls = new AtomicInteger();
+        bind("time", 3, null, counting(Volatility.PER_TICK, calls));
+        CompiledPlaceholders compiled = compile("{time}");
+        PlaceholderScope scope = new PlaceholderScope(1);
+
+        assertEquals("1", compiled.resolve(PlaceholderContext.forScope(scope)));
+        assertEquals("2", compiled.resolve(PlaceholderContext.forScope(scope)));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void capturedPlayerValuesAreReadFromTheirSlot() {
+        bind("rank", 2, null, neverCalled());
+        PlayerSnapshot snapshot = new PlayerSnapshot(null, 0, null, new String[] { null, "other", "Gold" });
+
+        assertEquals("Rank: Gold", compile("Rank: {rank}").resolve(PlaceholderContext.forSnapshot(snapshot, null)));
+    }
+
+    @Test
+    void builtinPlayerPlaceholdersReadTheirSnapshotField() {
+        bind("player_name", 0, PlayerField.NAME, neverCalled());
+        PlayerSnapshot snapshot = new PlayerSnapshot(player("Steve"), PlayerField.NAME.getMask(), null, null);
+
+        assertEquals("Hi Steve", compile("Hi {player_name}").resolve(PlaceholderContext.forSnapshot(snapshot, null)));
+    }
+
+    @Test
+    void capturedValuesTakePrecedenceOverSnapshotFields() {
+        bind("player_name", 0, PlayerField.NAME, neverCalled());
+        PlayerSnapshot snapshot = new PlayerSnapshot(player("Steve"), PlayerField.NAME.getMask(), null,
+                                                     new String[] { "Cached" });
+
+        assertEquals("Hi Cached", compile("Hi {player_name}").resolve(PlaceholderContext.forSnapshot(snapshot, null)));
+    }
+
+    @Test
+    void missingPlayerValuesKeepThePlaceholderText() {
+        bind("rank", 0, null, neverCalled());
+        bind("player_name", 1, PlayerField.NAME, neverCalled());
+        PlayerSnapshot snapshot = new PlayerSnapshot(null, 0, null, null);
+
+        assertEquals("{rank} {player_name}",
+                     compile("{rank} {player_name}").resolve(PlaceholderContext.forSnapshot(snapshot, null)));
+    }
+
+    @Test
+    void livePlayerValuesAreReadFromTheProvider() {
+        bind("player_name", 0, PlayerField.NAME, PlaceholderProvider.player(Player::getName));
+
+        assertEquals("Hi Alex", compile("Hi {player_name}").resolve(PlaceholderContext.forPlayer(player("Alex"), null)));
+        assertEquals("Hi {player_name}", compile("Hi {player_name}").resolve(PlaceholderContext.EMPTY));
+    }
+
+    @Test
+    void threadSafeProvidersAreCalledForTheRecipient() {
+        bind("balance", 0, null, PlaceholderProvider.of(Volatility.PER_PLAYER, true,
+            player -> player != null ? player.getName() + "'s balance" : null));
+        PlayerSnapshot snapshot = new PlayerSnapshot(player("Steve"), 0, null, null);
+
+        assertEquals("Steve's balance", compile("{balance}").resolve(PlaceholderContext.forSnapshot(snapshot, null)));
+    }
+
+    @Test
+    void placeholderApiTokensAreBoundSeparately() {
+        AtomicInteger calls = new AtomicInteger();
+        bind("online_players", 0, null, counting(Volatility.PER_TICK, calls));
+
+        CompiledPlaceholders compiled = CompiledPlaceholders.compile("%vault_eco_balance% and {online_players} at 50%",
+            bindings::get, token -> PlaceholderProvider.of(Volatility.PER_CALL, player -> token.toUpperCase()));
+
+        assertEquals(1, compiled.getPlaceholderApiTokenCount());
+        assertEquals(Volatility.PER_CALL, compiled.getVolatility());
+        assertEquals(Arrays.asList("online_players"), compiled.getPlaceholderNames());
+        assertEquals("%VAULT_ECO_BALANCE% and 1 at 50%", compiled.resolve(PlaceholderContext.EMPTY));
+    }
+}
@@ -0,0 +1,107 @@
+package com.maks.broadcastplugin.placeholders;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares resolving a message for one recipient with compiled placeholders against the regular expression
+ * replacement they replaced.
+ *
+ * Both paths fill in the same server-wide and captured player values. The regex path looks every placeholder
+ * up by name, as PlaceholderManager did before texts were compiled; the compiled path reads the broadcast's
+ * scope and the recipient's snapshot by slot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaceholderResolutionBenchmark {
+    private static final String MESSAGE = "Welcome {player}! There are {online_players}/{max_players} players online " +
+                                          "on {server_name}. Rank: {rank}, world: {player_world}, unknown: {nothing}";
+
+    // Regex path
+    private final Pattern placeholderPattern = Pattern.compile("\\{([^{}]+)\\}");
+    private final Map<String, Supplier<String>> serverPlaceholders = new HashMap<>();
+    private final Map<String, String> playerValues = new HashMap<>();
+
+    // Compiled path
+    private CompiledPlaceholders compiled;
+    private PlaceholderContext context;
+
+    @Setup
+    public void setUp() {
+        serverPlaceholders.put("online_players", () -> "42");
+        serverPlaceholders.put("max_players", () -> "100");
+        serverPlaceholders.put("server_name", () -> "Paper");
+        playerValues.put("player", "Steve");
+        playerValues.put("rank", "Gold");
+        playerValues.put("player_world", "world");
+
+        Map<String, PlaceholderBinding> bindings = new HashMap<>();
+        bindings.put("server_name", new PlaceholderBinding("server_name",
+            PlaceholderProvider.server(Volatility.STATIC, () -> "Paper"), 0, null));
+        bindings.put("online_players", new PlaceholderBinding("online_players",
+            PlaceholderProvider.server(Volatility.PER_TICK, () -> "42"), 1, null));
+        bindings.put("max_players", new PlaceholderBinding("max_players",
+            PlaceholderProvider.server(Volatility.PER_TICK, () -> "100"), 2, null));
+        bindings.put("player", new PlaceholderBinding("player", PlaceholderProvider.player(player -> null), 3, null));
+        bindings.put("rank", new PlaceholderBinding("rank", PlaceholderProvider.player(player -> null), 4, null));
+        bindings.put("player_world", new PlaceholderBinding("player_world", PlaceholderProvider.player(player -> null), 5, null));
+        compiled = CompiledPlaceholders.compile(MESSAGE, bindings::get);
+
+        // The scope is filled once per broadcast and the snapshot once per recipient, before rendering
+        PlaceholderScope scope = new PlaceholderScope(bindings.size());
+        for (PlaceholderBinding binding : bindings.values()) {
+            if (binding.getProvider().getVolatility() == Volatility.PER_TICK) {
+                scope.get(binding.getSlot(), binding.getProvider());
+            }
+        }
+        String[] values = new String[bindings.size()];
+        values[3] = "Steve";
+        values[4] = "Gold";
+        values[5] = "world";
+        context = PlaceholderContext.forSnapshot(new PlayerSnapshot(null, 0, null, values), scope);
+    }
+
+    @Benchmark
+    public String regexReplace() {
+        Matcher matcher = placeholderPattern.matcher(MESSAGE);
+        StringBuffer result = new StringBuffer();
+        while (matcher.find()) {
+            String placeholder = matcher.group(1);
+            String replacement;
+            Supplier<String> supplier = serverPlaceholders.get(placeholder);
+            if (supplier != null) {
+                replacement = supplier.get();
+            } else {
+                String value = playerValues.get(placeholder);
+                replacement = value != null ? value : "{" + placeholder + "}";
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    @Benchmark
+    public String compiledResolve() {
+        return compiled.resolve(context);
+    }
+}
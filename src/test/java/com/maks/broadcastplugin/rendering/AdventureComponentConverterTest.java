@@ -0,0 +1,72 @@
+package com.maks.broadcastplugin.rendering;
+
+import com.maks.broadcastplugin.utils.InteractiveMessageParser;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import net.md_5.bungee.api.ChatColor;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.ClickEvent;
+import net.md_5.bungee.api.chat.HoverEvent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.api.chat.hover.content.Text;
+import net.md_5.bungee.chat.ComponentSerializer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdventureComponentConverterTest {
+    private final InteractiveMessageParser parser = new InteractiveMessageParser(null);
+
+    private static Component viaJson(BaseComponent component) {
+        return GsonComponentSerializer.gson().deserialize(ComponentSerializer.toString(component));
+    }
+
+    private static void assertSameAsJson(BaseComponent component) {
+        assertEquals(viaJson(component), AdventureComponentConverter.convert(component));
+    }
+
+    @Test
+    void compiledMessagesMatchTheJsonRoundTrip() {
+        String[] messages = {
+            "&6&lWelcome &r&7to the server!",
+            "Visit https://example.com for &#55FF55news",
+            "[hover:Click to vote]&aVote[/hover] or [command:/spawn]&bgo home[/command]",
+        };
+        TextComponent separator = new TextComponent("&7------");
+        for (String message : messages) {
+            MessageTemplate template = MessageTemplate.compile(message, parser, true, null);
+            for (BaseComponent packet : BroadcastPayload.of(separator, template.render(null), true).compact().getPackets()) {
+                assertSameAsJson(packet);
+            }
+        }
+    }
+
+    @Test
+    void childrenDoNotCopyTheFontTheyInherit() {
+        TextComponent parent = new TextComponent("parent ");
+        parent.setFont("minecraft:uniform");
+        parent.setColor(ChatColor.GOLD);
+        TextComponent child = new TextComponent("child");
+        parent.addExtra(child);
+
+        Component converted = AdventureComponentConverter.convert(parent);
+
+        assertSameAsJson(parent);
+        assertNull(converted.children().get(0).style().font());
+        assertNull(converted.children().get(0).style().color());
+    }
+
+    @Test
+    void eventsAndDecorationsAreCopied() {
+        TextComponent component = new TextComponent("vote");
+        component.setBold(true);
+        component.setItalic(false);
+        component.setColor(ChatColor.of("#123456"));
+        component.setInsertion("vote");
+        component.setClickEvent(new ClickEvent(ClickEvent.Action.RUN_COMMAND, "/vote"));
+        component.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, new Text("Click to vote")));
+
+        assertSameAsJson(component);
+    }
+}
@@ -0,0 +1,69 @@
+package com.maks.broadcastplugin.rendering;
+
+import com.maks.broadcastplugin.BenchmarkPlugin;
+import com.maks.broadcastplugin.utils.InteractiveMessageParser;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.chat.ComponentSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways of getting compiled packets into Adventure form on Paper.
+ *
+ * Every message of the bundled config.yml is compiled and compacted in setup. Each invocation converts all of
+ * those packets, either through a JSON round trip as the BungeeCord path does or with AdventureComponentConverter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdventureConversionBenchmark {
+    private BaseComponent[] packets;
+
+    @Setup
+    public void setUp() {
+        BenchmarkPlugin plugin = BenchmarkPlugin.create();
+        InteractiveMessageParser parser = new InteractiveMessageParser(plugin);
+        TextComponent separator = new TextComponent(
+            plugin.getConfig().getString("broadcast.appearance.separator", "------------------------------"));
+
+        List<BaseComponent> compiled = new ArrayList<>();
+        for (String message : plugin.getConfigManager().getMessages()) {
+            MessageTemplate template = MessageTemplate.compile(message, parser, true, null);
+            compiled.addAll(Arrays.asList(BroadcastPayload.of(separator, template.render(null), true).compact().getPackets()));
+        }
+        packets = compiled.toArray(new BaseComponent[0]);
+    }
+
+    @Benchmark
+    public void jsonRoundTrip(Blackhole blackhole) {
+        for (BaseComponent packet : packets) {
+            blackhole.consume(GsonComponentSerializer.gson().deserialize(ComponentSerializer.toString(packet)));
+        }
+    }
+
+    @Benchmark
+    public void directConversion(Blackhole blackhole) {
+        for (BaseComponent packet : packets) {
+            blackhole.consume(AdventureComponentConverter.convert(packet));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.maks.broadcastplugin.rendering;
+
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.chat.ComponentSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class BroadcastPayloadTest {
+
+    @Test
+    void singlePacketsDoNotAdoptSharedComponents() {
+        TextComponent separator = new TextComponent("---");
+        List<TextComponent> lines = Arrays.asList(new TextComponent("one"), new TextComponent("two"));
+
+        BaseComponent[] packets = BroadcastPayload.of(separator, lines, true).getPackets();
+
+        assertEquals(1, packets.length);
+        List<BaseComponent> parts = packets[0].getExtra();
+        assertEquals(7, parts.size());
+        assertNotSame(separator, parts.get(0));
+        assertNotSame(lines.get(0), parts.get(2));
+        assertNotSame(lines.get(1), parts.get(4));
+        assertNotSame(separator, parts.get(6));
+        assertEquals("---\none\ntwo\n---", packets[0].toPlainText());
+    }
+
+    @Test
+    void separatePacketsKeepTheirOrder() {
+        TextComponent separator = new TextComponent("---");
+        List<TextComponent> lines = Arrays.asList(new TextComponent("one"), new TextComponent("two"));
+
+        BaseComponent[] packets = BroadcastPayload.of(separator, lines, false).getPackets();
+
+        assertEquals(4, packets.length);
+        assertEquals("{\"text\":\"---\"}", ComponentSerializer.toString(packets[3]));
+        assertEquals("one", packets[1].toPlainText());
+    }
+}
@@ -0,0 +1,106 @@
+package com.maks.broadcastplugin.rendering;
+
+import com.maks.broadcastplugin.BenchmarkPlugin;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledMessageCacheTest {
+    private final List<Integer> compiled = new ArrayList<>();
+
+    private CompiledMessageCache.CompiledMessage compile(int index) {
+        compiled.add(index);
+        BroadcastPayload payload = BroadcastPayload.of(new TextComponent("message " + index),
+                                                       Collections.<TextComponent>emptyList(), false)
+            .prepare(new BenchmarkPlugin.CountingTransport());
+        return new CompiledMessageCache.CompiledMessage(MessageTemplate.of(Collections.<LineTemplate>emptyList()), payload);
+    }
+
+    /**
+     * Creates a cache that holds the given number of messages; all test messages have the same size.
+     */
+    private CompiledMessageCache cacheFor(int messages) {
+        CompiledMessageCache probe = new CompiledMessageCache(this::compile, Long.MAX_VALUE);
+        probe.get(0);
+        compiled.clear();
+        return new CompiledMessageCache(this::compile, probe.getUsedBytes() * messages);
+    }
+
+    @Test
+    void messagesAreCompiledOnceAndThenServedFromTheCache() {
+        CompiledMessageCache cache = cacheFor(2);
+
+        CompiledMessageCache.CompiledMessage first = cache.get(1);
+        assertSame(first, cache.get(1));
+
+        assertEquals(Collections.singletonList(1), compiled);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    void leastRecentlyBroadcastMessagesAreEvictedOverTheCap() {
+        CompiledMessageCache cache = cacheFor(2);
+        cache.get(1);
+        cache.get(2);
+        cache.get(1);
+        cache.get(3);
+
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictionCount());
+        assertTrue(cache.getUsedBytes() <= cache.getMaxBytes());
+
+        // 1 was used more recently than 2, so only 2 has to be compiled again
+        cache.get(1);
+        cache.get(2);
+        assertEquals(Arrays.asList(1, 2, 3, 2), compiled);
+    }
+
+    @Test
+    void messageLargerThanTheCapIsStillServed() {
+        CompiledMessageCache cache = new CompiledMessageCache(this::compile, 1);
+
+        cache.get(1);
+        cache.get(1);
+
+        assertEquals(1, cache.getSize());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    void prewarmingCompilesWithoutCountingSelections() {
+        CompiledMessageCache cache = cacheFor(2);
+
+        assertTrue(cache.prewarm(1));
+        assertFalse(cache.prewarm(1));
+        assertEquals(0, cache.getHitCount() + cache.getMissCount());
+
+        cache.get(1);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(Collections.singletonList(1), compiled);
+    }
+
+    @Test
+    void clearingRemovesMessagesAndStatistics() {
+        CompiledMessageCache cache = cacheFor(1);
+        cache.get(1);
+        cache.get(2);
+
+        cache.clear();
+
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getUsedBytes());
+        assertEquals(0, cache.getMissCount() + cache.getHitCount() + cache.getEvictionCount());
+    }
+}
@@ -0,0 +1,164 @@
+package com.maks.broadcastplugin.rendering;
+
+import net.md_5.bungee.api.ChatColor;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.ClickEvent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.chat.ComponentSerializer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComponentCompactorTest {
+
+    private static TextComponent text(String text, ChatColor color) {
+        TextComponent component = new TextComponent(text);
+        component.setColor(color);
+        return component;
+    }
+
+    private static TextComponent compact(BaseComponent component) {
+        BaseComponent compacted = ComponentCompactor.compact(component);
+        assertTrue(ComponentSerializer.toString(compacted).length() <= ComponentSerializer.toString(component).length());
+        return (TextComponent) compacted;
+    }
+
+    @Test
+    void nestedTextWithTheSameStyleIsMergedIntoOneComponent() {
+        TextComponent gold = text("Hello ", ChatColor.GOLD);
+        gold.addExtra(new TextComponent("big "));
+        TextComponent root = new TextComponent("");
+        root.addExtra(gold);
+        root.addExtra(text("world", ChatColor.GOLD));
+
+        TextComponent compacted = compact(root);
+
+        assertEquals("Hello big world", compacted.getText());
+        assertEquals(ChatColor.GOLD, compacted.getColorRaw());
+        assertNull(compacted.getExtra());
+    }
+
+    @Test
+    void textWithDifferentStylesBecomesFlatChildren() {
+        TextComponent link = new TextComponent("here");
+        link.setClickEvent(new ClickEvent(ClickEvent.Action.OPEN_URL, "https://example.com"));
+        TextComponent wrapper = new TextComponent("");
+        wrapper.addExtra(link);
+        TextComponent root = new TextComponent("Click ");
+        root.addExtra(wrapper);
+        root.addExtra(new TextComponent("!"));
+
+        TextComponent compacted = compact(root);
+
+        assertEquals("Click ", compacted.getText());
+        assertEquals(2, compacted.getExtra().size());
+        assertEquals("here", ((TextComponent) compacted.getExtra().get(0)).getText());
+        assertEquals("https://example.com", compacted.getExtra().get(0).getClickEvent().getValue());
+        assertNull(compacted.getExtra().get(0).getExtra());
+        assertNull(compacted.getExtra().get(1).getClickEvent());
+    }
+
+    @Test
+    void unusedStyleFieldsAreDropped() {
+        TextComponent component = new TextComponent("plain");
+        component.setBold(false);
+        component.setItalic(false);
+
+        assertEquals("{\"text\":\"plain\"}", ComponentSerializer.toString(compact(component)));
+    }
+
+    @Test
+    void flattenedChildrenKeepTheStyleTheyInherited() {
+        TextComponent bold = new TextComponent("");
+        bold.setBold(true);
+        bold.addExtra(text("A", ChatColor.RED));
+        bold.addExtra(text("B", ChatColor.BLUE));
+        TextComponent root = new TextComponent("");
+        root.addExtra(bold);
+
+        TextComponent compacted = compact(root);
+
+        assertEquals("", compacted.getText());
+        BaseComponent first = compacted.getExtra().get(0);
+        BaseComponent second = compacted.getExtra().get(1);
+        assertEquals(ChatColor.RED, first.getColorRaw());
+        assertEquals(ChatColor.BLUE, second.getColorRaw());
+        assertEquals(Boolean.TRUE, first.isBoldRaw());
+        assertEquals(Boolean.TRUE, second.isBoldRaw());
+        assertNull(first.getExtra());
+    }
+
+    @Test
+    void treesThatAreAlreadySmallerAreReturnedAsTheyAre() {
+        TextComponent root = text("A", ChatColor.RED);
+        root.setBold(true);
+        root.addExtra(text("B", ChatColor.BLUE));
+
+        assertSame(root, ComponentCompactor.compact(root));
+    }
+
+    @Test
+    void sizesAreReportedForTheChosenTree() {
+        TextComponent root = new TextComponent("");
+        root.addExtra(text("Hello", ChatColor.GOLD));
+
+        ComponentCompactor.Result result = ComponentCompactor.compactWithSizes(root);
+
+        assertEquals(ComponentSerializer.toString(root).length(), result.getOriginalSize());
+        assertEquals(ComponentSerializer.toString(result.getComponent()).length(), result.getCompactedSize());
+        assertTrue(result.getCompactedSize() < result.getOriginalSize());
+    }
+
+    @Test
+    void legacyCodesAreConvertedWhenThatIsSmaller() {
+        TextComponent root = new TextComponent("");
+        root.addExtra(new TextComponent(ChatColor.GOLD + "a"));
+        root.addExtra(new TextComponent(ChatColor.GOLD + "b"));
+
+        TextComponent compacted = compact(root);
+
+        assertEquals("ab", compacted.getText());
+        assertEquals(ChatColor.GOLD, compacted.getColorRaw());
+    }
+
+    @Test
+    void legacyCodesAreKeptWhenThatIsSmaller() {
+        TextComponent compacted = compact(new TextComponent(ChatColor.GOLD + "Hello"));
+
+        assertEquals(ChatColor.GOLD + "Hello", compacted.getText());
+        assertNull(compacted.getColorRaw());
+    }
+
+    @Test
+    void legacyCodesDoNotCarryOverIntoMergedText() {
+        TextComponent root = new TextComponent("");
+        root.addExtra(new TextComponent(ChatColor.GOLD + "gold"));
+        root.addExtra(new TextComponent(" plain"));
+
+        TextComponent compacted = compact(root);
+
+        // The plain text never shares a component with the code, so it stays uncolored
+        for (BaseComponent part : compacted.getExtra()) {
+            String text = ((TextComponent) part).getText();
+            if (text.contains("plain")) {
+                assertEquals(" plain", text);
+                assertNull(part.getColorRaw());
+            }
+        }
+    }
+
+    @Test
+    void inputIsNotModified() {
+        TextComponent child = text("child", ChatColor.GREEN);
+        TextComponent root = new TextComponent("root ");
+        root.addExtra(child);
+        String before = ComponentSerializer.toString(root);
+
+        ComponentCompactor.compact(root);
+
+        assertEquals(before, ComponentSerializer.toString(root));
+    }
+}
@@ -0,0 +1,129 @@
+package com.maks.broadcastplugin.rendering;
+
+import net.md_5.bungee.api.chat.TextComponent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComponentPoolTest {
+    private final ComponentPool pool = new ComponentPool(null);
+
+    @Test
+    void identicalLinesAreParsedOnceAndShared() {
+        TextComponent first = pool.template("  Visit https://example.com  ", true, null).render(null);
+        TextComponent second = pool.template("Visit https://example.com", true, null).render(null);
+
+        assertSame(first, second);
+        assertEquals(1, pool.getHitCount());
+        assertEquals(1, pool.getMissCount());
+        assertEquals(1, pool.getParsedCount());
+        assertEquals(1, pool.getUniqueCount());
+    }
+
+    @Test
+    void clickableLinksAreSeparateEntries() {
+        assertNotSame(pool.template("Visit https://example.com", true, null).render(null),
+                      pool.template("Visit https://example.com", false, null).render(null));
+        assertEquals(2, pool.getUniqueCount());
+    }
+
+    @Test
+    void emptyLinesAreNotPooled() {
+        assertNull(pool.template("   ", true, null));
+        assertNull(pool.template("", true, null));
+        assertEquals(0, pool.getHitCount() + pool.getMissCount());
+    }
+
+    @Test
+    void everyRequestCountsOneHitOrMiss() {
+        pool.template("No placeholders here", true, null);
+        pool.template("No placeholders here", true, null);
+        pool.template("Hello {player}", true, null);
+        pool.template("Hello {player}", true, null);
+        pool.separator("-----");
+        pool.separator("-----");
+
+        assertEquals(3, pool.getHitCount());
+        assertEquals(3, pool.getMissCount());
+        assertEquals(2, pool.getParsedCount());
+        assertEquals(0.5, pool.getHitRatio());
+    }
+
+    @Test
+    void identicalSeparatorsAreShared() {
+        assertSame(pool.separator("-----"), pool.separator("-----"));
+        assertEquals(1, pool.getUniqueCount());
+    }
+
+    @Test
+    void separatorsAreNotParsedOrBundled() {
+        pool.separator("-----");
+
+        assertEquals(0, pool.getParsedCount());
+        assertTrue(pool.getParsedLines().isEmpty());
+    }
+
+    @Test
+    void bundledLinesAreLoadedInsteadOfParsed() {
+        ComponentPool previous = new ComponentPool(null);
+        previous.template("Line one", true, null);
+        previous.template("Hello {player}", false, null);
+
+        pool.loadBundle(previous.getParsedLines());
+        pool.template("Line one", true, null);
+        pool.template("Hello {player}", false, null);
+        pool.template("Line two", true, null);
+
+        assertEquals(3, pool.getMissCount());
+        assertEquals(2, pool.getLoadedCount());
+        assertEquals(1, pool.getParsedCount());
+    }
+
+    @Test
+    void startReloadResetsCountersAndKeepsLines() {
+        TextComponent line = pool.template("Kept", true, null).render(null);
+        pool.startReload();
+
+        assertEquals(0, pool.getMissCount());
+        assertSame(line, pool.template("Kept", true, null).render(null));
+        assertEquals(1, pool.getHitCount());
+        assertEquals(0, pool.getMissCount());
+    }
+
+    @Test
+    void leastRecentlyUsedLineIsEvictedWhenFull() {
+        for (int i = 0; i < 4096; i++) {
+            pool.template("Line " + i, true, null);
+        }
+        // Using the oldest line makes line 1 the least recently used
+        pool.template("Line 0", true, null);
+        pool.template("Line 4096", true, null);
+        assertEquals(4096, pool.getUniqueCount());
+
+        pool.startReload();
+        pool.template("Line 0", true, null);
+        assertEquals(1, pool.getHitCount());
+        pool.template("Line 1", true, null);
+        assertEquals(1, pool.getMissCount());
+    }
+
+    @Test
+    void clearDropsLinesAndBundle() {
+        ComponentPool previous = new ComponentPool(null);
+        previous.template("Line one", true, null);
+        pool.loadBundle(previous.getParsedLines());
+        pool.template("Line two", true, null);
+
+        pool.clear();
+        pool.template("Line one", true, null);
+
+        assertEquals(0, pool.getLoadedCount());
+        assertEquals(1, pool.getParsedCount());
+        assertFalse(pool.getParsedLines().isEmpty());
+    }
+}
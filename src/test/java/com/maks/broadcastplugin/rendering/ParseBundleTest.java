@@ -0,0 +1,133 @@
+package com.maks.broadcastplugin.rendering;
+
+import com.maks.broadcastplugin.models.InteractiveMessage;
+import com.maks.broadcastplugin.models.InteractiveMessage.ClickAction;
+import com.maks.broadcastplugin.utils.InteractiveMessageParser;
+import net.md_5.bungee.api.ChatColor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParseBundleTest {
+    @TempDir
+    File folder;
+
+    @Test
+    void roundTripKeepsEverySegmentField() throws IOException {
+        Map<String, List<InteractiveMessage>> lines = new LinkedHashMap<>();
+        lines.put("true\u0000Hello [hover:Hi]world[/hover]", Arrays.asList(
+            InteractiveMessage.builder("Hello ").build(),
+            InteractiveMessage.builder("world")
+                .withHoverText("Hi")
+                .withClickAction(ClickAction.RUN_COMMAND, "/spawn")
+                .withColor(ChatColor.GOLD)
+                .withBold(true)
+                .withUnderlined(true)
+                .withObfuscated(true)
+                .build()));
+        lines.put("false\u0000\u00a76Za\u017c\u00f3\u0142\u0107", Collections.singletonList(
+            InteractiveMessage.builder("\u00a76Za\u017c\u00f3\u0142\u0107")
+                .withColor(ChatColor.of("#12ab34"))
+                .withItalic(true)
+                .withStrikethrough(true)
+                .build()));
+        lines.put("true\u0000", Collections.emptyList());
+
+        File file = new File(folder, "parse-bundle.bin");
+        ParseBundle.write(file, "1.0", "hash", lines);
+        Map<String, List<InteractiveMessage>> read = ParseBundle.read(file, "1.0", "hash");
+
+        assertNotNull(read);
+        assertEquals(lines.keySet(), read.keySet());
+        for (Map.Entry<String, List<InteractiveMessage>> line : lines.entrySet()) {
+            List<InteractiveMessage> expected = line.getValue();
+            List<InteractiveMessage> actual = read.get(line.getKey());
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertSegmentEquals(expected.get(i), actual.get(i));
+            }
+        }
+    }
+
+    @Test
+    void mismatchedKeyIsIgnored() throws IOException {
+        File file = new File(folder, "parse-bundle.bin");
+        ParseBundle.write(file, "1.0", "hash", Collections.emptyMap());
+
+        assertNotNull(ParseBundle.read(file, "1.0", "hash"));
+        assertNull(ParseBundle.read(file, "1.1", "hash"));
+        assertNull(ParseBundle.read(file, "1.0", "other"));
+        assertNull(ParseBundle.read(new File(folder, "missing.bin"), "1.0", "hash"));
+    }
+
+    @Test
+    void bundleOfAnotherParserVersionIsIgnored() throws IOException {
+        File file = new File(folder, "parse-bundle.bin");
+        ParseBundle.write(file, "1.0", "hash", Collections.emptyMap());
+
+        // The parser version follows the magic number and the format version
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file.toPath()))) {
+            out.write(bytes, 0, 8);
+            out.writeInt(InteractiveMessageParser.PARSER_VERSION + 1);
+            out.write(bytes, 12, bytes.length - 12);
+        }
+
+        assertNull(ParseBundle.read(file, "1.0", "hash"));
+    }
+
+    @Test
+    void truncatedBundleIsReportedAsCorrupt() throws IOException {
+        File file = new File(folder, "parse-bundle.bin");
+        ParseBundle.write(file, "1.0", "hash", Collections.singletonMap("key",
+            Collections.singletonList(InteractiveMessage.builder("text").build())));
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThrows(IOException.class, () -> ParseBundle.read(file, "1.0", "hash"));
+    }
+
+    @Test
+    void hashChangesWithContentAndName() throws IOException {
+        File a = new File(folder, "a.yml");
+        File b = new File(folder, "b.yml");
+        Files.write(a.toPath(), "messages: [one]".getBytes("UTF-8"));
+        Files.write(b.toPath(), "messages: [one]".getBytes("UTF-8"));
+
+        String hash = ParseBundle.hashSources(Collections.singletonList(a));
+        assertEquals(hash, ParseBundle.hashSources(Collections.singletonList(a)));
+        assertNotEquals(hash, ParseBundle.hashSources(Collections.singletonList(b)));
+
+        Files.write(a.toPath(), "messages: [two]".getBytes("UTF-8"));
+        assertNotEquals(hash, ParseBundle.hashSources(Collections.singletonList(a)));
+    }
+
+    private static void assertSegmentEquals(InteractiveMessage expected, InteractiveMessage actual) {
+        assertEquals(expected.getText(), actual.getText());
+        assertEquals(expected.getHoverText(), actual.getHoverText());
+        assertEquals(expected.getClickAction(), actual.getClickAction());
+        assertEquals(expected.getClickValue(), actual.getClickValue());
+        assertEquals(expected.getColor(), actual.getColor());
+        assertEquals(expected.isBold(), actual.isBold());
+        assertEquals(expected.isItalic(), actual.isItalic());
+        assertEquals(expected.isUnderlined(), actual.isUnderlined());
+        assertEquals(expected.isStrikethrough(), actual.isStrikethrough());
+        assertEquals(expected.isObfuscated(), actual.isObfuscated());
+    }
+}
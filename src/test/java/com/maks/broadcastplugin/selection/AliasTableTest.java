@@ -0,0 +1,77 @@
+package com.maks.broadcastplugin.selection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AliasTableTest {
+    private static final int DRAWS = 200_000;
+
+    private final AliasTable table = new AliasTable();
+    private final Random random = new Random(42);
+
+    private int[] draw(int messageCount) {
+        int[] counts = new int[messageCount];
+        for (int i = 0; i < DRAWS; i++) {
+            counts[table.sample(random)]++;
+        }
+        return counts;
+    }
+
+    @Test
+    void emptyTableDrawsNothing() {
+        table.build(new int[0], new double[0], 0);
+
+        assertEquals(0, table.size());
+        assertEquals(-1, table.sample(random));
+    }
+
+    @Test
+    void singleMessageIsAlwaysDrawn() {
+        table.build(new int[] { 3 }, new double[] { 0, 0, 0, 0.5 }, 1);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(3, table.sample(random));
+        }
+    }
+
+    @Test
+    void messagesAreDrawnInProportionToTheirWeights() {
+        double[] weights = { 1, 0, 2, 0, 7 };
+        table.build(new int[] { 0, 2, 4 }, weights, 3);
+
+        int[] counts = draw(weights.length);
+
+        assertEquals(0, counts[1]);
+        assertEquals(0, counts[3]);
+        assertEquals(0.1, counts[0] / (double) DRAWS, 0.01);
+        assertEquals(0.2, counts[2] / (double) DRAWS, 0.01);
+        assertEquals(0.7, counts[4] / (double) DRAWS, 0.01);
+    }
+
+    @Test
+    void equalWeightsAreUniform() {
+        double[] weights = { 1, 1, 1, 1 };
+        table.build(new int[] { 0, 1, 2, 3 }, weights, 4);
+
+        for (int count : draw(weights.length)) {
+            assertEquals(0.25, count / (double) DRAWS, 0.01);
+        }
+    }
+
+    @Test
+    void rebuildingWithFewerMessagesIgnoresTheOldColumns() {
+        double[] weights = { 5, 1, 1, 1 };
+        table.build(new int[] { 0, 1, 2, 3 }, weights, 4);
+        table.build(new int[] { 1, 2, 0, 3 }, weights, 2);
+
+        int[] counts = draw(weights.length);
+
+        assertEquals(2, table.size());
+        assertEquals(0, counts[0]);
+        assertEquals(0, counts[3]);
+        assertEquals(0.5, counts[1] / (double) DRAWS, 0.01);
+    }
+}
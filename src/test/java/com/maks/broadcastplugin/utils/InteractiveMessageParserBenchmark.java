@@ -0,0 +1,136 @@
+package com.maks.broadcastplugin.utils;
+
+import com.maks.broadcastplugin.models.InteractiveMessage;
+import net.md_5.bungee.api.ChatColor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares parsing message lines into segments with the single-pass lexer against the four regular
+ * expression passes it replaced.
+ *
+ * The lines use every kind of interactive element in the order the regex parser handled them, so both
+ * parsers produce the same segments. The regex path runs one pass per tag type and one for URLs, each
+ * scanning and copying the text the previous pass left over.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InteractiveMessageParserBenchmark {
+    private static final String[] LINES = {
+        "\u00a76Welcome to the server! Type \u00a7e/help \u00a76to get started.",
+        "\u00a7bJoin our Discord community! \u00a7eLink: \u00a7ahttps://discord.gg/example",
+        "[hover:\u00a7eOpens the rules]\u00a7aRead the rules[/hover] \u00a77or " +
+            "[command:/spawn]\u00a7bteleport to spawn[/command] \u00a77or " +
+            "[suggest:/msg admin ]\u00a7cmessage an admin[/suggest] \u00a77- https://example.com/rules"
+    };
+
+    // Regex path
+    private static final Pattern HOVER_PATTERN = Pattern.compile("\\[hover:([^\\]]+)\\]([^\\[]+)\\[/hover\\]");
+    private static final Pattern COMMAND_PATTERN = Pattern.compile("\\[command:([^\\]]+)\\]([^\\[]+)\\[/command\\]");
+    private static final Pattern SUGGEST_PATTERN = Pattern.compile("\\[suggest:([^\\]]+)\\]([^\\[]+)\\[/suggest\\]");
+    private static final Pattern URL_PATTERN = Pattern.compile("(https?://\\S+)");
+
+    // Lexer path
+    private final InteractiveMessageParser parser = new InteractiveMessageParser(null);
+
+    @Benchmark
+    public int regexParse() {
+        int segments = 0;
+        for (String line : LINES) {
+            segments += regexParseSegments(line).size();
+        }
+        return segments;
+    }
+
+    @Benchmark
+    public int lexerParse() {
+        int segments = 0;
+        for (String line : LINES) {
+            segments += parser.parseSegments(line, true).size();
+        }
+        return segments;
+    }
+
+    /**
+     * Parses a line the way InteractiveMessageParser did before the lexer: hover, command and suggest tags,
+     * then URLs, each in its own pass over the text left by the previous one.
+     *
+     * @param text The line to parse
+     * @return The segments of the line
+     */
+    private static List<InteractiveMessage> regexParseSegments(String text) {
+        List<InteractiveMessage> segments = new ArrayList<>();
+        text = regexPass(text, HOVER_PATTERN, segments, null);
+        text = regexPass(text, COMMAND_PATTERN, segments, InteractiveMessage.ClickAction.RUN_COMMAND);
+        text = regexPass(text, SUGGEST_PATTERN, segments, InteractiveMessage.ClickAction.SUGGEST_COMMAND);
+
+        Matcher matcher = URL_PATTERN.matcher(text);
+        int lastIndex = 0;
+        while (matcher.find()) {
+            String beforeText = text.substring(lastIndex, matcher.start());
+            if (!beforeText.isEmpty()) {
+                segments.add(InteractiveMessage.builder(beforeText).build());
+            }
+            String url = matcher.group(1);
+            segments.add(InteractiveMessage.builder(url)
+                .withClickAction(InteractiveMessage.ClickAction.OPEN_URL, url)
+                .withColor(ChatColor.AQUA)
+                .withUnderlined(true)
+                .build());
+            lastIndex = matcher.end();
+        }
+        text = lastIndex > 0 ? text.substring(lastIndex) : text;
+
+        if (!text.isEmpty()) {
+            segments.add(InteractiveMessage.builder(text).build());
+        }
+        return segments;
+    }
+
+    /**
+     * Runs one tag pass of the regex parser.
+     *
+     * @param text The text left by the previous pass
+     * @param pattern The pattern of the tag
+     * @param segments The list to add segments to
+     * @param action The click action of the tag, or null for hover tags
+     * @return The text after the last matched tag
+     */
+    private static String regexPass(String text, Pattern pattern, List<InteractiveMessage> segments,
+                                    InteractiveMessage.ClickAction action) {
+        Matcher matcher = pattern.matcher(text);
+        int lastIndex = 0;
+        while (matcher.find()) {
+            String beforeText = text.substring(lastIndex, matcher.start());
+            if (!beforeText.isEmpty()) {
+                segments.add(InteractiveMessage.builder(beforeText).build());
+            }
+            InteractiveMessage.Builder message = InteractiveMessage.builder(matcher.group(2));
+            if (action == null) {
+                message.withHoverText(matcher.group(1));
+            } else {
+                message.withClickAction(action, matcher.group(1));
+            }
+            segments.add(message.build());
+            lastIndex = matcher.end();
+        }
+        return lastIndex > 0 ? text.substring(lastIndex) : text;
+    }
+}
@@ -0,0 +1,114 @@
+package com.maks.broadcastplugin.utils;
+
+import com.maks.broadcastplugin.models.InteractiveMessage;
+import net.md_5.bungee.api.ChatColor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InteractiveMessageParserTest {
+    private final InteractiveMessageParser parser = new InteractiveMessageParser(null);
+
+    /**
+     * Describes each segment as its text, followed by its hover text and click action if it has them.
+     */
+    private List<String> parse(String text, boolean enableClickableLinks) {
+        List<String> described = new ArrayList<>();
+        for (InteractiveMessage segment : parser.parseSegments(text, enableClickableLinks)) {
+            StringBuilder description = new StringBuilder(segment.getText());
+            if (segment.getHoverText() != null) {
+                description.append(" |hover:").append(segment.getHoverText());
+            }
+            if (segment.getClickAction() != InteractiveMessage.ClickAction.NONE) {
+                description.append(" |").append(segment.getClickAction()).append(':').append(segment.getClickValue());
+            }
+            described.add(description.toString());
+        }
+        return described;
+    }
+
+    private List<String> parse(String text) {
+        return parse(text, true);
+    }
+
+    @Test
+    void emptyTextHasNoSegments() {
+        assertTrue(parse(null).isEmpty());
+        assertTrue(parse("").isEmpty());
+    }
+
+    @Test
+    void plainTextIsOneSegment() {
+        assertEquals(Arrays.asList("Just some [text] here"), parse("Just some [text] here"));
+    }
+
+    @Test
+    void tagsSplitTheTextInOrder() {
+        assertEquals(Arrays.asList("Hi ", "there |hover:A tip", "!"), parse("Hi [hover:A tip]there[/hover]!"));
+        assertEquals(Arrays.asList("Go ", "home |RUN_COMMAND:/spawn"), parse("Go [command:/spawn]home[/command]"));
+        assertEquals(Arrays.asList("msg |SUGGEST_COMMAND:/msg "), parse("[suggest:/msg ]msg[/suggest]"));
+    }
+
+    @Test
+    void nestedTagsCombineHoverAndClick() {
+        List<String> expected = Arrays.asList("Click |hover:Vote now |RUN_COMMAND:/vote");
+        assertEquals(expected, parse("[hover:Vote now][command:/vote]Click[/command][/hover]"));
+        assertEquals(expected, parse("[command:/vote][hover:Vote now]Click[/hover][/command]"));
+    }
+
+    @Test
+    void partiallyNestedTagsKeepTheOuterTag() {
+        assertEquals(Arrays.asList("Read  |hover:Info", "rules |hover:Info |RUN_COMMAND:/rules", " first |hover:Info"),
+                     parse("[hover:Info]Read [command:/rules]rules[/command] first[/hover]"));
+    }
+
+    @Test
+    void adjacentTagsAreSeparateSegments() {
+        assertEquals(Arrays.asList("A |hover:a", "B |RUN_COMMAND:/b"),
+                     parse("[hover:a]A[/hover][command:/b]B[/command]"));
+    }
+
+    @Test
+    void tagsWithoutClosingTagOrValueStayText() {
+        assertEquals(Arrays.asList("[hover:Tip]never closed"), parse("[hover:Tip]never closed"));
+        assertEquals(Arrays.asList("[hover:]empty[/hover]"), parse("[hover:]empty[/hover]"));
+        assertEquals(Arrays.asList("stray [/command] tag"), parse("stray [/command] tag"));
+    }
+
+    @Test
+    void urlsAreClickableLinks() {
+        List<InteractiveMessage> segments = parser.parseSegments("Visit https://example.com/page now", true);
+
+        assertEquals(3, segments.size());
+        InteractiveMessage link = segments.get(1);
+        assertEquals("https://example.com/page", link.getText());
+        assertEquals(InteractiveMessage.ClickAction.OPEN_URL, link.getClickAction());
+        assertEquals("https://example.com/page", link.getClickValue());
+        assertEquals(ChatColor.AQUA, link.getColor());
+        assertTrue(link.isUnderlined());
+        assertEquals(" now", segments.get(2).getText());
+    }
+
+    @Test
+    void urlsAreNotLinkedWhenDisabledOrIncomplete() {
+        assertEquals(Arrays.asList("Visit https://example.com"), parse("Visit https://example.com", false));
+        assertEquals(Arrays.asList("see http:// and https://"), parse("see http:// and https://"));
+    }
+
+    @Test
+    void urlsEndAtTagsAndKeepTheHoverText() {
+        assertEquals(Arrays.asList("https://example.com |hover:Site |OPEN_URL:https://example.com", "!"),
+                     parse("[hover:Site]https://example.com[/hover]!"));
+    }
+
+    @Test
+    void urlsInsideClickTagsAreNotLinked() {
+        assertEquals(Arrays.asList("https://example.com |RUN_COMMAND:/site"),
+                     parse("[command:/site]https://example.com[/command]"));
+    }
+}